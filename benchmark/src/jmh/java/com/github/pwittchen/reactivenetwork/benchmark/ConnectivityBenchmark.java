@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures cost of building, comparing, hashing and diffing Connectivity snapshots,
+ * which happens at least once for every network event.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ConnectivityBenchmark {
+  private Connectivity wifi;
+  private Connectivity wifiCopy;
+  private Connectivity mobile;
+
+  @Setup public void setUp() {
+    wifi = Snapshots.wifi();
+    wifiCopy = Snapshots.wifi();
+    mobile = Snapshots.mobile();
+  }
+
+  @Benchmark public Connectivity build() {
+    return Snapshots.mobile();
+  }
+
+  @Benchmark public boolean equalsEqual() {
+    return wifi.equals(wifiCopy);
+  }
+
+  @Benchmark public boolean equalsDifferent() {
+    return wifi.equals(mobile);
+  }
+
+  @Benchmark public int hashCodeOf() {
+    return wifi.hashCode();
+  }
+
+  @Benchmark public int diffDifferent() {
+    return wifi.diff(mobile);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.ConnectivityMask;
+import com.github.pwittchen.reactivenetwork.library.rx2.ConnectivityPredicate;
+import io.reactivex.functions.Predicate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures evaluation cost of predefined ConnectivityPredicate filters and composed
+ * ConnectivityMask. Matching and non-matching snapshots are measured separately.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ConnectivityPredicateBenchmark {
+  private Predicate<Connectivity> hasState;
+  private Predicate<Connectivity> hasType;
+  private Predicate<Connectivity> composedMask;
+  private Connectivity wifi;
+  private Connectivity mobile;
+  private Connectivity disconnected;
+
+  @Setup public void setUp() {
+    hasState = ConnectivityPredicate.hasState(NetworkInfo.State.CONNECTING,
+        NetworkInfo.State.SUSPENDED, NetworkInfo.State.DISCONNECTED);
+    hasType = ConnectivityPredicate.hasType(ConnectivityManager.TYPE_ETHERNET,
+        ConnectivityManager.TYPE_WIFI);
+    composedMask = ConnectivityMask.builder()
+        .state(NetworkInfo.State.CONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .build()
+        .or(ConnectivityMask.builder().type(ConnectivityManager.TYPE_MOBILE).roaming(false).build())
+        .and(ConnectivityMask.builder().available(true).build());
+    wifi = Snapshots.wifi();
+    mobile = Snapshots.mobile();
+    disconnected = Snapshots.disconnected();
+  }
+
+  @Benchmark public boolean hasStateMatching() throws Exception {
+    return hasState.test(disconnected);
+  }
+
+  @Benchmark public boolean hasStateNotMatching() throws Exception {
+    return hasState.test(wifi);
+  }
+
+  @Benchmark public boolean hasTypeMatching() throws Exception {
+    return hasType.test(wifi);
+  }
+
+  @Benchmark public boolean hasTypeNotMatching() throws Exception {
+    return hasType.test(mobile);
+  }
+
+  @Benchmark public boolean composedMaskMatching() throws Exception {
+    return composedMask.test(wifi);
+  }
+
+  @Benchmark public boolean composedMaskNotMatching() throws Exception {
+    return composedMask.test(disconnected);
+  }
+}
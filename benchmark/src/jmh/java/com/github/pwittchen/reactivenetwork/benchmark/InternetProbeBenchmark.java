@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark;
+
+import com.github.pwittchen.reactivenetwork.benchmark.loopback.CountingErrorHandler;
+import com.github.pwittchen.reactivenetwork.benchmark.loopback.HttpLoopbackServer;
+import com.github.pwittchen.reactivenetwork.benchmark.loopback.NetworkConditions;
+import com.github.pwittchen.reactivenetwork.benchmark.loopback.ShapedSocketInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.benchmark.loopback.TcpLoopbackServer;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy.WalledGardenInternetObservingStrategy;
+import io.reactivex.Single;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures latency distribution (including p50 and p99) of a single Internet connectivity check
+ * performed by SocketInternetObservingStrategy and WalledGardenInternetObservingStrategy
+ * against loopback servers, so results don't depend on the real network.
+ * Rate-based load (probes per second and thread usage) is measured by ProbeLoadRunner.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class InternetProbeBenchmark {
+  private static final int TIMEOUT_IN_MS = 100;
+
+  @Param({ "0", "5" }) public int latency;
+  @Param({ "0.0", "0.01" }) public double dropRate;
+
+  private TcpLoopbackServer tcpServer;
+  private HttpLoopbackServer httpServer;
+  private Single<Boolean> socketProbe;
+  private Single<Boolean> walledGardenProbe;
+
+  @Setup public void setUp() throws IOException {
+    final NetworkConditions conditions =
+        NetworkConditions.builder().latency(latency).dropRate(dropRate).build();
+    final CountingErrorHandler errorHandler = new CountingErrorHandler();
+
+    tcpServer = TcpLoopbackServer.start(conditions);
+    httpServer = HttpLoopbackServer.start(conditions);
+
+    socketProbe = new ShapedSocketInternetObservingStrategy(conditions)
+        .checkInternetConnectivity(tcpServer.host(), tcpServer.port(), TIMEOUT_IN_MS,
+            HttpURLConnection.HTTP_NO_CONTENT, errorHandler);
+    walledGardenProbe = new WalledGardenInternetObservingStrategy()
+        .checkInternetConnectivity(httpServer.url(), httpServer.port(), TIMEOUT_IN_MS,
+            HttpURLConnection.HTTP_NO_CONTENT, errorHandler);
+  }
+
+  @TearDown public void tearDown() throws IOException {
+    tcpServer.close();
+    httpServer.close();
+  }
+
+  @Benchmark public Boolean socket() {
+    return socketProbe.blockingGet();
+  }
+
+  @Benchmark public Boolean walledGarden() {
+    return walledGardenProbe.blockingGet();
+  }
+}
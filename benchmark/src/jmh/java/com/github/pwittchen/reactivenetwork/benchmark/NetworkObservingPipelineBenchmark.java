@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.BenchmarkLollipopStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.BenchmarkMarshmallowStrategy;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures per-event cost of LollipopNetworkObservingStrategy and
+ * MarshmallowNetworkObservingStrategy. ConnectivityManager can't be created on the plain JVM, so
+ * the strategies keep their network callbacks instead of registering them and create Connectivity
+ * from snapshots instead of asking ConnectivityManager. A single operation is one event going
+ * from the network callback of the strategy to the subscriber. Every event is a freshly created
+ * snapshot different from the previous one, so distinctUntilChanged never filters it out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class NetworkObservingPipelineBenchmark {
+  private final Context context = new ContextWrapper(null) {
+    @Override public Object getSystemService(final String name) {
+      // initial Connectivity is created without ConnectivityManager
+      return null;
+    }
+  };
+  private final Network network = new Network(1);
+  private BenchmarkLollipopStrategy lollipopStrategy;
+  private BenchmarkMarshmallowStrategy marshmallowStrategy;
+  private Disposable lollipopDisposable;
+  private Disposable marshmallowDisposable;
+  private boolean connected;
+  private long received;
+
+  @Setup public void setUp() {
+    // initial Connectivity is emitted synchronously, so it doesn't race with the first events
+    RxJavaPlugins.setIoSchedulerHandler(new Function<Scheduler, Scheduler>() {
+      @Override public Scheduler apply(Scheduler scheduler) {
+        return Schedulers.trampoline();
+      }
+    });
+
+    final Consumer<Connectivity> subscriber = new Consumer<Connectivity>() {
+      @Override public void accept(Connectivity connectivity) {
+        received++;
+      }
+    };
+
+    lollipopStrategy = new BenchmarkLollipopStrategy();
+    lollipopDisposable = lollipopStrategy.observeNetworkConnectivity(context).subscribe(subscriber);
+
+    marshmallowStrategy = new BenchmarkMarshmallowStrategy();
+    marshmallowDisposable =
+        marshmallowStrategy.observeNetworkConnectivity(context).subscribe(subscriber);
+  }
+
+  @TearDown public void tearDown() {
+    lollipopDisposable.dispose();
+    marshmallowDisposable.dispose();
+    RxJavaPlugins.reset();
+  }
+
+  @Benchmark public long lollipop() {
+    lollipopStrategy.connectivity(nextConnectivity());
+    fireEvent(lollipopStrategy.networkCallback());
+    return received;
+  }
+
+  @Benchmark public long marshmallow() {
+    marshmallowStrategy.connectivity(nextConnectivity());
+    fireEvent(marshmallowStrategy.networkCallback());
+    return received;
+  }
+
+  private Connectivity nextConnectivity() {
+    connected = !connected;
+    return connected ? Snapshots.wifi() : Snapshots.disconnected();
+  }
+
+  private void fireEvent(final NetworkCallback networkCallback) {
+    if (connected) {
+      networkCallback.onAvailable(network);
+    } else {
+      networkCallback.onLost(network);
+    }
+  }
+}
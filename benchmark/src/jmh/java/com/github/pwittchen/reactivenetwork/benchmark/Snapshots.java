@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.telephony.TelephonyManager;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+
+/**
+ * Fixtures of Connectivity snapshots similar to the ones created from real NetworkInfo objects
+ */
+final class Snapshots {
+
+  private Snapshots() {
+  }
+
+  static Connectivity wifi() {
+    return Connectivity.state(NetworkInfo.State.CONNECTED)
+        .detailedState(NetworkInfo.DetailedState.CONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .subType(0)
+        .available(true)
+        .typeName("WIFI")
+        .subTypeName("")
+        .reason("")
+        .extraInfo("\"ReactiveNetwork\"")
+        .build();
+  }
+
+  static Connectivity mobile() {
+    return Connectivity.state(NetworkInfo.State.CONNECTED)
+        .detailedState(NetworkInfo.DetailedState.CONNECTED)
+        .type(ConnectivityManager.TYPE_MOBILE)
+        .subType(TelephonyManager.NETWORK_TYPE_LTE)
+        .available(true)
+        .typeName("MOBILE")
+        .subTypeName("LTE")
+        .reason("connected")
+        .extraInfo("internet")
+        .build();
+  }
+
+  static Connectivity disconnected() {
+    return Connectivity.state(NetworkInfo.State.DISCONNECTED)
+        .detailedState(NetworkInfo.DetailedState.DISCONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .subType(0)
+        .available(true)
+        .typeName("WIFI")
+        .subTypeName("")
+        .reason("")
+        .extraInfo("<unknown ssid>")
+        .build();
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+
+/**
+ * LollipopNetworkObservingStrategy, which can run on the plain JVM. It keeps the network callback
+ * of the last subscriber instead of registering it and creates the given Connectivity instead of
+ * asking ConnectivityManager. It's placed in the package of the strategy, because the overridden
+ * methods are package-private.
+ */
+public final class BenchmarkLollipopStrategy extends LollipopNetworkObservingStrategy {
+  private NetworkCallback networkCallback;
+  private Connectivity connectivity = Connectivity.create();
+
+  public NetworkCallback networkCallback() {
+    return networkCallback;
+  }
+
+  public void connectivity(final Connectivity connectivity) {
+    this.connectivity = connectivity;
+  }
+
+  @Override NetworkCallback registerNetworkCallback(final ConnectivityManager manager,
+      final NetworkCallback networkCallback) {
+    this.networkCallback = networkCallback;
+    return networkCallback;
+  }
+
+  @Override void tryToUnregisterCallback(final ConnectivityManager manager,
+      final NetworkCallback networkCallback) {
+  }
+
+  @Override Connectivity createConnectivity(final Context context) {
+    return connectivity;
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Error handler, which only counts errors. Logging thousands of failed probes
+ * would distort measurements and android.util.Log is not available on the plain JVM.
+ */
+public final class CountingErrorHandler implements ErrorHandler {
+  private final AtomicInteger errors = new AtomicInteger();
+
+  @Override public void handleError(final Exception exception, final String message) {
+    errors.incrementAndGet();
+  }
+
+  /**
+   * @return number of handled errors
+   */
+  public int errors() {
+    return errors.get();
+  }
+}
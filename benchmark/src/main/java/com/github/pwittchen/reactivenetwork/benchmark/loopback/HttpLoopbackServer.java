@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+/**
+ * Loopback stand-in for the generate_204 endpoint used by WalledGardenInternetObservingStrategy.
+ * Latency is added before sending the response. Dropped requests are read, but never answered,
+ * so the client runs into its read timeout like with a lost packet.
+ */
+public final class HttpLoopbackServer extends LoopbackServer {
+  private static final byte[] RESPONSE = ("HTTP/1.1 204 No Content\r\n"
+      + "Content-Length: 0\r\n"
+      + "Connection: close\r\n"
+      + "\r\n").getBytes(Charset.forName("US-ASCII"));
+
+  private HttpLoopbackServer(final NetworkConditions conditions) throws IOException {
+    super(conditions);
+  }
+
+  /**
+   * Starts new server on a random loopback port
+   *
+   * @param conditions of the simulated network
+   * @return running server
+   * @throws IOException when server cannot be started
+   */
+  public static HttpLoopbackServer start(final NetworkConditions conditions) throws IOException {
+    return new HttpLoopbackServer(conditions);
+  }
+
+  /**
+   * @return url of the endpoint, which returns HTTP 204
+   */
+  public String url() {
+    return "http://" + host() + ":" + port() + "/generate_204";
+  }
+
+  @Override protected void handle(final Socket socket) throws IOException {
+    final InputStream input = socket.getInputStream();
+    readRequestHead(input);
+
+    if (conditions.shouldDrop()) {
+      drainUntilClosed(input);
+      return;
+    }
+
+    sleep(conditions.latency());
+    final OutputStream output = socket.getOutputStream();
+    output.write(RESPONSE);
+    output.flush();
+  }
+
+  private static void readRequestHead(final InputStream input) throws IOException {
+    // request head ends with an empty line, so we're looking for \r\n\r\n
+    int matched = 0;
+    int read;
+    while (matched < 4 && (read = input.read()) != -1) {
+      final boolean expectsCarriageReturn = matched % 2 == 0;
+      if (read == (expectsCarriageReturn ? '\r' : '\n')) {
+        matched++;
+      } else {
+        matched = read == '\r' ? 1 : 0;
+      }
+    }
+  }
+
+  private static void drainUntilClosed(final InputStream input) throws IOException {
+    while (input.read() != -1) {
+      // waiting for the client to give up
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process server listening on the loopback interface, which stands in for a remote host
+ * during probing. Every accepted connection is handled in a separate thread, so slow or dropped
+ * connections don't block the other ones. Server threads are named with {@link #THREAD_PREFIX},
+ * so they can be told apart from threads of the strategy under test.
+ */
+public abstract class LoopbackServer implements Closeable {
+  public static final String THREAD_PREFIX = "loopback-server-";
+  private static final int BACKLOG = 4096;
+  private static final int SO_TIMEOUT_IN_MS = 30_000;
+
+  protected final NetworkConditions conditions;
+  private final ServerSocket serverSocket;
+  private final ExecutorService executor;
+  private final Set<Socket> openSockets =
+      Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+  private final AtomicInteger accepted = new AtomicInteger();
+
+  protected LoopbackServer(final NetworkConditions conditions) throws IOException {
+    this.conditions = conditions;
+    this.serverSocket = new ServerSocket(0, BACKLOG, InetAddress.getLoopbackAddress());
+    this.executor = Executors.newCachedThreadPool(createThreadFactory());
+
+    if (conditions.refusing()) {
+      // port stays reserved in the object, but nobody listens on it anymore
+      serverSocket.close();
+    } else {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          acceptConnections();
+        }
+      });
+    }
+  }
+
+  /**
+   * @return loopback address of the server
+   */
+  public String host() {
+    return serverSocket.getInetAddress().getHostAddress();
+  }
+
+  /**
+   * @return port on which server listens
+   */
+  public int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * @return number of connections accepted so far
+   */
+  public int accepted() {
+    return accepted.get();
+  }
+
+  /**
+   * Handles single accepted connection
+   *
+   * @param socket of the accepted connection
+   * @throws IOException when connection fails
+   */
+  protected abstract void handle(final Socket socket) throws IOException;
+
+  @Override public void close() throws IOException {
+    serverSocket.close();
+    executor.shutdownNow();
+    for (Socket socket : openSockets) {
+      closeQuietly(socket);
+    }
+  }
+
+  protected void sleep(final int timeInMs) {
+    if (timeInMs <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(timeInMs);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void acceptConnections() {
+    while (!serverSocket.isClosed()) {
+      try {
+        final Socket socket = serverSocket.accept();
+        accepted.incrementAndGet();
+        socket.setSoTimeout(SO_TIMEOUT_IN_MS);
+        openSockets.add(socket);
+        execute(socket);
+      } catch (IOException exception) {
+        // server socket was closed
+      }
+    }
+  }
+
+  private void execute(final Socket socket) {
+    try {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          handleAndClose(socket);
+        }
+      });
+    } catch (RejectedExecutionException exception) {
+      // server was closed in the meantime
+      openSockets.remove(socket);
+      closeQuietly(socket);
+    }
+  }
+
+  private void handleAndClose(final Socket socket) {
+    try {
+      handle(socket);
+    } catch (IOException exception) {
+      // client went away
+    } finally {
+      openSockets.remove(socket);
+      closeQuietly(socket);
+    }
+  }
+
+  private static void closeQuietly(final Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException exception) {
+      // nothing to do
+    }
+  }
+
+  private static ThreadFactory createThreadFactory() {
+    final AtomicInteger counter = new AtomicInteger();
+    return new ThreadFactory() {
+      @Override public Thread newThread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, THREAD_PREFIX + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+}
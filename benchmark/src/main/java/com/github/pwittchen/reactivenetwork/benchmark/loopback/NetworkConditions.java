@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Network conditions simulated by loopback servers.
+ * We should use its Builder for creating new conditions
+ */
+@SuppressWarnings("PMD") // I want to have the same method names as variable names on purpose
+public final class NetworkConditions {
+  private final int latency;
+  private final double dropRate;
+  private final boolean refusing;
+
+  private NetworkConditions(Builder builder) {
+    this.latency = builder.latency;
+    this.dropRate = builder.dropRate;
+    this.refusing = builder.refusing;
+  }
+
+  /**
+   * @return conditions of a perfect network without latency and drops
+   */
+  public static NetworkConditions create() {
+    return builder().build();
+  }
+
+  /**
+   * Creates builder object
+   * @return Builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return latency added to every answered probe in milliseconds
+   */
+  public int latency() {
+    return latency;
+  }
+
+  /**
+   * @return fraction of probes, which are never answered (from 0.0 to 1.0)
+   */
+  public double dropRate() {
+    return dropRate;
+  }
+
+  /**
+   * @return true if connections are refused
+   */
+  public boolean refusing() {
+    return refusing;
+  }
+
+  /**
+   * Decides if the current probe should be dropped according to the drop rate
+   *
+   * @return true if probe should be dropped
+   */
+  public boolean shouldDrop() {
+    return dropRate > 0 && ThreadLocalRandom.current().nextDouble() < dropRate;
+  }
+
+  @Override public String toString() {
+    return "NetworkConditions{"
+        + "latency="
+        + latency
+        + ", dropRate="
+        + dropRate
+        + ", refusing="
+        + refusing
+        + '}';
+  }
+
+  public final static class Builder {
+    private int latency = 0;
+    private double dropRate = 0.0;
+    private boolean refusing = false;
+
+    private Builder() {
+    }
+
+    /**
+     * sets latency added to every answered probe
+     *
+     * @param latency in milliseconds
+     * @return Builder
+     */
+    public Builder latency(int latency) {
+      Preconditions.checkGreaterOrEqualToZero(latency, "latency is not a positive number");
+      this.latency = latency;
+      return this;
+    }
+
+    /**
+     * sets fraction of probes, which are never answered
+     *
+     * @param dropRate from 0.0 to 1.0
+     * @return Builder
+     */
+    public Builder dropRate(double dropRate) {
+      if (dropRate < 0.0 || dropRate > 1.0) {
+        throw new IllegalArgumentException("dropRate is not between 0.0 and 1.0");
+      }
+      this.dropRate = dropRate;
+      return this;
+    }
+
+    /**
+     * sets refusing of all connections
+     *
+     * @param refusing true if connections should be refused
+     * @return Builder
+     */
+    public Builder refusing(boolean refusing) {
+      this.refusing = refusing;
+      return this;
+    }
+
+    public NetworkConditions build() {
+      return new NetworkConditions(this);
+    }
+  }
+}
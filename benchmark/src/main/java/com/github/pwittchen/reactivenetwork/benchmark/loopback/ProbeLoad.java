@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import io.reactivex.Single;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.schedulers.Schedulers;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open-loop load generator for Internet connectivity probes. Probes are started at a fixed rate
+ * regardless of how long the previous ones take, on the same scheduler as in the library
+ * (Schedulers.io()), so the result shows both latency and number of threads needed to keep up.
+ */
+public final class ProbeLoad {
+  private static final String PROBE_THREAD_PREFIX = "RxCachedThreadScheduler";
+  private static final int THREAD_SAMPLING_INTERVAL_IN_MS = 50;
+  private static final long NOT_FINISHED = -1;
+
+  private ProbeLoad() {
+  }
+
+  /**
+   * Runs given probe with the given rate
+   *
+   * @param probe single connectivity check, e.g. from InternetObservingStrategy
+   * @param probesPerSecond rate of started probes
+   * @param durationInMs how long probes should be started
+   * @param timeoutInMs timeout of a single probe, used to wait for the last probes
+   * @return result of the run
+   * @throws InterruptedException when waiting for probes was interrupted
+   */
+  public static ProbeLoadResult run(final Single<Boolean> probe, final int probesPerSecond,
+      final int durationInMs, final int timeoutInMs) throws InterruptedException {
+    Preconditions.checkNotNull(probe, "probe == null");
+    Preconditions.checkGreaterThanZero(probesPerSecond, "probesPerSecond is not a positive number");
+    Preconditions.checkGreaterThanZero(durationInMs, "durationInMs is not a positive number");
+    Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+
+    final int total = (int) Math.max(1, (long) probesPerSecond * durationInMs / 1000);
+    // every probe writes its latency to its own slot, so probes finished after waiting for them
+    // are left out instead of leaving empty slots between the finished ones
+    final AtomicLongArray latencies = new AtomicLongArray(total);
+    for (int i = 0; i < total; i++) {
+      latencies.set(i, NOT_FINISHED);
+    }
+    final AtomicInteger issued = new AtomicInteger();
+    final AtomicInteger successful = new AtomicInteger();
+    final AtomicInteger peakThreads = new AtomicInteger();
+    final CountDownLatch finished = new CountDownLatch(total);
+    final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+
+    final long periodInNs = TimeUnit.SECONDS.toNanos(1) / probesPerSecond;
+    final long start = System.nanoTime();
+
+    executor.scheduleAtFixedRate(new Runnable() {
+      @Override public void run() {
+        final int slot = issued.incrementAndGet() - 1;
+        if (slot >= total) {
+          return;
+        }
+        final long probeStart = System.nanoTime();
+        probe.subscribeOn(Schedulers.io()).subscribe(new BiConsumer<Boolean, Throwable>() {
+          @Override public void accept(Boolean isConnected, Throwable throwable) {
+            latencies.set(slot, System.nanoTime() - probeStart);
+            if (Boolean.TRUE.equals(isConnected)) {
+              successful.incrementAndGet();
+            }
+            finished.countDown();
+          }
+        });
+      }
+    }, 0, periodInNs, TimeUnit.NANOSECONDS);
+
+    executor.scheduleAtFixedRate(new Runnable() {
+      @Override public void run() {
+        final int threads = countProbeThreads();
+        if (threads > peakThreads.get()) {
+          peakThreads.set(threads);
+        }
+      }
+    }, 0, THREAD_SAMPLING_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+
+    finished.await(durationInMs + 10L * timeoutInMs, TimeUnit.MILLISECONDS);
+    final long elapsed = System.nanoTime() - start;
+    executor.shutdownNow();
+
+    // read before latencies, because every probe writes its latency before counting success
+    final int successfulProbes = successful.get();
+    final long[] finishedLatencies = new long[total];
+    int done = 0;
+    for (int i = 0; i < total; i++) {
+      final long latency = latencies.get(i);
+      if (latency != NOT_FINISHED) {
+        finishedLatencies[done++] = latency;
+      }
+    }
+    return new ProbeLoadResult(probesPerSecond, Math.min(total, issued.get()), successfulProbes,
+        elapsed, Arrays.copyOf(finishedLatencies, done), peakThreads.get());
+  }
+
+  private static int countProbeThreads() {
+    final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    int count = 0;
+    for (ThreadInfo info : bean.getThreadInfo(bean.getAllThreadIds(), 0)) {
+      if (info != null && info.getThreadName().startsWith(PROBE_THREAD_PREFIX)) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a single {@link ProbeLoad} run
+ */
+@SuppressWarnings("PMD") // I want to have the same method names as variable names on purpose
+public final class ProbeLoadResult {
+  private final int probesPerSecond;
+  private final int issued;
+  private final int completed;
+  private final int successful;
+  private final long elapsedInNs;
+  private final long[] latenciesInNs;
+  private final int peakProbeThreads;
+
+  ProbeLoadResult(int probesPerSecond, int issued, int successful, long elapsedInNs,
+      long[] latenciesInNs, int peakProbeThreads) {
+    this.probesPerSecond = probesPerSecond;
+    this.issued = issued;
+    this.completed = latenciesInNs.length;
+    this.successful = successful;
+    this.elapsedInNs = elapsedInNs;
+    this.latenciesInNs = latenciesInNs.clone();
+    this.peakProbeThreads = peakProbeThreads;
+    Arrays.sort(this.latenciesInNs);
+  }
+
+  /**
+   * @return requested number of probes per second
+   */
+  public int probesPerSecond() {
+    return probesPerSecond;
+  }
+
+  /**
+   * @return number of started probes
+   */
+  public int issued() {
+    return issued;
+  }
+
+  /**
+   * @return number of finished probes
+   */
+  public int completed() {
+    return completed;
+  }
+
+  /**
+   * @return number of probes, which reported connection with the Internet
+   */
+  public int successful() {
+    return successful;
+  }
+
+  /**
+   * @return number of finished probes per second
+   */
+  public double throughput() {
+    return completed / (elapsedInNs / (double) TimeUnit.SECONDS.toNanos(1));
+  }
+
+  /**
+   * @return median probe latency in milliseconds
+   */
+  public double p50() {
+    return percentile(0.50);
+  }
+
+  /**
+   * @return 99th percentile of probe latency in milliseconds
+   */
+  public double p99() {
+    return percentile(0.99);
+  }
+
+  /**
+   * @return maximal number of live threads used for probing during the run
+   */
+  public int peakProbeThreads() {
+    return peakProbeThreads;
+  }
+
+  /**
+   * Calculates percentile of probe latency with the nearest-rank method
+   *
+   * @param percentile from 0.0 to 1.0
+   * @return latency in milliseconds or 0 if no probe was finished
+   */
+  public double percentile(final double percentile) {
+    if (completed == 0) {
+      return 0;
+    }
+    final int rank = (int) Math.ceil(percentile * completed);
+    final int index = Math.min(completed - 1, Math.max(0, rank - 1));
+    return latenciesInNs[index] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override public String toString() {
+    return "ProbeLoadResult{"
+        + "probesPerSecond="
+        + probesPerSecond
+        + ", issued="
+        + issued
+        + ", completed="
+        + completed
+        + ", successful="
+        + successful
+        + ", throughput="
+        + throughput()
+        + ", p50="
+        + p50()
+        + ", p99="
+        + p99()
+        + ", peakProbeThreads="
+        + peakProbeThreads
+        + '}';
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy.WalledGardenInternetObservingStrategy;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Locale;
+
+/**
+ * Runs probes of SocketInternetObservingStrategy and WalledGardenInternetObservingStrategy
+ * against loopback servers with increasing rate and prints throughput, latency percentiles
+ * and number of probing threads. It can be configured with the following system properties:
+ * latency (ms), dropRate (0.0 - 1.0), refusing (true/false), duration (ms), timeout (ms)
+ * and rates (comma separated probes per second).
+ */
+public final class ProbeLoadRunner {
+  private static final String ROW_FORMAT = "%-12s %8s %8s %8s %8s %10s %9s %9s %8s %8s%n";
+
+  private ProbeLoadRunner() {
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    final NetworkConditions conditions = NetworkConditions.builder()
+        .latency(Integer.getInteger("latency", 0))
+        .dropRate(Double.parseDouble(System.getProperty("dropRate", "0.0")))
+        .refusing(Boolean.getBoolean("refusing"))
+        .build();
+    final int duration = Integer.getInteger("duration", 3000);
+    final int timeout = Integer.getInteger("timeout", 2000);
+    final String[] rates = System.getProperty("rates", "1,10,100,1000,10000").split(",");
+
+    System.out.println(conditions + ", duration=" + duration + ", timeout=" + timeout);
+    System.out.printf(Locale.US, ROW_FORMAT, "strategy", "rate", "issued", "done", "ok",
+        "thrpt/s", "p50 ms", "p99 ms", "threads", "errors");
+
+    try (TcpLoopbackServer server = TcpLoopbackServer.start(conditions)) {
+      for (String rate : rates) {
+        final CountingErrorHandler errorHandler = new CountingErrorHandler();
+        final Single<Boolean> probe = new ShapedSocketInternetObservingStrategy(conditions)
+            .checkInternetConnectivity(server.host(), server.port(), timeout,
+                HttpURLConnection.HTTP_NO_CONTENT, errorHandler);
+        print("socket", run(probe, Integer.parseInt(rate.trim()), duration, timeout),
+            errorHandler);
+      }
+    }
+
+    try (HttpLoopbackServer server = HttpLoopbackServer.start(conditions)) {
+      for (String rate : rates) {
+        final CountingErrorHandler errorHandler = new CountingErrorHandler();
+        final Single<Boolean> probe = new WalledGardenInternetObservingStrategy()
+            .checkInternetConnectivity(server.url(), server.port(), timeout,
+                HttpURLConnection.HTTP_NO_CONTENT, errorHandler);
+        print("walledGarden", run(probe, Integer.parseInt(rate.trim()), duration, timeout),
+            errorHandler);
+      }
+    }
+  }
+
+  private static ProbeLoadResult run(final Single<Boolean> probe, final int rate,
+      final int duration, final int timeout) throws InterruptedException {
+    // fresh io() pool, so threads cached by the previous run are not counted
+    Schedulers.shutdown();
+    Schedulers.start();
+    return ProbeLoad.run(probe, rate, duration, timeout);
+  }
+
+  private static void print(final String strategy, final ProbeLoadResult result,
+      final CountingErrorHandler errorHandler) {
+    System.out.printf(Locale.US, ROW_FORMAT, strategy, result.probesPerSecond(),
+        result.issued(), result.completed(), result.successful(),
+        String.format(Locale.US, "%.1f", result.throughput()),
+        String.format(Locale.US, "%.2f", result.p50()),
+        String.format(Locale.US, "%.2f", result.p99()), result.peakProbeThreads(),
+        errorHandler.errors());
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+
+/**
+ * Socket, which applies latency and drops of the given network conditions to the TCP handshake.
+ * Dropped connection attempts end with timeout, just like unanswered SYN packets.
+ */
+public final class ShapedSocket extends Socket {
+  private final NetworkConditions conditions;
+
+  public ShapedSocket(final NetworkConditions conditions) {
+    this.conditions = conditions;
+  }
+
+  @Override public void connect(final SocketAddress endpoint, final int timeout)
+      throws IOException {
+    final int latency = conditions.latency();
+
+    if (conditions.shouldDrop() || (timeout > 0 && latency >= timeout)) {
+      sleep(timeout);
+      throw new SocketTimeoutException("connect timed out");
+    }
+
+    sleep(latency);
+    super.connect(endpoint, timeout > 0 ? timeout - latency : timeout);
+  }
+
+  private static void sleep(final int timeInMs) throws InterruptedIOException {
+    if (timeInMs <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(timeInMs);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("connect interrupted");
+    }
+  }
+}
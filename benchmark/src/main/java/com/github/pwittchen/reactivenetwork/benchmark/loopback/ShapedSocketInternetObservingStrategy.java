@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy.SocketInternetObservingStrategy;
+
+/**
+ * SocketInternetObservingStrategy, which connects through {@link ShapedSocket},
+ * so probes are affected by the given network conditions
+ */
+public final class ShapedSocketInternetObservingStrategy extends SocketInternetObservingStrategy {
+  private final NetworkConditions conditions;
+
+  public ShapedSocketInternetObservingStrategy(final NetworkConditions conditions) {
+    this.conditions = conditions;
+  }
+
+  @Override protected boolean isConnected(final String host, final int port,
+      final int timeoutInMs, final ErrorHandler errorHandler) {
+    return isConnected(new ShapedSocket(conditions), host, port, timeoutInMs, errorHandler);
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Loopback stand-in for the host used by SocketInternetObservingStrategy.
+ * TCP handshake is completed by the kernel as soon as the server listens, so latency and drops
+ * cannot be simulated here. They're simulated on the client side by {@link ShapedSocket}.
+ */
+public final class TcpLoopbackServer extends LoopbackServer {
+
+  private TcpLoopbackServer(final NetworkConditions conditions) throws IOException {
+    super(conditions);
+  }
+
+  /**
+   * Starts new server on a random loopback port
+   *
+   * @param conditions of the simulated network
+   * @return running server
+   * @throws IOException when server cannot be started
+   */
+  public static TcpLoopbackServer start(final NetworkConditions conditions) throws IOException {
+    return new TcpLoopbackServer(conditions);
+  }
+
+  @Override protected void handle(final Socket socket) {
+    // probe only checks if connection can be established, so it's closed right away
+  }
+}
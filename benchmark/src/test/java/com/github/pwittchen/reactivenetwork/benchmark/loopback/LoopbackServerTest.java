@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy.WalledGardenInternetObservingStrategy;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+// we're suppressing PMD warnings because we want static imports in tests
+@SuppressWarnings("PMD")
+public class LoopbackServerTest {
+  private static final int TIMEOUT_IN_MS = 200;
+  private static final int HTTP_RESPONSE = HttpURLConnection.HTTP_NO_CONTENT;
+
+  private final CountingErrorHandler errorHandler = new CountingErrorHandler();
+
+  @Test public void socketStrategyShouldBeConnectedToTcpServer() throws IOException {
+    // given
+    final NetworkConditions conditions = NetworkConditions.create();
+
+    // when
+    final boolean isConnected;
+    try (TcpLoopbackServer server = TcpLoopbackServer.start(conditions)) {
+      isConnected = checkSocket(server, conditions);
+    }
+
+    // then
+    assertThat(isConnected).isTrue();
+  }
+
+  @Test public void socketStrategyShouldNotBeConnectedWhenTcpServerRefuses() throws IOException {
+    // given
+    final NetworkConditions conditions = NetworkConditions.builder().refusing(true).build();
+
+    // when
+    final boolean isConnected;
+    try (TcpLoopbackServer server = TcpLoopbackServer.start(conditions)) {
+      isConnected = checkSocket(server, conditions);
+    }
+
+    // then
+    assertThat(isConnected).isFalse();
+  }
+
+  @Test public void socketStrategyShouldTimeOutWhenPacketsAreDropped() throws IOException {
+    // given
+    final NetworkConditions conditions = NetworkConditions.builder().dropRate(1.0).build();
+
+    // when
+    final long start = System.currentTimeMillis();
+    final boolean isConnected;
+    try (TcpLoopbackServer server = TcpLoopbackServer.start(conditions)) {
+      isConnected = checkSocket(server, conditions);
+    }
+
+    // then
+    assertThat(isConnected).isFalse();
+    assertThat(System.currentTimeMillis() - start).isAtLeast((long) TIMEOUT_IN_MS);
+  }
+
+  @Test public void socketStrategyShouldWaitForLatency() throws IOException {
+    // given
+    final int latency = 50;
+    final NetworkConditions conditions = NetworkConditions.builder().latency(latency).build();
+
+    // when
+    final long start = System.currentTimeMillis();
+    final boolean isConnected;
+    try (TcpLoopbackServer server = TcpLoopbackServer.start(conditions)) {
+      isConnected = checkSocket(server, conditions);
+    }
+
+    // then
+    assertThat(isConnected).isTrue();
+    assertThat(System.currentTimeMillis() - start).isAtLeast((long) latency);
+  }
+
+  @Test public void walledGardenStrategyShouldBeConnectedToHttpServer() throws IOException {
+    // given
+    final NetworkConditions conditions = NetworkConditions.create();
+
+    // when
+    final boolean isConnected;
+    final int accepted;
+    try (HttpLoopbackServer server = HttpLoopbackServer.start(conditions)) {
+      isConnected = checkWalledGarden(server);
+      accepted = server.accepted();
+    }
+
+    // then
+    assertThat(isConnected).isTrue();
+    assertThat(accepted).isEqualTo(1);
+  }
+
+  @Test public void walledGardenStrategyShouldNotBeConnectedWhenHttpServerRefuses()
+      throws IOException {
+    // given
+    final NetworkConditions conditions = NetworkConditions.builder().refusing(true).build();
+
+    // when
+    final boolean isConnected;
+    try (HttpLoopbackServer server = HttpLoopbackServer.start(conditions)) {
+      isConnected = checkWalledGarden(server);
+    }
+
+    // then
+    assertThat(isConnected).isFalse();
+    assertThat(errorHandler.errors()).isEqualTo(1);
+  }
+
+  @Test public void walledGardenStrategyShouldTimeOutWhenRequestsAreDropped() throws IOException {
+    // given
+    final NetworkConditions conditions = NetworkConditions.builder().dropRate(1.0).build();
+
+    // when
+    final long start = System.currentTimeMillis();
+    final boolean isConnected;
+    try (HttpLoopbackServer server = HttpLoopbackServer.start(conditions)) {
+      isConnected = checkWalledGarden(server);
+    }
+
+    // then
+    assertThat(isConnected).isFalse();
+    assertThat(System.currentTimeMillis() - start).isAtLeast((long) TIMEOUT_IN_MS);
+  }
+
+  @Test public void walledGardenStrategyShouldTimeOutWhenLatencyIsTooHigh() throws IOException {
+    // given
+    final NetworkConditions conditions =
+        NetworkConditions.builder().latency(2 * TIMEOUT_IN_MS).build();
+
+    // when
+    final boolean isConnected;
+    try (HttpLoopbackServer server = HttpLoopbackServer.start(conditions)) {
+      isConnected = checkWalledGarden(server);
+    }
+
+    // then
+    assertThat(isConnected).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowDropRateGreaterThanOne() {
+    NetworkConditions.builder().dropRate(1.5);
+  }
+
+  private boolean checkSocket(final TcpLoopbackServer server,
+      final NetworkConditions conditions) {
+    return new ShapedSocketInternetObservingStrategy(conditions)
+        .checkInternetConnectivity(server.host(), server.port(), TIMEOUT_IN_MS, HTTP_RESPONSE,
+            errorHandler)
+        .blockingGet();
+  }
+
+  private boolean checkWalledGarden(final HttpLoopbackServer server) {
+    return new WalledGardenInternetObservingStrategy()
+        .checkInternetConnectivity(server.url(), server.port(), TIMEOUT_IN_MS, HTTP_RESPONSE,
+            errorHandler)
+        .blockingGet();
+  }
+}
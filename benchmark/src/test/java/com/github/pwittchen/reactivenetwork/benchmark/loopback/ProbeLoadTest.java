@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.benchmark.loopback;
+
+import io.reactivex.Single;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+// we're suppressing PMD warnings because we want static imports in tests
+@SuppressWarnings("PMD")
+public class ProbeLoadTest {
+  private static final int TIMEOUT_IN_MS = 500;
+
+  @Test public void shouldRunAllProbesWithGivenRate() throws Exception {
+    // given
+    final NetworkConditions conditions = NetworkConditions.builder().latency(5).build();
+    final ProbeLoadResult result;
+
+    // when
+    try (TcpLoopbackServer server = TcpLoopbackServer.start(conditions)) {
+      final Single<Boolean> probe = new ShapedSocketInternetObservingStrategy(conditions)
+          .checkInternetConnectivity(server.host(), server.port(), TIMEOUT_IN_MS,
+              HttpURLConnection.HTTP_NO_CONTENT, new CountingErrorHandler());
+      result = ProbeLoad.run(probe, 100, 500, TIMEOUT_IN_MS);
+    }
+
+    // then
+    assertThat(result.issued()).isEqualTo(50);
+    assertThat(result.completed()).isEqualTo(50);
+    assertThat(result.successful()).isEqualTo(50);
+    assertThat(result.p50()).isAtLeast(5.0);
+    assertThat(result.p99()).isAtLeast(result.p50());
+    assertThat(result.peakProbeThreads()).isGreaterThan(0);
+  }
+
+  @Test public void shouldCountFailedProbes() throws IOException, InterruptedException {
+    // given
+    final NetworkConditions conditions = NetworkConditions.builder().refusing(true).build();
+    final ProbeLoadResult result;
+
+    // when
+    try (TcpLoopbackServer server = TcpLoopbackServer.start(conditions)) {
+      final Single<Boolean> probe = new ShapedSocketInternetObservingStrategy(conditions)
+          .checkInternetConnectivity(server.host(), server.port(), TIMEOUT_IN_MS,
+              HttpURLConnection.HTTP_NO_CONTENT, new CountingErrorHandler());
+      result = ProbeLoad.run(probe, 50, 200, TIMEOUT_IN_MS);
+    }
+
+    // then
+    assertThat(result.completed()).isEqualTo(10);
+    assertThat(result.successful()).isEqualTo(0);
+  }
+
+  @Test public void shouldLeaveOutProbesNotFinishedInTime() throws InterruptedException {
+    // given
+    final AtomicInteger subscriptions = new AtomicInteger();
+    final Single<Boolean> probe = Single.defer(() -> subscriptions.incrementAndGet() % 2 == 0
+        ? Single.<Boolean>never()
+        : Single.just(true).delay(5, TimeUnit.MILLISECONDS));
+
+    // when
+    final ProbeLoadResult result = ProbeLoad.run(probe, 100, 200, 10);
+
+    // then
+    assertThat(result.issued()).isEqualTo(20);
+    assertThat(result.completed()).isEqualTo(10);
+    assertThat(result.successful()).isEqualTo(10);
+    assertThat(result.p50()).isAtLeast(5.0);
+  }
+
+  @Test public void shouldCalculatePercentilesWithNearestRankMethod() {
+    // given
+    final long[] latencies = new long[100];
+    for (int i = 0; i < latencies.length; i++) {
+      latencies[i] = (100 - i) * 1_000_000L; // from 100 ms down to 1 ms
+    }
+
+    // when
+    final ProbeLoadResult result = new ProbeLoadResult(100, 100, 100, 1_000_000_000L, latencies, 1);
+
+    // then
+    assertThat(result.p50()).isEqualTo(50.0);
+    assertThat(result.p99()).isEqualTo(99.0);
+    assertThat(result.percentile(1.0)).isEqualTo(100.0);
+    assertThat(result.throughput()).isEqualTo(100.0);
+  }
+}
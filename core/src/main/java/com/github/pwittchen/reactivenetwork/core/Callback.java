@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+/**
+ * Receives results of the Internet connectivity probes
+ *
+ * @param <T> type of the result
+ */
+public interface Callback<T> {
+  /**
+   * Called on the thread of the executor, which performed the probe.
+   * It shouldn't throw, because that stops the periodic probing.
+   *
+   * @param result of the probe
+   */
+  void onResult(T result);
+}
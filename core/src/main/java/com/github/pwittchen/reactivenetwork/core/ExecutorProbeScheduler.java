@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probe scheduler backed by the ScheduledExecutorService
+ */
+final class ExecutorProbeScheduler implements ProbeScheduler {
+  private final ScheduledExecutorService executor;
+
+  ExecutorProbeScheduler(final ScheduledExecutorService executor) {
+    this.executor = executor;
+  }
+
+  @Override public Cancellable schedule(final Runnable task, final long delayInMs) {
+    return cancellable(executor.schedule(task, delayInMs, TimeUnit.MILLISECONDS));
+  }
+
+  @Override public Cancellable scheduleAtFixedRate(final Runnable task,
+      final long initialDelayInMs, final long periodInMs) {
+    return cancellable(
+        executor.scheduleAtFixedRate(task, initialDelayInMs, periodInMs, TimeUnit.MILLISECONDS));
+  }
+
+  private static Cancellable cancellable(final Future<?> future) {
+    return new Cancellable() {
+      @Override public void cancel() {
+        future.cancel(false);
+      }
+    };
+  }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import androidx.annotation.Nullable;
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed wheel timer, which drives periodic probes of many monitors from a single tick thread.
+ * Timeouts are added to and removed from the buckets of the wheel in O(1) time, no matter how many
+ * of them are scheduled. Expired tasks are handed off to the given executor, so blocking probes
+ * don't delay the ticks. Precision of the timer is limited to the tick duration.
+ */
+public final class HashedWheelTimer implements ProbeScheduler, Closeable {
+  private static final int CREATED = 0;
+  private static final int STARTED = 1;
+  private static final int CLOSED = 2;
+  // limits the work of a single tick, when a lot of timeouts is scheduled at once
+  private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+  private static final int MAX_TICKS_PER_WHEEL = 1 << 30;
+
+  private final Executor executor;
+  private final ErrorHandler errorHandler;
+  private final long tickDurationInNanos;
+  private final Bucket[] wheel;
+  private final int mask;
+  private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger state = new AtomicInteger(CREATED);
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final Thread worker;
+  private volatile long startTimeInNanos;
+  private long tick; // accessed only by the worker
+
+  private HashedWheelTimer(final Builder builder) {
+    this.executor = builder.executor;
+    this.errorHandler = builder.errorHandler;
+    this.tickDurationInNanos = TimeUnit.MILLISECONDS.toNanos(builder.tickDurationInMs);
+    this.wheel = new Bucket[normalizeTicksPerWheel(builder.ticksPerWheel)];
+    for (int i = 0; i < wheel.length; i++) {
+      wheel[i] = new Bucket();
+    }
+    this.mask = wheel.length - 1;
+    this.worker = new Thread(new Worker(), "ReactiveNetwork-wheel-timer");
+    this.worker.setDaemon(true);
+  }
+
+  /**
+   * Creates timer with the default tick duration and wheel size
+   *
+   * @param executor to which expired tasks are handed off
+   * @return HashedWheelTimer
+   */
+  public static HashedWheelTimer create(final Executor executor) {
+    return builder(executor).build();
+  }
+
+  /**
+   * Creates builder object
+   *
+   * @param executor to which expired tasks are handed off
+   * @return Builder
+   */
+  public static Builder builder(final Executor executor) {
+    Preconditions.checkNotNull(executor, "executor == null");
+    return new Builder(executor);
+  }
+
+  private static int normalizeTicksPerWheel(final int ticksPerWheel) {
+    // power of two, so the bucket can be selected with a mask instead of modulo
+    int normalized = 1;
+    while (normalized < ticksPerWheel) {
+      normalized <<= 1;
+    }
+    return normalized;
+  }
+
+  @Override public Cancellable schedule(final Runnable task, final long delayInMs) {
+    return scheduleAtFixedRate(task, delayInMs, 0, true);
+  }
+
+  @Override public Cancellable scheduleAtFixedRate(final Runnable task,
+      final long initialDelayInMs, final long periodInMs) {
+    Preconditions.checkGreaterThanZero(periodInMs, "periodInMs is not a positive number");
+    return scheduleAtFixedRate(task, initialDelayInMs, periodInMs, false);
+  }
+
+  private Cancellable scheduleAtFixedRate(final Runnable task, final long initialDelayInMs,
+      final long periodInMs, final boolean once) {
+    Preconditions.checkNotNull(task, "task == null");
+    Preconditions.checkGreaterOrEqualToZero(initialDelayInMs,
+        "initialDelayInMs is not a positive number");
+    start();
+
+    final long deadlineInNanos =
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(initialDelayInMs) - startTimeInNanos;
+    final Timeout timeout = new Timeout(task, deadlineInNanos,
+        once ? 0 : TimeUnit.MILLISECONDS.toNanos(periodInMs));
+    pendingTimeouts.add(timeout);
+    return timeout;
+  }
+
+  private void start() {
+    if (state.get() == CREATED && state.compareAndSet(CREATED, STARTED)) {
+      worker.start();
+    }
+    if (state.get() == CLOSED) {
+      throw new IllegalStateException("timer is closed");
+    }
+
+    boolean interrupted = false;
+    while (startTimeInNanos == 0) {
+      try {
+        started.await();
+      } catch (InterruptedException exception) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Stops the tick thread. Scheduled tasks won't be run anymore.
+   */
+  @Override public void close() {
+    if (state.getAndSet(CLOSED) == STARTED) {
+      worker.interrupt();
+    }
+  }
+
+  private final class Worker implements Runnable {
+    @Override public void run() {
+      final long now = System.nanoTime();
+      // 0 means, that the timer hasn't been started yet
+      startTimeInNanos = now == 0 ? 1 : now;
+      started.countDown();
+
+      while (state.get() == STARTED) {
+        final long deadlineInNanos = waitForNextTick();
+        if (deadlineInNanos < 0) {
+          break;
+        }
+        removeCancelledTimeouts();
+        transferPendingTimeouts();
+        wheel[(int) (tick & mask)].expire(deadlineInNanos);
+        tick++;
+      }
+    }
+
+    /**
+     * @return time of the tick relative to the start time or -1, when the timer is closed
+     */
+    private long waitForNextTick() {
+      final long deadlineInNanos = tickDurationInNanos * (tick + 1);
+      while (true) {
+        final long currentTimeInNanos = System.nanoTime() - startTimeInNanos;
+        final long sleepTimeInMs =
+            TimeUnit.NANOSECONDS.toMillis(deadlineInNanos - currentTimeInNanos + 999_999);
+        if (sleepTimeInMs <= 0) {
+          return currentTimeInNanos;
+        }
+        try {
+          Thread.sleep(sleepTimeInMs);
+        } catch (InterruptedException exception) {
+          if (state.get() == CLOSED) {
+            return -1;
+          }
+        }
+      }
+    }
+
+    private void removeCancelledTimeouts() {
+      Timeout timeout;
+      while ((timeout = cancelledTimeouts.poll()) != null) {
+        final Bucket bucket = timeout.bucket;
+        if (bucket != null) {
+          bucket.remove(timeout);
+        }
+      }
+    }
+
+    private void transferPendingTimeouts() {
+      for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+        final Timeout timeout = pendingTimeouts.poll();
+        if (timeout == null) {
+          return;
+        }
+        if (timeout.isCancelled()) {
+          continue;
+        }
+        final long calculatedTick = timeout.deadlineInNanos / tickDurationInNanos;
+        timeout.remainingRounds = (calculatedTick - tick) / wheel.length;
+        // timeouts, which should have expired already, are expired with the current tick
+        final long ticks = Math.max(calculatedTick, tick);
+        wheel[(int) (ticks & mask)].add(timeout);
+      }
+    }
+  }
+
+  private final class Timeout implements Cancellable {
+    private final Runnable task;
+    private final long periodInNanos;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    // fields below are accessed only by the worker
+    private long deadlineInNanos;
+    private long remainingRounds;
+    @Nullable private Bucket bucket;
+    @Nullable private Timeout next;
+    @Nullable private Timeout previous;
+
+    Timeout(final Runnable task, final long deadlineInNanos, final long periodInNanos) {
+      this.task = task;
+      this.deadlineInNanos = deadlineInNanos;
+      this.periodInNanos = periodInNanos;
+    }
+
+    boolean isCancelled() {
+      return cancelled.get();
+    }
+
+    @Override public void cancel() {
+      if (cancelled.compareAndSet(false, true)) {
+        cancelledTimeouts.add(this);
+      }
+    }
+
+    void expire() {
+      if (isCancelled()) {
+        return;
+      }
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException exception) {
+        cancel();
+        return;
+      } catch (Throwable throwable) {
+        // tick thread has to survive failing tasks (e.g. run by a direct executor)
+        final Exception exception = throwable instanceof Exception
+            ? (Exception) throwable : new ExecutionException(throwable);
+        errorHandler.handleError(exception, "could not run timer task");
+      }
+      if (periodInNanos > 0) {
+        // fixed rate, so the deadline doesn't drift with the precision of the ticks
+        deadlineInNanos += periodInNanos;
+        pendingTimeouts.add(this);
+      }
+    }
+  }
+
+  /**
+   * Doubly linked list of timeouts, which allows to remove a timeout in O(1) time
+   */
+  private final class Bucket {
+    @Nullable private Timeout head;
+    @Nullable private Timeout tail;
+
+    void add(final Timeout timeout) {
+      final Timeout last = tail;
+      timeout.bucket = this;
+      if (last == null) {
+        head = timeout;
+      } else {
+        last.next = timeout;
+        timeout.previous = last;
+      }
+      tail = timeout;
+    }
+
+    void remove(final Timeout timeout) {
+      final Timeout previous = timeout.previous;
+      final Timeout next = timeout.next;
+      if (previous == null) {
+        head = next;
+      } else {
+        previous.next = next;
+      }
+      if (next == null) {
+        tail = previous;
+      } else {
+        next.previous = previous;
+      }
+      timeout.previous = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+
+    void expire(final long deadlineInNanos) {
+      Timeout timeout = head;
+      while (timeout != null) {
+        final Timeout next = timeout.next;
+        if (timeout.remainingRounds <= 0) {
+          remove(timeout);
+          if (timeout.deadlineInNanos <= deadlineInNanos) {
+            timeout.expire();
+          } else {
+            pendingTimeouts.add(timeout);
+          }
+        } else {
+          timeout.remainingRounds--;
+        }
+        timeout = next;
+      }
+    }
+  }
+
+  /**
+   * Timer builder, which contains default parameters
+   */
+  public static final class Builder {
+    private final Executor executor; // NOPMD
+    private int tickDurationInMs = 10; // NOPMD
+    private int ticksPerWheel = 512; // NOPMD
+    private ErrorHandler errorHandler = new LoggingErrorHandler(); // NOPMD
+
+    private Builder(final Executor executor) {
+      this.executor = executor;
+    }
+
+    /**
+     * Sets duration of a single tick, which determines precision of the timer
+     *
+     * @param tickDurationInMs in milliseconds
+     * @return Builder
+     */
+    public Builder tickDuration(final int tickDurationInMs) {
+      Preconditions.checkGreaterThanZero(tickDurationInMs,
+          "tickDurationInMs is not a positive number");
+      this.tickDurationInMs = tickDurationInMs;
+      return this;
+    }
+
+    /**
+     * Sets number of buckets of the wheel. It's rounded up to the power of two.
+     *
+     * @param ticksPerWheel number of buckets
+     * @return Builder
+     */
+    public Builder ticksPerWheel(final int ticksPerWheel) {
+      Preconditions.checkGreaterThanZero(ticksPerWheel, "ticksPerWheel is not a positive number");
+      if (ticksPerWheel > MAX_TICKS_PER_WHEEL) {
+        throw new IllegalArgumentException("ticksPerWheel is greater than " + MAX_TICKS_PER_WHEEL);
+      }
+      this.ticksPerWheel = ticksPerWheel;
+      return this;
+    }
+
+    /**
+     * Sets handler of the failures of tasks run on the tick thread, e.g. by a direct executor.
+     * Errors are wrapped in ExecutionException.
+     *
+     * @param errorHandler for handling failures of the tasks
+     * @return Builder
+     */
+    public Builder errorHandler(final ErrorHandler errorHandler) {
+      Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+      this.errorHandler = errorHandler;
+      return this;
+    }
+
+    public HashedWheelTimer build() {
+      return new HashedWheelTimer(this);
+    }
+  }
+}
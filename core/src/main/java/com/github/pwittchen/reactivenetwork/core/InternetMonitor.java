@@ -0,0 +1,340 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Monitors connectivity with the Internet without RxJava. Probes are performed by the given
+ * {@link InternetProbe} on the executor and their results are passed to the {@link Callback}.
+ * Thousands of monitors can share a single {@link HashedWheelTimer} instead of the executor.
+ * In tight loops, {@link #isConnected()} can be called directly on the current thread.
+ * Probes can be handed off from the scheduling executor to another one, e.g. to
+ * {@link VirtualThreads#executor()} when many hosts are monitored.
+ */
+public final class InternetMonitor {
+  private final InternetProbe probe;
+  private final int initialIntervalInMs;
+  private final int intervalInMs;
+  private final String host;
+  private final int port;
+  private final int timeoutInMs;
+  private final int httpResponse;
+  private final ErrorHandler errorHandler;
+  private final ProbeScheduler scheduler;
+  private final Executor probeExecutor;
+
+  private InternetMonitor(final Builder builder) {
+    this.probe = builder.probe;
+    this.initialIntervalInMs = builder.initialIntervalInMs;
+    this.intervalInMs = builder.intervalInMs;
+    this.host = probe.adjustHost(builder.host);
+    this.port = builder.port;
+    this.timeoutInMs = builder.timeoutInMs;
+    this.httpResponse = builder.httpResponse;
+    this.errorHandler = builder.errorHandler;
+    this.scheduler = builder.scheduler;
+    this.probeExecutor = builder.probeExecutor;
+  }
+
+  /**
+   * Creates builder object
+   *
+   * @param probe checking connectivity with the Internet
+   * @return Builder
+   */
+  public static Builder builder(final InternetProbe probe) {
+    Preconditions.checkNotNull(probe, "probe == null");
+    return new Builder(probe);
+  }
+
+  /**
+   * Checks connectivity with the Internet once, on the current thread
+   *
+   * @return true, when we have connection with host and false if not
+   */
+  public boolean isConnected() {
+    return probe.isConnected(host, port, timeoutInMs, httpResponse, errorHandler);
+  }
+
+  /**
+   * Checks connectivity with the Internet once, on the executor
+   *
+   * @param callback receiving the result
+   * @return Cancellable, which cancels the check
+   */
+  public Cancellable check(final Callback<Boolean> callback) {
+    Preconditions.checkNotNull(callback, "callback == null");
+    final Probing probing = new Probing(callback);
+    probing.setScheduled(scheduler.schedule(probing, 0));
+    return probing;
+  }
+
+  /**
+   * Observes connectivity with the Internet in the interval infinitely, on the executor.
+   * Callback receives the result of the first probe and then only results, which differ from
+   * the previous one.
+   *
+   * @param callback receiving the results
+   * @return Cancellable, which stops observing
+   */
+  public Cancellable observe(final Callback<Boolean> callback) {
+    Preconditions.checkNotNull(callback, "callback == null");
+    final Probing probing = new Probing(callback);
+    probing.setScheduled(
+        scheduler.scheduleAtFixedRate(probing, initialIntervalInMs, intervalInMs));
+    return probing;
+  }
+
+  private final class Probing implements Runnable, Cancellable {
+    private final Callback<Boolean> callback;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicBoolean inProgress = new AtomicBoolean();
+    private final AtomicReference<Cancellable> scheduled = new AtomicReference<>();
+    // probes don't overlap and the previous one happens-before the next one thanks to inProgress
+    private boolean hasResult;
+    private boolean lastResult;
+
+    private final Runnable probeTask = new Runnable() {
+      @Override public void run() {
+        try {
+          probe();
+        } finally {
+          inProgress.set(false);
+        }
+      }
+    };
+
+    Probing(final Callback<Boolean> callback) {
+      this.callback = callback;
+    }
+
+    void setScheduled(final Cancellable scheduled) {
+      this.scheduled.set(scheduled);
+      if (cancelled.get()) {
+        scheduled.cancel();
+      }
+    }
+
+    @Override public void run() {
+      // tick is skipped, when the previous probe is still in progress
+      if (!cancelled.get() && inProgress.compareAndSet(false, true)) {
+        try {
+          probeExecutor.execute(probeTask);
+        } catch (RejectedExecutionException exception) {
+          // probe won't run, so the next tick has to be able to start it again
+          inProgress.set(false);
+          errorHandler.handleError(exception, "could not start probe");
+        }
+      }
+    }
+
+    private void probe() {
+      if (cancelled.get()) {
+        return;
+      }
+      final boolean isConnected = isConnected();
+      if (cancelled.get() || (hasResult && lastResult == isConnected)) {
+        return;
+      }
+      hasResult = true;
+      lastResult = isConnected;
+      try {
+        callback.onResult(isConnected);
+      } catch (RuntimeException exception) {
+        // failure of the callback is reported separately, so it doesn't stop observing
+        errorHandler.handleError(exception, "callback could not handle result of probe");
+      }
+    }
+
+    @Override public void cancel() {
+      if (cancelled.compareAndSet(false, true)) {
+        final Cancellable scheduled = this.scheduled.get();
+        if (scheduled != null) {
+          scheduled.cancel();
+        }
+      }
+    }
+  }
+
+  /**
+   * Monitor builder, which contains default parameters
+   */
+  public static final class Builder {
+    private final InternetProbe probe; // NOPMD
+    private int initialIntervalInMs = 0; // NOPMD
+    private int intervalInMs = 2000; // NOPMD
+    private String host; // NOPMD
+    private int port = 80; // NOPMD
+    private int timeoutInMs = 2000; // NOPMD
+    private int httpResponse = HttpURLConnection.HTTP_NO_CONTENT; // NOPMD
+    private ErrorHandler errorHandler = new LoggingErrorHandler(); // NOPMD
+    private ProbeScheduler scheduler = // NOPMD
+        new ExecutorProbeScheduler(DefaultExecutor.INSTANCE);
+    private Executor probeExecutor = DirectExecutor.INSTANCE; // NOPMD
+
+    private Builder(final InternetProbe probe) {
+      this.probe = probe;
+      this.host = probe.getDefaultPingHost();
+    }
+
+    /**
+     * @param initialIntervalInMs delay of the first probe in milliseconds
+     * @return Builder
+     */
+    public Builder initialInterval(final int initialIntervalInMs) {
+      Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+          "initialIntervalInMs is not a positive number");
+      this.initialIntervalInMs = initialIntervalInMs;
+      return this;
+    }
+
+    /**
+     * @param intervalInMs between the probes in milliseconds
+     * @return Builder
+     */
+    public Builder interval(final int intervalInMs) {
+      Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+      this.intervalInMs = intervalInMs;
+      return this;
+    }
+
+    /**
+     * @param host for checking Internet connectivity
+     * @return Builder
+     */
+    public Builder host(final String host) {
+      Preconditions.checkNotNullOrEmpty(host, "host is null or empty");
+      this.host = host;
+      return this;
+    }
+
+    /**
+     * @param port for checking Internet connectivity
+     * @return Builder
+     */
+    public Builder port(final int port) {
+      Preconditions.checkGreaterThanZero(port, "port is not a positive number");
+      this.port = port;
+      return this;
+    }
+
+    /**
+     * @param timeoutInMs for pinging remote host in milliseconds
+     * @return Builder
+     */
+    public Builder timeout(final int timeoutInMs) {
+      Preconditions.checkGreaterThanZero(timeoutInMs, "timeoutInMs is not a positive number");
+      this.timeoutInMs = timeoutInMs;
+      return this;
+    }
+
+    /**
+     * @param httpResponse expected HTTP response code
+     * @return Builder
+     */
+    public Builder httpResponse(final int httpResponse) {
+      Preconditions.checkGreaterThanZero(httpResponse, "httpResponse is not a positive number");
+      this.httpResponse = httpResponse;
+      return this;
+    }
+
+    /**
+     * @param errorHandler for handling errors while checking connectivity
+     * @return Builder
+     */
+    public Builder errorHandler(final ErrorHandler errorHandler) {
+      Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+      this.errorHandler = errorHandler;
+      return this;
+    }
+
+    /**
+     * Sets executor performing the probes. By default, it's a pool of daemon threads shared
+     * by all of the monitors.
+     *
+     * @param executor performing the probes
+     * @return Builder
+     */
+    public Builder executor(final ScheduledExecutorService executor) {
+      Preconditions.checkNotNull(executor, "executor == null");
+      this.scheduler = new ExecutorProbeScheduler(executor);
+      return this;
+    }
+
+    /**
+     * Sets scheduler of the probes, e.g. {@link HashedWheelTimer} shared by many monitors.
+     * It replaces the executor set with {@link #executor(ScheduledExecutorService)}.
+     *
+     * @param scheduler of the probes
+     * @return Builder
+     */
+    public Builder scheduler(final ProbeScheduler scheduler) {
+      Preconditions.checkNotNull(scheduler, "scheduler == null");
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    /**
+     * Sets executor, to which probes are handed off from the executor scheduling them.
+     * By default, probes are performed directly on the scheduling executor. When a probe lasts
+     * longer than the interval, next ticks are skipped until it completes.
+     *
+     * @param probeExecutor performing the probes
+     * @return Builder
+     */
+    public Builder probeExecutor(final Executor probeExecutor) {
+      Preconditions.checkNotNull(probeExecutor, "probeExecutor == null");
+      this.probeExecutor = probeExecutor;
+      return this;
+    }
+
+    public InternetMonitor build() {
+      return new InternetMonitor(this);
+    }
+  }
+
+  private enum DirectExecutor implements Executor {
+    INSTANCE;
+
+    @Override public void execute(final Runnable runnable) {
+      runnable.run();
+    }
+  }
+
+  private static final class DefaultExecutor {
+    // threads are started with the first probe
+    static final ScheduledExecutorService INSTANCE = Executors.newScheduledThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), new ThreadFactory() {
+          private final AtomicInteger count = new AtomicInteger();
+
+          @Override public Thread newThread(final Runnable runnable) {
+            final Thread thread =
+                new Thread(runnable, "ReactiveNetwork-probe-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+  }
+}
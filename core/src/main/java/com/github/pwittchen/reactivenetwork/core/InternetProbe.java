@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+/**
+ * Internet probe checks connectivity with the remote host synchronously, on the calling thread
+ */
+public interface InternetProbe {
+  /**
+   * Checks connectivity with the Internet once
+   *
+   * @param host adjusted with {@link #adjustHost(String)}
+   * @param port for checking Internet connectivity
+   * @param timeoutInMs for pinging remote host in milliseconds
+   * @param httpResponse expected HTTP response code, if the probe uses HTTP
+   * @param errorHandler for handling errors while checking connectivity
+   * @return true, when we have connection with host and false if not
+   */
+  boolean isConnected(final String host, final int port, final int timeoutInMs,
+      final int httpResponse, final ErrorHandler errorHandler);
+
+  /**
+   * Adjusts host to the needs of the probe, e.g. adds or removes protocol
+   *
+   * @param host given by the user
+   * @return transformed host
+   */
+  String adjustHost(final String host);
+
+  /**
+   * Gets default remote ping host for a given probe
+   *
+   * @return String with a ping host used in the current probe
+   */
+  String getDefaultPingHost();
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+final class Preconditions {
+  private Preconditions() {
+  }
+
+  static void checkNotNull(Object object, String message) {
+    if (object == null) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  static void checkNotNullOrEmpty(String string, String message) {
+    if (string == null || string.isEmpty()) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  static void checkGreaterOrEqualToZero(int number, String message) {
+    if (number < 0) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  static void checkGreaterThanZero(int number, String message) {
+    if (number <= 0) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  static void checkGreaterOrEqualToZero(long number, String message) {
+    if (number < 0) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  static void checkGreaterThanZero(long number, String message) {
+    if (number <= 0) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+}
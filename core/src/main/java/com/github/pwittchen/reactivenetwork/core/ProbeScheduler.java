@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+/**
+ * Probe scheduler runs tasks of the {@link InternetMonitor} after the delay or periodically
+ */
+public interface ProbeScheduler {
+  /**
+   * Runs the task once after the delay
+   *
+   * @param task to run
+   * @param delayInMs in milliseconds
+   * @return Cancellable, which cancels the task
+   */
+  Cancellable schedule(final Runnable task, final long delayInMs);
+
+  /**
+   * Runs the task periodically, starting after the initial delay
+   *
+   * @param task to run
+   * @param initialDelayInMs in milliseconds
+   * @param periodInMs in milliseconds
+   * @return Cancellable, which cancels the next runs of the task
+   */
+  Cancellable scheduleAtFixedRate(final Runnable task, final long initialDelayInMs,
+      final long periodInMs);
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import com.jakewharton.nopen.annotation.Open;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Socket probe checks connectivity with the Internet via opening socket connection with the remote
+ * host.
+ */
+@Open public class SocketProbe implements InternetProbe {
+  private static final String EMPTY_STRING = "";
+  private static final String DEFAULT_HOST = "www.google.com";
+  private static final String HTTP_PROTOCOL = "http://";
+  private static final String HTTPS_PROTOCOL = "https://";
+
+  @Override public String getDefaultPingHost() {
+    return DEFAULT_HOST;
+  }
+
+  @Override public boolean isConnected(final String host, final int port, final int timeoutInMs,
+      final int httpResponse, final ErrorHandler errorHandler) {
+    return isConnected(host, port, timeoutInMs, errorHandler);
+  }
+
+  /**
+   * adjusts host to needs of SocketProbe
+   *
+   * @return transformed host
+   */
+  @Override public String adjustHost(final String host) {
+    if (host.startsWith(HTTP_PROTOCOL)) {
+      return host.replace(HTTP_PROTOCOL, EMPTY_STRING);
+    } else if (host.startsWith(HTTPS_PROTOCOL)) {
+      return host.replace(HTTPS_PROTOCOL, EMPTY_STRING);
+    }
+    return host;
+  }
+
+  /**
+   * checks if device is connected to given host at given port
+   *
+   * @param host to connect
+   * @param port to connect
+   * @param timeoutInMs connection timeout
+   * @param errorHandler error handler for socket connection
+   * @return boolean true if connected and false if not
+   */
+  protected boolean isConnected(final String host, final int port, final int timeoutInMs,
+      final ErrorHandler errorHandler) {
+    final Socket socket = new Socket();
+    return isConnected(socket, host, port, timeoutInMs, errorHandler);
+  }
+
+  /**
+   * checks if device is connected to given host at given port
+   *
+   * @param socket to connect
+   * @param host to connect
+   * @param port to connect
+   * @param timeoutInMs connection timeout
+   * @param errorHandler error handler for socket connection
+   * @return boolean true if connected and false if not
+   */
+  protected boolean isConnected(final Socket socket, final String host, final int port,
+      final int timeoutInMs, final ErrorHandler errorHandler) {
+    return isConnected(socket, new InetSocketAddress(host, port), timeoutInMs, errorHandler);
+  }
+
+  /**
+   * checks if device is connected to given address, which is already resolved
+   *
+   * @param socket to connect
+   * @param address to connect
+   * @param timeoutInMs connection timeout
+   * @param errorHandler error handler for socket connection
+   * @return boolean true if connected and false if not
+   */
+  protected boolean isConnected(final Socket socket, final InetSocketAddress address,
+      final int timeoutInMs, final ErrorHandler errorHandler) {
+    boolean isConnected;
+    try {
+      socket.connect(address, timeoutInMs);
+      isConnected = socket.isConnected();
+    } catch (IOException e) {
+      isConnected = Boolean.FALSE;
+    } finally {
+      try {
+        socket.close();
+      } catch (IOException exception) {
+        errorHandler.handleError(exception, "Could not close the socket");
+      }
+    }
+    return isConnected;
+  }
+}
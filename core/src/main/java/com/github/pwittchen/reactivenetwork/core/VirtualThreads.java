@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides executor running every task in a new virtual thread. Virtual threads are available
+ * since Java 21, while core is compiled for Java 8, so the executor is created via reflection.
+ * Blocking probes are cheap on virtual threads, so they fit monitoring of thousands of hosts.
+ */
+public final class VirtualThreads {
+  private static final String FACTORY_METHOD = "newVirtualThreadPerTaskExecutor";
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * @return true, if the current JVM supports virtual threads
+   */
+  public static boolean isSupported() {
+    try {
+      Executors.class.getMethod(FACTORY_METHOD);
+      return true;
+    } catch (NoSuchMethodException exception) {
+      return false;
+    }
+  }
+
+  /**
+   * Creates executor running every task in a new virtual thread.
+   * It should be shut down, when it's no longer used.
+   *
+   * @return ExecutorService backed by virtual threads
+   * @throws UnsupportedOperationException if the current JVM doesn't support virtual threads
+   */
+  public static ExecutorService executor() {
+    try {
+      final Method method = Executors.class.getMethod(FACTORY_METHOD);
+      return (ExecutorService) method.invoke(null);
+    } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException exception) {
+      throw new UnsupportedOperationException("virtual threads require Java 21", exception);
+    }
+  }
+}
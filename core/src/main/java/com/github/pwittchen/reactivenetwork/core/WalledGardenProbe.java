@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import com.jakewharton.nopen.annotation.Open;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import javax.net.ssl.HttpsURLConnection;
+
+/**
+ * Walled Garden probe checks connectivity with the Internet via HTTP request expecting the given
+ * response code. By default, it's HTTP 204 (NO CONTENT), which is returned also in the countries
+ * behind Great Firewall (e.g. China).
+ */
+@Open public class WalledGardenProbe implements InternetProbe {
+  private static final String DEFAULT_HOST = "http://clients3.google.com/generate_204";
+  private static final String HTTP_PROTOCOL = "http://";
+  private static final String HTTPS_PROTOCOL = "https://";
+
+  @Override public String getDefaultPingHost() {
+    return DEFAULT_HOST;
+  }
+
+  @Override public String adjustHost(final String host) {
+    if (!host.startsWith(HTTP_PROTOCOL) && !host.startsWith(HTTPS_PROTOCOL)) {
+      return HTTPS_PROTOCOL.concat(host);
+    }
+
+    return host;
+  }
+
+  @Override public boolean isConnected(final String host, final int port, final int timeoutInMs,
+      final int httpResponse, final ErrorHandler errorHandler) {
+    HttpURLConnection urlConnection = null;
+    try {
+      if (host.startsWith(HTTPS_PROTOCOL)) {
+        urlConnection = createHttpsUrlConnection(host, port, timeoutInMs);
+      } else {
+        urlConnection = createHttpUrlConnection(host, port, timeoutInMs);
+      }
+      return urlConnection.getResponseCode() == httpResponse;
+    } catch (IOException e) {
+      errorHandler.handleError(e, "Could not establish connection with WalledGardenStrategy");
+      return Boolean.FALSE;
+    } finally {
+      if (urlConnection != null) {
+        urlConnection.disconnect();
+      }
+    }
+  }
+
+  protected HttpURLConnection createHttpUrlConnection(final String host, final int port,
+      final int timeoutInMs) throws IOException {
+    URL initialUrl = new URL(host);
+    URL url = new URL(initialUrl.getProtocol(), initialUrl.getHost(), port, initialUrl.getFile());
+    HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
+    urlConnection.setConnectTimeout(timeoutInMs);
+    urlConnection.setReadTimeout(timeoutInMs);
+    urlConnection.setInstanceFollowRedirects(false);
+    urlConnection.setUseCaches(false);
+    return urlConnection;
+  }
+
+  protected HttpsURLConnection createHttpsUrlConnection(final String host, final int port,
+      final int timeoutInMs) throws IOException {
+    URL initialUrl = new URL(host);
+    URL url = new URL(initialUrl.getProtocol(), initialUrl.getHost(), port, initialUrl.getFile());
+    HttpsURLConnection urlConnection = (HttpsURLConnection) url.openConnection();
+    urlConnection.setConnectTimeout(timeoutInMs);
+    urlConnection.setReadTimeout(timeoutInMs);
+    urlConnection.setInstanceFollowRedirects(false);
+    urlConnection.setUseCaches(false);
+    return urlConnection;
+  }
+}
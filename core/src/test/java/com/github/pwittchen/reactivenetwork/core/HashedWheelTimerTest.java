@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class HashedWheelTimerTest {
+  private static final long TIMEOUT_IN_SECONDS = 5;
+
+  private ExecutorService executor;
+  private HashedWheelTimer timer;
+
+  @Before public void setUp() {
+    executor = Executors.newCachedThreadPool(runnable -> new Thread(runnable, "io-engine"));
+    timer = HashedWheelTimer.builder(executor).tickDuration(5).ticksPerWheel(8).build();
+  }
+
+  @After public void tearDown() {
+    timer.close();
+    executor.shutdownNow();
+  }
+
+  @Test public void shouldRunTaskOnceAfterDelay() throws InterruptedException {
+    // given
+    final AtomicInteger runs = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final long startTimeInNanos = System.nanoTime();
+
+    // when
+    timer.schedule(() -> {
+      runs.incrementAndGet();
+      latch.countDown();
+    }, 100);
+
+    // then
+    assertThat(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+    final long elapsedInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
+    assertThat(elapsedInMs).isAtLeast(100L);
+    Thread.sleep(100);
+    assertThat(runs.get()).isEqualTo(1);
+  }
+
+  @Test public void shouldRunTaskLaterThanOneRotationOfTheWheel() throws InterruptedException {
+    // given
+    final CountDownLatch latch = new CountDownLatch(1);
+    final long startTimeInNanos = System.nanoTime();
+
+    // when
+    timer.schedule(latch::countDown, 200); // wheel rotates every 40 ms
+
+    // then
+    assertThat(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+    final long elapsedInMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
+    assertThat(elapsedInMs).isAtLeast(200L);
+  }
+
+  @Test public void shouldRunTaskPeriodically() throws InterruptedException {
+    // given
+    final CountDownLatch latch = new CountDownLatch(5);
+
+    // when
+    final Cancellable cancellable = timer.scheduleAtFixedRate(latch::countDown, 0, 20);
+
+    // then
+    assertThat(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+    cancellable.cancel();
+  }
+
+  @Test public void shouldHandOffTasksToExecutor() throws InterruptedException {
+    // given
+    final BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+
+    // when
+    timer.schedule(() -> threads.add(Thread.currentThread().getName()), 0);
+
+    // then
+    assertThat(threads.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isEqualTo("io-engine");
+  }
+
+  @Test public void shouldNotRunCancelledTask() throws InterruptedException {
+    // given
+    final AtomicInteger runs = new AtomicInteger();
+
+    // when
+    timer.schedule(runs::incrementAndGet, 50).cancel();
+    Thread.sleep(150);
+
+    // then
+    assertThat(runs.get()).isEqualTo(0);
+  }
+
+  @Test public void shouldStopPeriodicTaskAfterCancel() throws InterruptedException {
+    // given
+    final AtomicInteger runs = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(2);
+    final Cancellable cancellable = timer.scheduleAtFixedRate(() -> {
+      runs.incrementAndGet();
+      latch.countDown();
+    }, 0, 10);
+    assertThat(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+    // when
+    cancellable.cancel();
+    Thread.sleep(50);
+    final int runsAfterCancel = runs.get();
+    Thread.sleep(100);
+
+    // then
+    assertThat(runs.get()).isEqualTo(runsAfterCancel);
+  }
+
+  @Test public void shouldRunThousandsOfTasksWithDifferentDelays() throws InterruptedException {
+    // given
+    final int tasks = 10_000;
+    final CountDownLatch latch = new CountDownLatch(tasks);
+
+    // when
+    for (int i = 0; i < tasks; i++) {
+      timer.schedule(latch::countDown, i % 300);
+    }
+
+    // then
+    assertThat(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test public void shouldKeepRunningTasksAfterFailingOne() throws InterruptedException {
+    // given
+    timer.close();
+    timer = HashedWheelTimer.builder(Runnable::run).tickDuration(5).ticksPerWheel(8).build();
+    final CountDownLatch latch = new CountDownLatch(2);
+
+    // when
+    timer.schedule(() -> {
+      throw new IllegalStateException("failing task");
+    }, 10);
+    timer.scheduleAtFixedRate(latch::countDown, 20, 20);
+
+    // then
+    assertThat(latch.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test public void shouldPassFailuresOfTasksToErrorHandler() throws InterruptedException {
+    // given
+    timer.close();
+    final BlockingQueue<Exception> errors = new LinkedBlockingQueue<>();
+    timer = HashedWheelTimer.builder(Runnable::run)
+        .tickDuration(5)
+        .errorHandler((exception, message) -> errors.add(exception))
+        .build();
+
+    // when
+    timer.schedule(() -> {
+      throw new IllegalStateException("failing task");
+    }, 10);
+    timer.schedule(() -> {
+      throw new AssertionError("failing task");
+    }, 30);
+
+    // then
+    assertThat(errors.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS))
+        .isInstanceOf(IllegalStateException.class);
+    final Exception wrapped = errors.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+    assertThat(wrapped).isInstanceOf(ExecutionException.class);
+    assertThat(wrapped).hasCauseThat().isInstanceOf(AssertionError.class);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldNotScheduleTaskAfterClose() {
+    // given
+    timer.close();
+
+    // when
+    timer.schedule(() -> {
+    }, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowZeroPeriod() {
+    timer.scheduleAtFixedRate(() -> {
+    }, 0, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowNullExecutor() {
+    HashedWheelTimer.create(null);
+  }
+}
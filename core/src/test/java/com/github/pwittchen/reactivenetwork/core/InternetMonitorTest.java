@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class InternetMonitorTest {
+  private static final long TIMEOUT_IN_SECONDS = 5;
+
+  private ScheduledExecutorService executor;
+
+  @Before public void setUp() {
+    executor = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @After public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test public void shouldProbeDefaultHostOfTheProbe() {
+    // given
+    final FakeProbe probe = new FakeProbe(true);
+    final InternetMonitor monitor = InternetMonitor.builder(probe).build();
+
+    // when
+    final boolean isConnected = monitor.isConnected();
+
+    // then
+    assertThat(isConnected).isTrue();
+    assertThat(probe.hosts).containsExactly("adjusted:" + FakeProbe.DEFAULT_HOST);
+  }
+
+  @Test public void shouldCheckConnectivityOnTheExecutor() throws InterruptedException {
+    // given
+    final InternetMonitor monitor =
+        InternetMonitor.builder(new FakeProbe(false)).executor(executor).build();
+    final BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+    // when
+    monitor.check(results::add);
+
+    // then
+    assertThat(results.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isFalse();
+  }
+
+  @Test public void shouldObserveOnlyChangesOfConnectivity() throws InterruptedException {
+    // given
+    final FakeProbe probe = new FakeProbe(true, true, false, false, true);
+    final InternetMonitor monitor =
+        InternetMonitor.builder(probe).interval(1).executor(executor).build();
+    final BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+    // when
+    final Cancellable cancellable = monitor.observe(results::add);
+    final List<Boolean> values = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      values.add(results.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+    }
+    probe.exhausted.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+    cancellable.cancel();
+
+    // then
+    assertThat(values).containsExactly(true, false, true).inOrder();
+    assertThat(results).isEmpty();
+  }
+
+  @Test public void shouldNotProbeAfterCancel() throws InterruptedException {
+    // given
+    final FakeProbe probe = new FakeProbe(true, false);
+    final InternetMonitor monitor =
+        InternetMonitor.builder(probe).initialInterval(1000).executor(executor).build();
+    final BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+    // when
+    monitor.observe(results::add).cancel();
+
+    // then
+    assertThat(results.poll(1500, TimeUnit.MILLISECONDS)).isNull();
+    assertThat(probe.hosts).isEmpty();
+  }
+
+  @Test public void shouldHandOffProbesToProbeExecutor() throws InterruptedException {
+    // given
+    final ExecutorService probeExecutor = Executors.newSingleThreadExecutor(
+        runnable -> new Thread(runnable, "probe-executor"));
+    final InternetMonitor monitor = InternetMonitor.builder(new FakeProbe(true))
+        .executor(executor)
+        .probeExecutor(probeExecutor)
+        .build();
+    final BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+
+    // when
+    monitor.check(result -> threads.add(Thread.currentThread().getName()));
+
+    // then
+    assertThat(threads.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isEqualTo("probe-executor");
+    probeExecutor.shutdownNow();
+  }
+
+  @Test public void shouldSkipTicksWhileProbeIsInProgress() throws InterruptedException {
+    // given
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger started = new AtomicInteger();
+    final FakeProbe probe = new FakeProbe(true) {
+      @Override public boolean isConnected(final String host, final int port,
+          final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+        started.incrementAndGet();
+        try {
+          release.await(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+        return super.isConnected(host, port, timeoutInMs, httpResponse, errorHandler);
+      }
+    };
+    final ExecutorService probeExecutor = Executors.newCachedThreadPool();
+    final InternetMonitor monitor = InternetMonitor.builder(probe)
+        .interval(1)
+        .executor(executor)
+        .probeExecutor(probeExecutor)
+        .build();
+    final BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+    // when
+    final Cancellable cancellable = monitor.observe(results::add);
+    Thread.sleep(100);
+    final int probesInProgress = started.get();
+    release.countDown();
+
+    // then
+    assertThat(results.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(probesInProgress).isEqualTo(1);
+    cancellable.cancel();
+    probeExecutor.shutdownNow();
+  }
+
+  @Test public void shouldProbeAgainAfterProbeExecutorRejectedProbe()
+      throws InterruptedException {
+    // given
+    final AtomicInteger handOffs = new AtomicInteger();
+    final Executor probeExecutor = task -> {
+      if (handOffs.incrementAndGet() == 1) {
+        throw new RejectedExecutionException("probe executor is busy");
+      }
+      task.run();
+    };
+    final List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+    final InternetMonitor monitor = InternetMonitor.builder(new FakeProbe(true))
+        .interval(1)
+        .executor(executor)
+        .probeExecutor(probeExecutor)
+        .errorHandler((exception, message) -> errors.add(exception))
+        .build();
+    final BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+    // when
+    final Cancellable cancellable = monitor.observe(results::add);
+
+    // then
+    assertThat(results.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(errors).hasSize(1);
+    assertThat(errors.get(0)).isInstanceOf(RejectedExecutionException.class);
+    cancellable.cancel();
+  }
+
+  @Test public void shouldReportFailureOfCallbackAndKeepObserving() throws InterruptedException {
+    // given
+    final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    final InternetMonitor monitor = InternetMonitor.builder(new FakeProbe(true, false))
+        .interval(1)
+        .executor(executor)
+        .errorHandler((exception, message) -> errors.add(message))
+        .build();
+    final BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+    // when
+    final Cancellable cancellable = monitor.observe(isConnected -> {
+      results.add(isConnected);
+      if (isConnected) {
+        throw new IllegalStateException("callback failed");
+      }
+    });
+
+    // then
+    assertThat(results.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(results.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isFalse();
+    assertThat(errors).containsExactly("callback could not handle result of probe");
+    cancellable.cancel();
+  }
+
+  @Test public void shouldScheduleProbesWithGivenScheduler() throws InterruptedException {
+    // given
+    final HashedWheelTimer timer = HashedWheelTimer.create(executor);
+    final FakeProbe probe = new FakeProbe(true, false);
+    final InternetMonitor monitor =
+        InternetMonitor.builder(probe).interval(20).scheduler(timer).build();
+    final BlockingQueue<Boolean> results = new LinkedBlockingQueue<>();
+
+    // when
+    final Cancellable cancellable = monitor.observe(results::add);
+
+    // then
+    assertThat(results.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isTrue();
+    assertThat(results.poll(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)).isFalse();
+    cancellable.cancel();
+    timer.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowNullProbe() {
+    InternetMonitor.builder(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowZeroInterval() {
+    InternetMonitor.builder(new FakeProbe(true)).interval(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowNullCallback() {
+    InternetMonitor.builder(new FakeProbe(true)).build().observe(null);
+  }
+
+  private static class FakeProbe implements InternetProbe {
+    static final String DEFAULT_HOST = "default.host";
+
+    final List<String> hosts = Collections.synchronizedList(new ArrayList<String>());
+    final CountDownLatch exhausted;
+    private final Iterator<Boolean> results;
+    private boolean last;
+
+    FakeProbe(final Boolean... results) {
+      this.results = Arrays.asList(results).iterator();
+      this.exhausted = new CountDownLatch(results.length);
+    }
+
+    @Override public boolean isConnected(final String host, final int port, final int timeoutInMs,
+        final int httpResponse, final ErrorHandler errorHandler) {
+      hosts.add(host);
+      if (results.hasNext()) {
+        last = results.next();
+      }
+      exhausted.countDown();
+      return last;
+    }
+
+    @Override public String adjustHost(final String host) {
+      return "adjusted:" + host;
+    }
+
+    @Override public String getDefaultPingHost() {
+      return DEFAULT_HOST;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class SocketProbeTest {
+  private static final String HOST = "127.0.0.1";
+  private static final int TIMEOUT_IN_MS = 1000;
+  private static final int HTTP_RESPONSE = 204;
+
+  private final ErrorHandler errorHandler = new LoggingErrorHandler();
+  private final SocketProbe probe = new SocketProbe();
+  private ServerSocket serverSocket;
+
+  @Before public void setUp() throws IOException {
+    serverSocket = new ServerSocket(0, 1, InetAddress.getByName(HOST));
+  }
+
+  @After public void tearDown() throws IOException {
+    serverSocket.close();
+  }
+
+  @Test public void shouldBeConnectedWhenHostAcceptsConnection() {
+    // when
+    final boolean isConnected = probe.isConnected(HOST, serverSocket.getLocalPort(),
+        TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler);
+
+    // then
+    assertThat(isConnected).isTrue();
+  }
+
+  @Test public void shouldNotBeConnectedWhenHostRefusesConnection() throws IOException {
+    // given
+    final int port = serverSocket.getLocalPort();
+    serverSocket.close();
+
+    // when
+    final boolean isConnected =
+        probe.isConnected(HOST, port, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler);
+
+    // then
+    assertThat(isConnected).isFalse();
+  }
+
+  @Test public void shouldRemoveProtocolFromHost() {
+    // when
+    final String httpHost = probe.adjustHost("http://www.google.com");
+    final String httpsHost = probe.adjustHost("https://www.google.com");
+
+    // then
+    assertThat(httpHost).isEqualTo("www.google.com");
+    assertThat(httpsHost).isEqualTo("www.google.com");
+  }
+
+  @Test public void shouldMonitorHostOnTheJvm() {
+    // given
+    final InternetMonitor monitor = InternetMonitor.builder(probe)
+        .host(HOST)
+        .port(serverSocket.getLocalPort())
+        .timeout(TIMEOUT_IN_MS)
+        .build();
+
+    // when
+    final boolean isConnected = monitor.isConnected();
+
+    // then
+    assertThat(isConnected).isTrue();
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.core;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports
+public class VirtualThreadsTest {
+
+  @Test public void shouldRunTasksOnVirtualThreads() throws Exception {
+    // given
+    assumeTrue(VirtualThreads.isSupported());
+    final ExecutorService executor = VirtualThreads.executor();
+
+    // when
+    final Future<String> thread = executor.submit(() -> Thread.currentThread().toString());
+
+    // then
+    assertThat(thread.get(5, TimeUnit.SECONDS)).contains("VirtualThread");
+    executor.shutdown();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void shouldNotCreateExecutorWithoutVirtualThreads() {
+    assumeFalse(VirtualThreads.isSupported());
+    VirtualThreads.executor();
+  }
+}
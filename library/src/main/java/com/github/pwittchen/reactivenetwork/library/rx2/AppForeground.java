@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import io.reactivex.Observable;
+import io.reactivex.subjects.BehaviorSubject;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Foreground state of the application process. The application is in the foreground,
+ * when at least one of its activities is started.
+ *
+ * Started activities are tracked by a single tracker registered for the whole process, when
+ * {@link #init(Context)} is called for the first time. Activities started before that are not
+ * known, so the application is treated as being in the background until the next one is started.
+ * To know the state from the beginning, init(...) should be called in Application#onCreate().
+ */
+public final class AppForeground {
+  private static final Map<Application, Tracker> TRACKERS = new WeakHashMap<>();
+
+  private AppForeground() {
+  }
+
+  /**
+   * Starts tracking started activities of the application, if they're not tracked yet
+   *
+   * @param context Context of the activity or an application
+   */
+  public static void init(final Context context) {
+    Preconditions.checkNotNull(context, "context == null");
+    final Context applicationContext = context.getApplicationContext();
+    if (applicationContext instanceof Application) {
+      tracker((Application) applicationContext);
+    }
+  }
+
+  /**
+   * Checks if the application process is in the foreground. See {@link #init(Context)}.
+   *
+   * @param context Context of the activity or an application
+   * @return boolean true if one of the activities is started or Context doesn't belong
+   * to an Application
+   */
+  public static boolean isInForeground(final Context context) {
+    Preconditions.checkNotNull(context, "context == null");
+    final Context applicationContext = context.getApplicationContext();
+    if (!(applicationContext instanceof Application)) {
+      return true;
+    }
+    return Boolean.TRUE.equals(tracker((Application) applicationContext).states.getValue());
+  }
+
+  /**
+   * Observes foreground state of the application. Current state is emitted on subscription and
+   * then after every change made by starting or stopping activities. Configuration changes
+   * are not treated as leaving the foreground. When Context doesn't belong to an Application,
+   * true is emitted once. See {@link #init(Context)}.
+   *
+   * @param context Context of the activity or an application
+   * @return RxJava Observable with Boolean - true, when the application is in the foreground
+   */
+  public static Observable<Boolean> observe(final Context context) {
+    Preconditions.checkNotNull(context, "context == null");
+    final Context applicationContext = context.getApplicationContext();
+    if (!(applicationContext instanceof Application)) {
+      return Observable.just(true);
+    }
+    return tracker((Application) applicationContext).states.distinctUntilChanged();
+  }
+
+  private static Tracker tracker(final Application application) {
+    synchronized (TRACKERS) {
+      Tracker tracker = TRACKERS.get(application);
+      if (tracker == null) {
+        tracker = new Tracker();
+        application.registerActivityLifecycleCallbacks(tracker);
+        TRACKERS.put(application, tracker);
+      }
+      return tracker;
+    }
+  }
+
+  private static final class Tracker extends StartedActivities {
+    private final BehaviorSubject<Boolean> states = BehaviorSubject.createDefault(false);
+
+    @Override void onChanged(final boolean isInForeground) {
+      states.onNext(isInForeground);
+    }
+  }
+
+  /**
+   * Tracks started activities. Activities started before the registration are not known,
+   * so stopping one of them with no tracked activities is treated as leaving the foreground,
+   * while stopping it after navigating to another activity is not.
+   */
+  abstract static class StartedActivities implements Application.ActivityLifecycleCallbacks {
+    private final Set<Activity> started = new HashSet<>();
+    private boolean isChangingConfigurations;
+
+    abstract void onChanged(boolean isInForeground);
+
+    @Override public void onActivityStarted(final Activity activity) {
+      started.add(activity);
+      if (isChangingConfigurations) {
+        isChangingConfigurations = false;
+      } else if (started.size() == 1) {
+        onChanged(true);
+      }
+    }
+
+    @Override public void onActivityStopped(final Activity activity) {
+      started.remove(activity);
+      isChangingConfigurations = activity.isChangingConfigurations();
+      if (started.isEmpty() && !isChangingConfigurations) {
+        onChanged(false);
+      }
+    }
+
+    @Override public void onActivityCreated(final Activity activity, final Bundle bundle) {
+    }
+
+    @Override public void onActivityResumed(final Activity activity) {
+    }
+
+    @Override public void onActivityPaused(final Activity activity) {
+    }
+
+    @Override public void onActivitySaveInstanceState(final Activity activity,
+        final Bundle bundle) {
+    }
+
+    @Override public void onActivityDestroyed(final Activity activity) {
+      started.remove(activity);
+    }
+  }
+}
@@ -29,20 +29,63 @@ import androidx.annotation.RequiresApi;
 public final class Connectivity {
   static final int UNKNOWN_TYPE = -1;
   static final int UNKNOWN_SUB_TYPE = -1;
-  private NetworkInfo.State state; // NOPMD
-  private NetworkInfo.DetailedState detailedState; // NOPMD
-  private int type; // NOPMD
-  private int subType; // NOPMD
-  private boolean available; // NOPMD
-  private boolean failover; // NOPMD
-  private boolean roaming; // NOPMD
-  private String typeName; // NOPMD
-  private String subTypeName; // NOPMD
-  private String reason; // NOPMD
-  private String extraInfo; // NOPMD
+
+  // flags of fields returned by diff(Connectivity)
+  public static final int FIELD_STATE = 1;
+  public static final int FIELD_DETAILED_STATE = 1 << 1;
+  public static final int FIELD_TYPE = 1 << 2;
+  public static final int FIELD_SUB_TYPE = 1 << 3;
+  public static final int FIELD_AVAILABLE = 1 << 4;
+  public static final int FIELD_FAILOVER = 1 << 5;
+  public static final int FIELD_ROAMING = 1 << 6;
+  public static final int FIELD_TYPE_NAME = 1 << 7;
+  public static final int FIELD_SUB_TYPE_NAME = 1 << 8;
+  public static final int FIELD_REASON = 1 << 9;
+  public static final int FIELD_EXTRA_INFO = 1 << 10;
+  public static final int FIELD_VALIDATED = 1 << 11;
+  public static final int FIELD_METERED = 1 << 12;
+  public static final int FIELD_BANDWIDTH = 1 << 13;
+
+  // layout of packed(): type and subType as 16-bit values, enums as (ordinal + 1) with 0 for null;
+  // Builder accepts only types fitting into 16 bits, so packed() is lossless and can be compared
+  static final int SHIFT_SUB_TYPE = 16;
+  static final int SHIFT_STATE = 32;
+  static final int SHIFT_DETAILED_STATE = 40;
+  static final long MASK_TYPE = 0xFFFFL;
+  static final long MASK_SUB_TYPE = MASK_TYPE << SHIFT_SUB_TYPE;
+  static final long MASK_STATE = 0xFFL << SHIFT_STATE;
+  static final long MASK_DETAILED_STATE = 0xFFL << SHIFT_DETAILED_STATE;
+  static final long BIT_AVAILABLE = 1L << 48;
+  static final long BIT_FAILOVER = 1L << 49;
+  static final long BIT_ROAMING = 1L << 50;
+  static final long BIT_VALIDATED = 1L << 51;
+  static final long BIT_METERED = 1L << 52;
+  private static final NetworkInfo.State[] STATES = NetworkInfo.State.values();
+  private static final NetworkInfo.DetailedState[] DETAILED_STATES =
+      NetworkInfo.DetailedState.values();
+
+  private final NetworkInfo.State state; // NOPMD
+  private final NetworkInfo.DetailedState detailedState; // NOPMD
+  private final int type; // NOPMD
+  private final int subType; // NOPMD
+  private final boolean available; // NOPMD
+  private final boolean failover; // NOPMD
+  private final boolean roaming; // NOPMD
+  private final String typeName; // NOPMD
+  private final String subTypeName; // NOPMD
+  private final String reason; // NOPMD
+  private final String extraInfo; // NOPMD
+  private final boolean validated; // NOPMD
+  private final boolean metered; // NOPMD
+  private final int downstreamBandwidthKbps; // NOPMD
+  private final int upstreamBandwidthKbps; // NOPMD
+  private final int hash; // NOPMD
+  private final long packed; // NOPMD
+  private static final Connectivity DEFAULT = new Connectivity();
+  private static final ConnectivityCache CACHE = new ConnectivityCache();
 
   public static Connectivity create() {
-    return builder().build();
+    return DEFAULT;
   }
 
   public static Connectivity create(@NonNull Context context) {
@@ -67,19 +110,7 @@ public final class Connectivity {
   }
 
   private static Connectivity create(NetworkInfo networkInfo) {
-    return new Builder()
-        .state(networkInfo.getState())
-        .detailedState(networkInfo.getDetailedState())
-        .type(networkInfo.getType())
-        .subType(networkInfo.getSubtype())
-        .available(networkInfo.isAvailable())
-        .failover(networkInfo.isFailover())
-        .roaming(networkInfo.isRoaming())
-        .typeName(networkInfo.getTypeName())
-        .subTypeName(networkInfo.getSubtypeName())
-        .reason(networkInfo.getReason())
-        .extraInfo(networkInfo.getExtraInfo())
-        .build();
+    return CACHE.get(networkInfo);
   }
 
   private Connectivity(Builder builder) {
@@ -94,6 +125,14 @@ public final class Connectivity {
     subTypeName = builder.subTypeName;
     reason = builder.reason;
     extraInfo = builder.extraInfo;
+    validated = builder.validated;
+    metered = builder.metered;
+    downstreamBandwidthKbps = builder.downstreamBandwidthKbps;
+    upstreamBandwidthKbps = builder.upstreamBandwidthKbps;
+    packed = pack(state, detailedState, type, subType, available, failover, roaming, validated,
+        metered);
+    hash = hash(packed, downstreamBandwidthKbps, upstreamBandwidthKbps, typeName, subTypeName,
+        reason, extraInfo);
   }
 
   private Connectivity() {
@@ -192,6 +231,103 @@ public final class Connectivity {
     return builder().extraInfo(extraInfo);
   }
 
+  /**
+   * @return true if the network was validated by the system, available only from strategies
+   * based on NetworkCapabilities
+   */
+  public boolean validated() {
+    return validated;
+  }
+
+  public static Builder validated(boolean validated) {
+    return builder().validated(validated);
+  }
+
+  /**
+   * @return true if the network is metered, available only from strategies
+   * based on NetworkCapabilities
+   */
+  public boolean metered() {
+    return metered;
+  }
+
+  public static Builder metered(boolean metered) {
+    return builder().metered(metered);
+  }
+
+  /**
+   * @return estimated downstream bandwidth in Kbps or 0 when it's unknown
+   */
+  public int downstreamBandwidthKbps() {
+    return downstreamBandwidthKbps;
+  }
+
+  public static Builder downstreamBandwidthKbps(int downstreamBandwidthKbps) {
+    return builder().downstreamBandwidthKbps(downstreamBandwidthKbps);
+  }
+
+  /**
+   * @return estimated upstream bandwidth in Kbps or 0 when it's unknown
+   */
+  public int upstreamBandwidthKbps() {
+    return upstreamBandwidthKbps;
+  }
+
+  public static Builder upstreamBandwidthKbps(int upstreamBandwidthKbps) {
+    return builder().upstreamBandwidthKbps(upstreamBandwidthKbps);
+  }
+
+  /**
+   * Returns state, detailed state, type, sub type, available, failover, roaming, validated and
+   * metered flags encoded in a single long value. Names, reason, extra info and bandwidth are not
+   * included.
+   *
+   * @return packed representation of this connectivity
+   */
+  public long packed() {
+    return packed;
+  }
+
+  public static Builder packed(long packed) {
+    return builder().packed(packed);
+  }
+
+  /**
+   * Compares this connectivity with another one field by field.
+   *
+   * @param other connectivity to compare with
+   * @return bitmask of FIELD_* flags of fields with different values, 0 when nothing changed
+   */
+  public int diff(@NonNull Connectivity other) {
+    Preconditions.checkNotNull(other, "other == null");
+    if (this == other) {
+      return 0;
+    }
+
+    final long changed = packed ^ other.packed;
+    int fields = 0;
+    if (changed != 0) {
+      fields |= (changed & MASK_STATE) != 0 ? FIELD_STATE : 0;
+      fields |= (changed & MASK_DETAILED_STATE) != 0 ? FIELD_DETAILED_STATE : 0;
+      fields |= (changed & MASK_TYPE) != 0 ? FIELD_TYPE : 0;
+      fields |= (changed & MASK_SUB_TYPE) != 0 ? FIELD_SUB_TYPE : 0;
+      fields |= (changed & BIT_AVAILABLE) != 0 ? FIELD_AVAILABLE : 0;
+      fields |= (changed & BIT_FAILOVER) != 0 ? FIELD_FAILOVER : 0;
+      fields |= (changed & BIT_ROAMING) != 0 ? FIELD_ROAMING : 0;
+      fields |= (changed & BIT_VALIDATED) != 0 ? FIELD_VALIDATED : 0;
+      fields |= (changed & BIT_METERED) != 0 ? FIELD_METERED : 0;
+    }
+    if (downstreamBandwidthKbps != other.downstreamBandwidthKbps
+        || upstreamBandwidthKbps != other.upstreamBandwidthKbps) {
+      fields |= FIELD_BANDWIDTH;
+    }
+    fields |= !equal(typeName, other.typeName) ? FIELD_TYPE_NAME : 0;
+    fields |= !equal(subTypeName, other.subTypeName) ? FIELD_SUB_TYPE_NAME : 0;
+    fields |= !equal(reason, other.reason) ? FIELD_REASON : 0;
+    fields |= !equal(extraInfo, other.extraInfo) ? FIELD_EXTRA_INFO : 0;
+    return fields;
+  }
+
   @Override public boolean equals(Object o) {
     if (this == o) {
       return true;
@@ -202,25 +338,16 @@ public final class Connectivity {
 
     Connectivity that = (Connectivity) o;
 
-    if (type != that.type) {
+    if (hash != that.hash) {
       return false;
     }
-    if (subType != that.subType) {
+    if (packed != that.packed) {
       return false;
     }
-    if (available != that.available) {
+    if (downstreamBandwidthKbps != that.downstreamBandwidthKbps) {
       return false;
     }
-    if (failover != that.failover) {
-      return false;
-    }
-    if (roaming != that.roaming) {
-      return false;
-    }
-    if (state != that.state) {
-      return false;
-    }
-    if (detailedState != that.detailedState) {
+    if (upstreamBandwidthKbps != that.upstreamBandwidthKbps) {
       return false;
     }
     if (!typeName.equals(that.typeName)) {
@@ -237,14 +364,35 @@ public final class Connectivity {
   }
 
   @Override public int hashCode() {
-    int result = state.hashCode();
-    result = 31 * result + (detailedState != null ? detailedState.hashCode() : 0);
-    result = 31 * result + type;
-    result = 31 * result + subType;
-    result = 31 * result + (available ? 1 : 0);
-    result = 31 * result + (failover ? 1 : 0);
-    result = 31 * result + (roaming ? 1 : 0);
-    result = 31 * result + typeName.hashCode();
+    return hash;
+  }
+
+  static long pack(NetworkInfo.State state, NetworkInfo.DetailedState detailedState, int type,
+      int subType, boolean available, boolean failover, boolean roaming, boolean validated,
+      boolean metered) {
+    long result = type & MASK_TYPE;
+    result |= ((long) subType << SHIFT_SUB_TYPE) & MASK_SUB_TYPE;
+    result |= (long) (state != null ? state.ordinal() + 1 : 0) << SHIFT_STATE;
+    result |= (long) (detailedState != null ? detailedState.ordinal() + 1 : 0)
+        << SHIFT_DETAILED_STATE;
+    result |= available ? BIT_AVAILABLE : 0;
+    result |= failover ? BIT_FAILOVER : 0;
+    result |= roaming ? BIT_ROAMING : 0;
+    result |= validated ? BIT_VALIDATED : 0;
+    result |= metered ? BIT_METERED : 0;
+    return result;
+  }
+
+  private static boolean equal(String first, String second) {
+    return first == null ? second == null : first.equals(second);
+  }
+
+  static int hash(long packed, int downstreamBandwidthKbps, int upstreamBandwidthKbps,
+      String typeName, String subTypeName, String reason, String extraInfo) {
+    int result = (int) (packed ^ (packed >>> 32));
+    result = 31 * result + downstreamBandwidthKbps;
+    result = 31 * result + upstreamBandwidthKbps;
+    result = 31 * result + (typeName != null ? typeName.hashCode() : 0);
     result = 31 * result + (subTypeName != null ? subTypeName.hashCode() : 0);
     result = 31 * result + (reason != null ? reason.hashCode() : 0);
     result = 31 * result + (extraInfo != null ? extraInfo.hashCode() : 0);
@@ -279,6 +427,14 @@ public final class Connectivity {
         + ", extraInfo='"
         + extraInfo
         + '\''
+        + ", validated="
+        + validated
+        + ", metered="
+        + metered
+        + ", downstreamBandwidthKbps="
+        + downstreamBandwidthKbps
+        + ", upstreamBandwidthKbps="
+        + upstreamBandwidthKbps
         + '}';
   }
 
@@ -298,6 +454,10 @@ public final class Connectivity {
     private String subTypeName = "NONE"; // NOPMD
     private String reason = ""; // NOPMD
     private String extraInfo = ""; // NOPMD
+    private boolean validated = false; // NOPMD
+    private boolean metered = false; // NOPMD
+    private int downstreamBandwidthKbps = 0; // NOPMD
+    private int upstreamBandwidthKbps = 0; // NOPMD
 
     public Builder state(NetworkInfo.State state) {
       this.state = state;
@@ -310,11 +470,13 @@ public final class Connectivity {
     }
 
     public Builder type(int type) {
+      checkPackable(type, "type");
       this.type = type;
       return this;
     }
 
     public Builder subType(int subType) {
+      checkPackable(subType, "subType");
       this.subType = subType;
       return this;
     }
@@ -354,8 +516,51 @@ public final class Connectivity {
       return this;
     }
 
+    public Builder validated(boolean validated) {
+      this.validated = validated;
+      return this;
+    }
+
+    public Builder metered(boolean metered) {
+      this.metered = metered;
+      return this;
+    }
+
+    public Builder downstreamBandwidthKbps(int downstreamBandwidthKbps) {
+      this.downstreamBandwidthKbps = downstreamBandwidthKbps;
+      return this;
+    }
+
+    public Builder upstreamBandwidthKbps(int upstreamBandwidthKbps) {
+      this.upstreamBandwidthKbps = upstreamBandwidthKbps;
+      return this;
+    }
+
+    public Builder packed(long packed) {
+      final int state = (int) ((packed & MASK_STATE) >>> SHIFT_STATE);
+      final int detailedState = (int) ((packed & MASK_DETAILED_STATE) >>> SHIFT_DETAILED_STATE);
+      this.state = state == 0 ? null : STATES[state - 1];
+      this.detailedState = detailedState == 0 ? null : DETAILED_STATES[detailedState - 1];
+      // sign extension restores types exactly, because Builder accepts only 16-bit ones
+      this.type = (short) (packed & MASK_TYPE);
+      this.subType = (short) ((packed & MASK_SUB_TYPE) >>> SHIFT_SUB_TYPE);
+      this.available = (packed & BIT_AVAILABLE) != 0;
+      this.failover = (packed & BIT_FAILOVER) != 0;
+      this.roaming = (packed & BIT_ROAMING) != 0;
+      this.validated = (packed & BIT_VALIDATED) != 0;
+      this.metered = (packed & BIT_METERED) != 0;
+      return this;
+    }
+
     public Connectivity build() {
       return new Connectivity(this);
     }
+
+    private static void checkPackable(final int type, final String name) {
+      if (type < Short.MIN_VALUE || type > Short.MAX_VALUE) {
+        throw new IllegalArgumentException(name + " should be between " + Short.MIN_VALUE
+            + " and " + Short.MAX_VALUE + ", was " + type);
+      }
+    }
   }
 }
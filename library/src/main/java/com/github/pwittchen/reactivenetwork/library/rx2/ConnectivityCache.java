@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.net.NetworkInfo;
+import androidx.annotation.NonNull;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns Connectivity snapshots created from NetworkInfo. Device usually goes through a few
+ * dozens of distinct network states, so the same canonical instance is returned for repeated
+ * states and no objects are allocated when a state was seen before. It's a direct-mapped cache
+ * of a fixed size, so it never grows and a colliding state just replaces the previous one.
+ */
+final class ConnectivityCache {
+  static final int SIZE = 64; // has to be a power of two
+
+  private final AtomicReferenceArray<Connectivity> slots = new AtomicReferenceArray<>(SIZE);
+
+  @NonNull Connectivity get(@NonNull final NetworkInfo networkInfo) {
+    final NetworkInfo.State state = networkInfo.getState();
+    final NetworkInfo.DetailedState detailedState = networkInfo.getDetailedState();
+    final int type = networkInfo.getType();
+    final int subType = networkInfo.getSubtype();
+    final boolean available = networkInfo.isAvailable();
+    final boolean failover = networkInfo.isFailover();
+    final boolean roaming = networkInfo.isRoaming();
+    final String typeName = networkInfo.getTypeName();
+    final String subTypeName = networkInfo.getSubtypeName();
+    final String reason = networkInfo.getReason();
+    final String extraInfo = networkInfo.getExtraInfo();
+
+    // NetworkInfo doesn't provide capabilities, so validated and metered are false
+    final long packed = Connectivity.pack(state, detailedState, type, subType, available,
+        failover, roaming, false, false);
+    final int hash =
+        Connectivity.hash(packed, 0, 0, typeName, subTypeName, reason, extraInfo);
+    final int index = (hash ^ (hash >>> 16)) & (SIZE - 1);
+    final Connectivity cached = slots.get(index);
+
+    if (cached != null
+        && cached.hashCode() == hash
+        && cached.packed() == packed
+        && equal(cached.typeName(), typeName)
+        && equal(cached.subTypeName(), subTypeName)
+        && equal(cached.reason(), reason)
+        && equal(cached.extraInfo(), extraInfo)) {
+      return cached;
+    }
+
+    final Connectivity connectivity = new Connectivity.Builder()
+        .state(state)
+        .detailedState(detailedState)
+        .type(type)
+        .subType(subType)
+        .available(available)
+        .failover(failover)
+        .roaming(roaming)
+        .typeName(typeName)
+        .subTypeName(subTypeName)
+        .reason(reason)
+        .extraInfo(extraInfo)
+        .build();
+
+    slots.set(index, connectivity);
+    return connectivity;
+  }
+
+  private static boolean equal(final String first, final String second) {
+    return first == null ? second == null : first.equals(second);
+  }
+}
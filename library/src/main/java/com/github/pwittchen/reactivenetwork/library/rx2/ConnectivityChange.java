@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import androidx.annotation.NonNull;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import java.util.concurrent.Callable;
+
+/**
+ * ConnectivityChange represents a change of selected Connectivity fields.
+ * It holds both previous and current value.
+ */
+public final class ConnectivityChange {
+  private final Connectivity previous;
+  private final Connectivity current;
+  private final int fields;
+
+  private ConnectivityChange(final Connectivity previous, final Connectivity current,
+      final int fields) {
+    this.previous = previous;
+    this.current = current;
+    this.fields = fields;
+  }
+
+  /**
+   * Creates change between two connectivity objects
+   *
+   * @param previous connectivity
+   * @param current connectivity
+   * @return change with all of the fields, which differ between previous and current connectivity
+   */
+  public static ConnectivityChange create(@NonNull final Connectivity previous,
+      @NonNull final Connectivity current) {
+    Preconditions.checkNotNull(previous, "previous == null");
+    Preconditions.checkNotNull(current, "current == null");
+    return new ConnectivityChange(previous, current, previous.diff(current));
+  }
+
+  /**
+   * Transforms stream of connectivity into stream of its changes, which are emitted only when at
+   * least one of the selected fields changes. The first connectivity is always emitted as a change
+   * from the default {@link Connectivity#create()} value.
+   *
+   * @param fields bitmask of Connectivity.FIELD_* flags
+   * @return transformer, which can be applied with Observable#compose(...)
+   */
+  public static ObservableTransformer<Connectivity, ConnectivityChange> select(final int fields) {
+    return new ObservableTransformer<Connectivity, ConnectivityChange>() {
+      @Override public ObservableSource<ConnectivityChange> apply(
+          final Observable<Connectivity> upstream) {
+        return Observable.defer(new Callable<ObservableSource<ConnectivityChange>>() {
+          @Override public ObservableSource<ConnectivityChange> call() {
+            return selectChanges(upstream, fields);
+          }
+        });
+      }
+    };
+  }
+
+  private static Observable<ConnectivityChange> selectChanges(
+      final Observable<Connectivity> upstream, final int fields) {
+    // state of a single subscription, that's why it's created in defer(...)
+    final Connectivity[] last = { null };
+
+    return upstream.filter(new Predicate<Connectivity>() {
+      @Override public boolean test(final Connectivity connectivity) {
+        return last[0] == null || (last[0].diff(connectivity) & fields) != 0;
+      }
+    }).map(new Function<Connectivity, ConnectivityChange>() {
+      @Override public ConnectivityChange apply(final Connectivity connectivity) {
+        final Connectivity previous = last[0] == null ? Connectivity.create() : last[0];
+        last[0] = connectivity;
+        return create(previous, connectivity);
+      }
+    });
+  }
+
+  public Connectivity previous() {
+    return previous;
+  }
+
+  public Connectivity current() {
+    return current;
+  }
+
+  /**
+   * @return bitmask of Connectivity.FIELD_* flags of fields, which differ between previous
+   * and current connectivity
+   */
+  public int fields() {
+    return fields;
+  }
+
+  /**
+   * @param field one or more of Connectivity.FIELD_* flags
+   * @return true if at least one of the given fields has changed
+   */
+  public boolean hasChanged(final int field) {
+    return (fields & field) != 0;
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    ConnectivityChange that = (ConnectivityChange) o;
+    return previous.equals(that.previous) && current.equals(that.current);
+  }
+
+  @Override public int hashCode() {
+    return 31 * previous.hashCode() + current.hashCode();
+  }
+
+  @Override public String toString() {
+    return "ConnectivityChange{"
+        + "previous="
+        + previous
+        + ", current="
+        + current
+        + ", fields="
+        + Integer.toBinaryString(fields)
+        + '}';
+  }
+}
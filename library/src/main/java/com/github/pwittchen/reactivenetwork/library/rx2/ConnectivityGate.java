@@ -0,0 +1,374 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.reactivex.Completable;
+import io.reactivex.CompletableEmitter;
+import io.reactivex.CompletableObserver;
+import io.reactivex.CompletableOnSubscribe;
+import io.reactivex.CompletableSource;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.SerialDisposable;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Consumer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Queue of Completable and Single work, which is held while the device is offline and released
+ * in batches once connectivity returns, so reconnection doesn't cause a stampede of requests.
+ * At most batchSize of queued works are running at the same time and the next one is started,
+ * when one of them terminates. Works with higher priority are started first.
+ *
+ * A single gate can be shared by the whole application, so connectivity is observed only once.
+ * Work is subscribed lazily - it's queued, when the returned Completable or Single is subscribed
+ * and it's removed from the queue, when it's disposed.
+ */
+public final class ConnectivityGate implements Disposable {
+  private static final Priority[] PRIORITIES = Priority.values();
+
+  private final Object lock = new Object();
+  private final List<ArrayDeque<Task>> lanes = new ArrayList<>(PRIORITIES.length);
+  private final int capacity;
+  private final int batchSize;
+  private final Disposable connectivityDisposable;
+  private int size;
+  private int running;
+  private boolean isOnline;
+  private boolean isDisposed;
+
+  /**
+   * Priority of the queued work
+   */
+  public enum Priority {
+    HIGH, NORMAL, LOW
+  }
+
+  private ConnectivityGate(final Builder builder) {
+    this.capacity = builder.capacity;
+    this.batchSize = builder.batchSize;
+    for (int i = 0; i < PRIORITIES.length; i++) {
+      lanes.add(new ArrayDeque<Task>());
+    }
+    this.connectivityDisposable = builder.connectivity.subscribe(new Consumer<Boolean>() {
+      @Override public void accept(final Boolean isOnline) {
+        onConnectivityChanged(isOnline);
+      }
+    }, new Consumer<Throwable>() {
+      @Override public void accept(final Throwable throwable) {
+        Log.e(ReactiveNetwork.LOG_TAG, "could not observe connectivity of the gate", throwable);
+      }
+    });
+  }
+
+  /**
+   * Creates gate with default settings
+   *
+   * @param connectivity Observable emitting true, when the device is online,
+   * e.g. {@link ReactiveNetwork#observeInternetConnectivity()}
+   * @return ConnectivityGate
+   */
+  public static ConnectivityGate create(@NonNull final Observable<Boolean> connectivity) {
+    return builder(connectivity).build();
+  }
+
+  /**
+   * Creates builder of the gate
+   *
+   * @param connectivity Observable emitting true, when the device is online,
+   * e.g. {@link ReactiveNetwork#observeInternetConnectivity()}
+   * @return Builder
+   */
+  public static Builder builder(@NonNull final Observable<Boolean> connectivity) {
+    Preconditions.checkNotNull(connectivity, "connectivity == null");
+    return new Builder(connectivity);
+  }
+
+  /**
+   * Enqueues work with normal priority
+   *
+   * @param work Completable, which requires connectivity
+   * @return Completable, which runs the work, when the device is online
+   */
+  public Completable enqueue(@NonNull final Completable work) {
+    return enqueue(work, Priority.NORMAL);
+  }
+
+  /**
+   * Enqueues work. When the queue is full, returned Completable fails with
+   * RejectedExecutionException.
+   *
+   * @param work Completable, which requires connectivity
+   * @param priority of the work
+   * @return Completable, which runs the work, when the device is online
+   */
+  public Completable enqueue(@NonNull final Completable work, @NonNull final Priority priority) {
+    Preconditions.checkNotNull(work, "work == null");
+    Preconditions.checkNotNull(priority, "priority == null");
+    return Completable.create(new CompletableOnSubscribe() {
+      @Override public void subscribe(final CompletableEmitter emitter) {
+        final Task task = new Task(work, priority, emitter);
+        emitter.setCancellable(task);
+        final Throwable error = offer(task);
+        if (error != null) {
+          emitter.onError(error);
+          return;
+        }
+        drain();
+      }
+    });
+  }
+
+  /**
+   * Enqueues work with normal priority
+   *
+   * @param work Single, which requires connectivity
+   * @param <T> type of the result
+   * @return Single, which runs the work, when the device is online
+   */
+  public <T> Single<T> enqueue(@NonNull final Single<T> work) {
+    return enqueue(work, Priority.NORMAL);
+  }
+
+  /**
+   * Enqueues work. When the queue is full, returned Single fails with
+   * RejectedExecutionException.
+   *
+   * @param work Single, which requires connectivity
+   * @param priority of the work
+   * @param <T> type of the result
+   * @return Single, which runs the work, when the device is online
+   */
+  public <T> Single<T> enqueue(@NonNull final Single<T> work, @NonNull final Priority priority) {
+    Preconditions.checkNotNull(work, "work == null");
+    Preconditions.checkNotNull(priority, "priority == null");
+    return Single.defer(new Callable<SingleSource<T>>() {
+      @Override public SingleSource<T> call() {
+        // result of a single subscription, that's why it's created in defer(...)
+        final List<T> result = new ArrayList<>(1);
+        final Completable completable = work.doOnSuccess(new Consumer<T>() {
+          @Override public void accept(final T value) {
+            result.add(value);
+          }
+        }).ignoreElement();
+        return enqueue(completable, priority).andThen(Single.fromCallable(new Callable<T>() {
+          @Override public T call() {
+            return result.get(0);
+          }
+        }));
+      }
+    });
+  }
+
+  /**
+   * @return number of works waiting in the queue
+   */
+  public int size() {
+    synchronized (lock) {
+      return size;
+    }
+  }
+
+  @Nullable private Throwable offer(final Task task) {
+    synchronized (lock) {
+      if (isDisposed) {
+        return new CancellationException("gate is disposed");
+      }
+      if (size >= capacity) {
+        return new RejectedExecutionException("gate is full");
+      }
+      lanes.get(task.priority.ordinal()).add(task);
+      size++;
+      return null;
+    }
+  }
+
+  private void onConnectivityChanged(final boolean isOnline) {
+    synchronized (lock) {
+      this.isOnline = isOnline;
+    }
+    drain();
+  }
+
+  private void drain() {
+    final List<Task> tasks = new ArrayList<>();
+    synchronized (lock) {
+      while (isOnline && running < batchSize && size > 0) {
+        tasks.add(poll());
+        running++;
+        size--;
+      }
+    }
+    // works are subscribed outside of the lock, because they can terminate synchronously
+    for (Task task : tasks) {
+      task.run();
+    }
+  }
+
+  private Task poll() {
+    for (ArrayDeque<Task> lane : lanes) {
+      final Task task = lane.poll();
+      if (task != null) {
+        return task;
+      }
+    }
+    throw new IllegalStateException("queue is empty");
+  }
+
+  private void onFinished() {
+    synchronized (lock) {
+      running--;
+    }
+    drain();
+  }
+
+  /**
+   * Stops observing connectivity. Works waiting in the queue fail with CancellationException.
+   * Running works are not affected.
+   */
+  @Override public void dispose() {
+    final List<Task> tasks = new ArrayList<>();
+    synchronized (lock) {
+      if (isDisposed) {
+        return;
+      }
+      isDisposed = true;
+      for (ArrayDeque<Task> lane : lanes) {
+        tasks.addAll(lane);
+        lane.clear();
+      }
+      size = 0;
+    }
+    connectivityDisposable.dispose();
+    for (Task task : tasks) {
+      task.emitter.tryOnError(new CancellationException("gate is disposed"));
+    }
+  }
+
+  @Override public boolean isDisposed() {
+    synchronized (lock) {
+      return isDisposed;
+    }
+  }
+
+  private final class Task implements Cancellable, CompletableObserver {
+    private final CompletableSource work;
+    private final Priority priority;
+    private final CompletableEmitter emitter;
+    private final SerialDisposable upstream = new SerialDisposable();
+    private final AtomicBoolean isStarted = new AtomicBoolean();
+    private final AtomicBoolean isFinished = new AtomicBoolean();
+
+    Task(final CompletableSource work, final Priority priority,
+        final CompletableEmitter emitter) {
+      this.work = work;
+      this.priority = priority;
+      this.emitter = emitter;
+    }
+
+    void run() {
+      isStarted.set(true);
+      if (emitter.isDisposed()) {
+        finish();
+        return;
+      }
+      work.subscribe(this);
+    }
+
+    @Override public void onSubscribe(final Disposable disposable) {
+      upstream.replace(disposable);
+    }
+
+    @Override public void onComplete() {
+      finish();
+      emitter.onComplete();
+    }
+
+    @Override public void onError(final Throwable throwable) {
+      finish();
+      emitter.onError(throwable);
+    }
+
+    @Override public void cancel() {
+      final boolean isRemoved;
+      synchronized (lock) {
+        isRemoved = lanes.get(priority.ordinal()).remove(this);
+        if (isRemoved) {
+          size--;
+        }
+      }
+      if (!isRemoved && isStarted.get()) {
+        upstream.dispose();
+        finish();
+      }
+    }
+
+    private void finish() {
+      if (isFinished.compareAndSet(false, true)) {
+        onFinished();
+      }
+    }
+  }
+
+  public final static class Builder {
+    private final Observable<Boolean> connectivity; // NOPMD
+    private int capacity = 256; // NOPMD
+    private int batchSize = 4; // NOPMD
+
+    private Builder(final Observable<Boolean> connectivity) {
+      this.connectivity = connectivity;
+    }
+
+    /**
+     * sets maximum number of works waiting in the queue
+     *
+     * @param capacity of the queue
+     * @return Builder
+     */
+    public Builder capacity(final int capacity) {
+      Preconditions.checkGreaterThanZero(capacity, "capacity is not positive");
+      this.capacity = capacity;
+      return this;
+    }
+
+    /**
+     * sets maximum number of queued works running at the same time
+     *
+     * @param batchSize number of works
+     * @return Builder
+     */
+    public Builder batchSize(final int batchSize) {
+      Preconditions.checkGreaterThanZero(batchSize, "batchSize is not positive");
+      this.batchSize = batchSize;
+      return this;
+    }
+
+    public ConnectivityGate build() {
+      return new ConnectivityGate(this);
+    }
+  }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.net.NetworkInfo;
+import io.reactivex.annotations.NonNull;
+import io.reactivex.functions.Predicate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Predicate of Connectivity compiled to bitmasks of accepted states, detailed states, types,
+ * sub types and flags. Masks can be combined with and(...), or(...) and not() methods
+ * and testing a connectivity costs a few bitwise operations on its packed value.
+ * Types and sub types from -1 (unknown) up to 62 are supported.
+ * <p>
+ * Example: {@code ConnectivityMask.builder().state(CONNECTED).type(TYPE_WIFI).build()
+ * .or(ConnectivityMask.builder().type(TYPE_MOBILE).roaming(false).build())}
+ */
+public final class ConnectivityMask implements Predicate<Connectivity> {
+  static final int MIN_TYPE = Connectivity.UNKNOWN_TYPE;
+  static final int MAX_TYPE = 62;
+
+  private static final ConnectivityMask ANY = new ConnectivityMask(new Term[] { Term.ANY });
+  private static final ConnectivityMask NONE = new ConnectivityMask(new Term[0]);
+
+  // alternative of conjunctions, most of the masks have just one term
+  private final Term[] terms;
+
+  private ConnectivityMask(final Term[] terms) {
+    this.terms = terms;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return mask accepting every connectivity
+   */
+  public static ConnectivityMask any() {
+    return ANY;
+  }
+
+  /**
+   * @return mask rejecting every connectivity
+   */
+  public static ConnectivityMask none() {
+    return NONE;
+  }
+
+  @Override public boolean test(@NonNull final Connectivity connectivity) {
+    final long packed = connectivity.packed();
+    for (Term term : terms) {
+      if (term.test(packed)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param other mask
+   * @return mask accepting connectivity accepted by both this and the other mask
+   */
+  public ConnectivityMask and(@NonNull final ConnectivityMask other) {
+    Preconditions.checkNotNull(other, "other == null");
+    final List<Term> result = new ArrayList<>(terms.length * other.terms.length);
+    for (Term term : terms) {
+      for (Term otherTerm : other.terms) {
+        add(result, term.and(otherTerm));
+      }
+    }
+    return create(result);
+  }
+
+  /**
+   * @param other mask
+   * @return mask accepting connectivity accepted by this or the other mask
+   */
+  public ConnectivityMask or(@NonNull final ConnectivityMask other) {
+    Preconditions.checkNotNull(other, "other == null");
+    final List<Term> result = new ArrayList<>(terms.length + other.terms.length);
+    for (Term term : terms) {
+      add(result, term);
+    }
+    for (Term term : other.terms) {
+      add(result, term);
+    }
+    return create(result);
+  }
+
+  /**
+   * @return mask accepting connectivity rejected by this mask
+   */
+  public ConnectivityMask not() {
+    ConnectivityMask result = ANY;
+    for (Term term : terms) {
+      result = result.and(create(term.not()));
+    }
+    return result;
+  }
+
+  private static void add(final List<Term> terms, final Term term) {
+    if (!term.isEmpty() && !terms.contains(term)) {
+      terms.add(term);
+    }
+  }
+
+  private static ConnectivityMask create(final List<Term> terms) {
+    if (terms.isEmpty()) {
+      return NONE;
+    }
+    return terms.contains(Term.ANY) ? ANY : new ConnectivityMask(terms.toArray(new Term[0]));
+  }
+
+  @Override public String toString() {
+    return "ConnectivityMask{terms=" + Arrays.toString(terms) + '}';
+  }
+
+  public final static class Builder {
+
+    // disabling PMD for builder class attributes
+    // because we want to have the same method names as names of the attributes for builder
+
+    private int states = Term.ALL_STATES; // NOPMD
+    private int detailedStates = Term.ALL_DETAILED_STATES; // NOPMD
+    private long types = Term.ALL_TYPES; // NOPMD
+    private boolean otherTypes = true; // NOPMD
+    private long subTypes = Term.ALL_TYPES; // NOPMD
+    private boolean otherSubTypes = true; // NOPMD
+    private long flags; // NOPMD
+    private long flagValues; // NOPMD
+
+    private Builder() {
+    }
+
+    public Builder state(final NetworkInfo.State... states) {
+      Preconditions.checkNotNull(states, "states == null");
+      this.states = 0;
+      for (NetworkInfo.State state : states) {
+        this.states |= 1 << index(state);
+      }
+      return this;
+    }
+
+    public Builder detailedState(final NetworkInfo.DetailedState... detailedStates) {
+      Preconditions.checkNotNull(detailedStates, "detailedStates == null");
+      this.detailedStates = 0;
+      for (NetworkInfo.DetailedState detailedState : detailedStates) {
+        this.detailedStates |= 1 << index(detailedState);
+      }
+      return this;
+    }
+
+    public Builder type(final int... types) {
+      Preconditions.checkNotNull(types, "types == null");
+      this.types = toMask(types);
+      this.otherTypes = false;
+      return this;
+    }
+
+    public Builder subType(final int... subTypes) {
+      Preconditions.checkNotNull(subTypes, "subTypes == null");
+      this.subTypes = toMask(subTypes);
+      this.otherSubTypes = false;
+      return this;
+    }
+
+    public Builder available(final boolean available) {
+      return flag(Connectivity.BIT_AVAILABLE, available);
+    }
+
+    public Builder failover(final boolean failover) {
+      return flag(Connectivity.BIT_FAILOVER, failover);
+    }
+
+    public Builder roaming(final boolean roaming) {
+      return flag(Connectivity.BIT_ROAMING, roaming);
+    }
+
+    public Builder validated(final boolean validated) {
+      return flag(Connectivity.BIT_VALIDATED, validated);
+    }
+
+    public Builder metered(final boolean metered) {
+      return flag(Connectivity.BIT_METERED, metered);
+    }
+
+    public ConnectivityMask build() {
+      final Term term = new Term(states, detailedStates, types, otherTypes, subTypes,
+          otherSubTypes, flags, flagValues);
+      if (term.isEmpty()) {
+        return NONE;
+      }
+      return term.equals(Term.ANY) ? ANY : new ConnectivityMask(new Term[] { term });
+    }
+
+    private Builder flag(final long bit, final boolean value) {
+      flags |= bit;
+      flagValues = value ? flagValues | bit : flagValues & ~bit;
+      return this;
+    }
+
+    private static int index(final Enum<?> value) {
+      // the same as in Connectivity#packed()
+      return value == null ? 0 : value.ordinal() + 1;
+    }
+
+    private static long toMask(final int[] types) {
+      long mask = 0;
+      for (int type : types) {
+        if (type < MIN_TYPE || type > MAX_TYPE) {
+          throw new IllegalArgumentException(
+              "type should be between " + MIN_TYPE + " and " + MAX_TYPE + ", was " + type);
+        }
+        mask |= 1L << (type - MIN_TYPE);
+      }
+      return mask;
+    }
+  }
+
+  /**
+   * Conjunction of conditions on every field of the packed connectivity
+   */
+  private static final class Term {
+    static final int ALL_STATES = (1 << (NetworkInfo.State.values().length + 1)) - 1;
+    static final int ALL_DETAILED_STATES =
+        (1 << (NetworkInfo.DetailedState.values().length + 1)) - 1;
+    static final long ALL_TYPES = ~0L;
+    static final Term ANY = new Term(ALL_STATES, ALL_DETAILED_STATES, ALL_TYPES, true, ALL_TYPES,
+        true, 0, 0);
+
+    private final int states;
+    private final int detailedStates;
+    private final long types;
+    private final boolean otherTypes; // types out of the supported range
+    private final long subTypes;
+    private final boolean otherSubTypes;
+    private final long flags;
+    private final long flagValues;
+
+    Term(final int states, final int detailedStates, final long types, final boolean otherTypes,
+        final long subTypes, final boolean otherSubTypes, final long flags,
+        final long flagValues) {
+      this.states = states;
+      this.detailedStates = detailedStates;
+      this.types = types;
+      this.otherTypes = otherTypes;
+      this.subTypes = subTypes;
+      this.otherSubTypes = otherSubTypes;
+      this.flags = flags;
+      this.flagValues = flagValues;
+    }
+
+    boolean test(final long packed) {
+      final int state = (int) ((packed & Connectivity.MASK_STATE) >>> Connectivity.SHIFT_STATE);
+      final int detailedState = (int) ((packed & Connectivity.MASK_DETAILED_STATE)
+          >>> Connectivity.SHIFT_DETAILED_STATE);
+      // exact, because Connectivity accepts only types fitting into 16 bits
+      final int type = (short) (packed & Connectivity.MASK_TYPE);
+      final int subType =
+          (short) ((packed & Connectivity.MASK_SUB_TYPE) >>> Connectivity.SHIFT_SUB_TYPE);
+
+      return (packed & flags) == flagValues
+          && (states >>> state & 1) != 0
+          && (detailedStates >>> detailedState & 1) != 0
+          && contains(types, otherTypes, type)
+          && contains(subTypes, otherSubTypes, subType);
+    }
+
+    private static boolean contains(final long mask, final boolean other, final int type) {
+      if (type < MIN_TYPE || type > MAX_TYPE) {
+        return other;
+      }
+      return (mask >>> (type - MIN_TYPE) & 1) != 0;
+    }
+
+    boolean isEmpty() {
+      return states == 0
+          || detailedStates == 0
+          || (types == 0 && !otherTypes)
+          || (subTypes == 0 && !otherSubTypes);
+    }
+
+    Term and(final Term other) {
+      if ((flags & other.flags & (flagValues ^ other.flagValues)) != 0) {
+        return new Term(0, 0, 0, false, 0, false, 0, 0); // the same flag with different values
+      }
+      return new Term(states & other.states, detailedStates & other.detailedStates,
+          types & other.types, otherTypes && other.otherTypes, subTypes & other.subTypes,
+          otherSubTypes && other.otherSubTypes, flags | other.flags,
+          flagValues | other.flagValues);
+    }
+
+    /**
+     * @return alternative of terms accepting values rejected by this term
+     */
+    List<Term> not() {
+      final List<Term> result = new ArrayList<>();
+      if (states != ALL_STATES) {
+        add(result, new Term(~states & ALL_STATES, ALL_DETAILED_STATES, ALL_TYPES, true,
+            ALL_TYPES, true, 0, 0));
+      }
+      if (detailedStates != ALL_DETAILED_STATES) {
+        add(result, new Term(ALL_STATES, ~detailedStates & ALL_DETAILED_STATES, ALL_TYPES, true,
+            ALL_TYPES, true, 0, 0));
+      }
+      if (types != ALL_TYPES || !otherTypes) {
+        add(result, new Term(ALL_STATES, ALL_DETAILED_STATES, ~types, !otherTypes, ALL_TYPES,
+            true, 0, 0));
+      }
+      if (subTypes != ALL_TYPES || !otherSubTypes) {
+        add(result, new Term(ALL_STATES, ALL_DETAILED_STATES, ALL_TYPES, true, ~subTypes,
+            !otherSubTypes, 0, 0));
+      }
+      long remainingFlags = flags;
+      while (remainingFlags != 0) {
+        final long bit = Long.lowestOneBit(remainingFlags);
+        remainingFlags &= ~bit;
+        add(result, new Term(ALL_STATES, ALL_DETAILED_STATES, ALL_TYPES, true, ALL_TYPES, true,
+            bit, ~flagValues & bit));
+      }
+      return result;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Term that = (Term) o;
+      return states == that.states
+          && detailedStates == that.detailedStates
+          && types == that.types
+          && otherTypes == that.otherTypes
+          && subTypes == that.subTypes
+          && otherSubTypes == that.otherSubTypes
+          && flags == that.flags
+          && flagValues == that.flagValues;
+    }
+
+    @Override public int hashCode() {
+      int result = states;
+      result = 31 * result + detailedStates;
+      result = 31 * result + (int) (types ^ (types >>> 32));
+      result = 31 * result + (otherTypes ? 1 : 0);
+      result = 31 * result + (int) (subTypes ^ (subTypes >>> 32));
+      result = 31 * result + (otherSubTypes ? 1 : 0);
+      result = 31 * result + (int) (flags ^ (flags >>> 32));
+      result = 31 * result + (int) (flagValues ^ (flagValues >>> 32));
+      return result;
+    }
+
+    @Override public String toString() {
+      return "Term{states=" + Integer.toBinaryString(states)
+          + ", detailedStates=" + Integer.toBinaryString(detailedStates)
+          + ", types=" + Long.toBinaryString(types)
+          + ", subTypes=" + Long.toBinaryString(subTypes)
+          + ", flags=" + Long.toBinaryString(flags)
+          + ", flagValues=" + Long.toBinaryString(flagValues)
+          + '}';
+    }
+  }
+}
@@ -22,7 +22,8 @@ import io.reactivex.functions.Predicate;
 
 /**
  * ConnectivityPredicate is a class containing predefined methods, which can be used for filtering
- * reactive streams of network connectivity
+ * reactive streams of network connectivity. More complex filters can be built with
+ * {@link ConnectivityMask}.
  */
 public final class ConnectivityPredicate {
 
@@ -36,16 +37,7 @@ public final class ConnectivityPredicate {
    * @return true if at least one given state occurred
    */
   public static Predicate<Connectivity> hasState(final NetworkInfo.State... states) {
-    return new Predicate<Connectivity>() {
-      @Override public boolean test(@NonNull Connectivity connectivity) throws Exception {
-        for (NetworkInfo.State state : states) {
-          if (connectivity.state() == state) {
-            return true;
-          }
-        }
-        return false;
-      }
-    };
+    return ConnectivityMask.builder().state(states).build();
   }
 
   /**
@@ -56,6 +48,9 @@ public final class ConnectivityPredicate {
    */
   public static Predicate<Connectivity> hasType(final int... types) {
     final int[] extendedTypes = appendUnknownNetworkTypeToTypes(types);
+    if (isInMaskRange(extendedTypes)) {
+      return ConnectivityMask.builder().type(extendedTypes).build();
+    }
     return new Predicate<Connectivity>() {
       @Override public boolean test(@NonNull Connectivity connectivity) throws Exception {
         for (int type : extendedTypes) {
@@ -68,6 +63,15 @@ public final class ConnectivityPredicate {
     };
   }
 
+  private static boolean isInMaskRange(final int[] types) {
+    for (int type : types) {
+      if (type < ConnectivityMask.MIN_TYPE || type > ConnectivityMask.MAX_TYPE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Returns network types from the input with additional unknown type,
    * what helps during connections filtering when device
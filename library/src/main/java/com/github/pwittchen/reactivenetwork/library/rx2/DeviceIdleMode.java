@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.PowerManager;
+import android.util.Log;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.functions.Cancellable;
+
+/**
+ * Idle (Doze) mode of the device available on Android Marshmallow (API 23) or higher.
+ * Applications ignoring battery optimizations are never treated as idle.
+ */
+public final class DeviceIdleMode {
+
+  private DeviceIdleMode() {
+  }
+
+  /**
+   * Checks if the device is in idle mode and the application doesn't ignore battery optimizations
+   *
+   * @param context Context of the activity or an application
+   * @return boolean true if network access of the application is restricted by idle mode
+   */
+  @TargetApi(23) public static boolean isIdleMode(final Context context) {
+    final String packageName = context.getPackageName();
+    final PowerManager manager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+    boolean isIgnoringOptimizations = manager.isIgnoringBatteryOptimizations(packageName);
+    return manager.isDeviceIdleMode() && !isIgnoringOptimizations;
+  }
+
+  /**
+   * Observes idle mode of the device. Current mode is emitted on subscription and then after every
+   * change. Before Android Marshmallow, false is emitted once.
+   *
+   * @param context Context of the activity or an application
+   * @return RxJava Observable with Boolean - true, when the device is in idle mode
+   */
+  public static Observable<Boolean> observe(final Context context) {
+    Preconditions.checkNotNull(context, "context == null");
+    if (!Preconditions.isAtLeastAndroidMarshmallow()) {
+      return Observable.just(false);
+    }
+    return Observable.create(new ObservableOnSubscribe<Boolean>() {
+      @Override public void subscribe(final ObservableEmitter<Boolean> subscriber) {
+        // receiver may run on the main thread, while the initial state is emitted on subscription
+        final ObservableEmitter<Boolean> emitter = subscriber.serialize();
+        final BroadcastReceiver receiver = new BroadcastReceiver() {
+          @Override public void onReceive(final Context context, final Intent intent) {
+            emitter.onNext(isIdleMode(context));
+          }
+        };
+        final IntentFilter filter = new IntentFilter(PowerManager.ACTION_DEVICE_IDLE_MODE_CHANGED);
+        context.registerReceiver(receiver, filter);
+        emitter.setCancellable(new Cancellable() {
+          @Override public void cancel() {
+            try {
+              context.unregisterReceiver(receiver);
+            } catch (Exception exception) {
+              Log.e(ReactiveNetwork.LOG_TAG, "could not unregister receiver", exception);
+            }
+          }
+        });
+        emitter.onNext(isIdleMode(context));
+      }
+    }).distinctUntilChanged();
+  }
+}
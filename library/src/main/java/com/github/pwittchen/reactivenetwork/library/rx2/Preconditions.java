@@ -66,6 +66,18 @@ public final class Preconditions {
     }
   }
 
+  /**
+   * Validation method, which checks is a long number is non-zero or positive
+   *
+   * @param number long to verify
+   * @param message to be thrown in exception
+   */
+  public static void checkGreaterThanZero(long number, String message) {
+    if (number <= 0) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
   /**
    * Validation method, which checks if current Android version is at least Lollipop (API 21) or
    * higher
@@ -85,6 +97,14 @@ public final class Preconditions {
   public static boolean isAtLeastAndroidMarshmallow() {
     return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
   }
-}
-
 
+  /**
+   * Validation method, which checks if current Android version is at least Oreo (API 26) or
+   * higher
+   *
+   * @return boolean true if current Android version is Oreo or higher
+   */
+  public static boolean isAtLeastAndroidOreo() {
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.O;
+  }
+}
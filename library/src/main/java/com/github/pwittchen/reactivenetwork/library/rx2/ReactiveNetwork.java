@@ -17,17 +17,31 @@ package com.github.pwittchen.reactivenetwork.library.rx2;
 
 import android.Manifest;
 import android.content.Context;
+import android.net.Network;
 import androidx.annotation.RequiresPermission;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.FlowableInternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingSettings;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.NetworkBoundInternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.LollipopNetworkObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.MarshmallowNetworkObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.MultiNetworkObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.PreLollipopNetworkObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.SharedNetworkObservingStrategy;
 import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * ReactiveNetwork is an Android library
@@ -52,7 +66,8 @@ import io.reactivex.Single;
   /**
    * Observes network connectivity. Information about network state, type and typeName are contained
    * in
-   * observed Connectivity object.
+   * observed Connectivity object. All of the subscribers in the process share a single network
+   * registration and a late subscriber receives the latest Connectivity immediately.
    *
    * @param context Context of the activity or an application
    * @return RxJava Observable with Connectivity class containing information about network state,
@@ -60,17 +75,7 @@ import io.reactivex.Single;
    */
   @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
   public static Observable<Connectivity> observeNetworkConnectivity(final Context context) {
-    final NetworkObservingStrategy strategy;
-
-    if (Preconditions.isAtLeastAndroidMarshmallow()) {
-      strategy = new MarshmallowNetworkObservingStrategy();
-    } else if (Preconditions.isAtLeastAndroidLollipop()) {
-      strategy = new LollipopNetworkObservingStrategy();
-    } else {
-      strategy = new PreLollipopNetworkObservingStrategy();
-    }
-
-    return observeNetworkConnectivity(context, strategy);
+    return observeNetworkConnectivity(context, DefaultNetworkObservingStrategy.INSTANCE);
   }
 
   /**
@@ -92,6 +97,65 @@ import io.reactivex.Single;
     return strategy.observeNetworkConnectivity(context);
   }
 
+  /**
+   * Observes network connectivity as a Flowable with the given backpressure strategy. Network
+   * events can't be stopped, so {@link BackpressureStrategy#LATEST} is the most reasonable choice
+   * for a slow consumer, which is interested only in the current Connectivity.
+   *
+   * @param context Context of the activity or an application
+   * @param backpressureStrategy strategy applied, when the downstream can't keep up with events
+   * @return RxJava Flowable with Connectivity class containing information about network state,
+   * type and typeName
+   */
+  @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+  public static Flowable<Connectivity> observeNetworkConnectivity(final Context context,
+      final BackpressureStrategy backpressureStrategy) {
+    Preconditions.checkNotNull(backpressureStrategy, "backpressureStrategy == null");
+    return observeNetworkConnectivity(context).toFlowable(backpressureStrategy);
+  }
+
+  /**
+   * Observes changes of selected fields of network connectivity. Changes of other fields
+   * (e.g. reason or extra info) are not emitted. All subscribers of the returned Observable share
+   * a single network registration and a late subscriber receives the latest change immediately.
+   * Changes can be also selected from any stream of Connectivity with
+   * {@link ConnectivityChange#select(int)}.
+   *
+   * @param context Context of the activity or an application
+   * @param fields bitmask of Connectivity.FIELD_* flags, e.g.
+   * {@code Connectivity.FIELD_STATE | Connectivity.FIELD_TYPE}
+   * @return RxJava Observable with ConnectivityChange containing previous and current Connectivity
+   */
+  @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+  public static Observable<ConnectivityChange> observeNetworkConnectivityChanges(
+      final Context context, final int fields) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkGreaterThanZero(fields, "fields is not a positive number");
+    return observeNetworkConnectivity(context)
+        .compose(ConnectivityChange.select(fields))
+        .replay(1)
+        .refCount();
+  }
+
+  /**
+   * Observes all of the networks available at the same time (e.g. Wi-Fi and mobile network),
+   * not only the default one. Every emitted map is an unmodifiable snapshot, which contains
+   * Connectivity created from capabilities of the network. The first map is emitted, when the
+   * system delivers the first of the available networks. Before Android Lollipop (API 21),
+   * a single empty map is emitted.
+   *
+   * @param context Context of the activity or an application
+   * @return RxJava Observable with map of available networks and their Connectivity
+   */
+  @RequiresPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+  public static Observable<Map<Network, Connectivity>> observeAllNetworks(final Context context) {
+    Preconditions.checkNotNull(context, "context == null");
+    if (!Preconditions.isAtLeastAndroidLollipop()) {
+      return Observable.just(Collections.<Network, Connectivity>emptyMap());
+    }
+    return new MultiNetworkObservingStrategy().observeAllNetworks(context);
+  }
+
   /**
    * Observes connectivity with the Internet with default settings. It pings remote host
    * (www.google.com) at port 80 every 2 seconds with 2 seconds of timeout. This operation is used
@@ -125,6 +189,43 @@ import io.reactivex.Single;
         settings.timeout(), settings.httpResponse(), settings.errorHandler());
   }
 
+  /**
+   * Observes connectivity with the Internet in a given time interval as a Flowable. When strategy
+   * from the settings implements {@link FlowableInternetObservingStrategy}, connectivity is checked
+   * only when there's demand of the downstream and ticks without demand are dropped, so only
+   * {@link BackpressureStrategy#LATEST} and {@link BackpressureStrategy#DROP} are allowed.
+   * Otherwise, the given backpressure strategy is applied to the Observable of the strategy.
+   *
+   * @param settings Internet Observing Settings created via Builder pattern
+   * @param backpressureStrategy strategy applied to the Observable of strategies, which don't
+   * implement {@link FlowableInternetObservingStrategy}, or LATEST or DROP for the ones, which do
+   * @return RxJava Flowable with Boolean - true, when we have connection with host and false if
+   * not
+   * @throws IllegalArgumentException when strategy from the settings implements
+   * {@link FlowableInternetObservingStrategy} and backpressure strategy is neither LATEST nor DROP
+   */
+  @RequiresPermission(Manifest.permission.INTERNET)
+  public static Flowable<Boolean> observeInternetConnectivity(
+      final InternetObservingSettings settings, final BackpressureStrategy backpressureStrategy) {
+    Preconditions.checkNotNull(settings, "settings == null");
+    Preconditions.checkNotNull(backpressureStrategy, "backpressureStrategy == null");
+    if (!(settings.strategy() instanceof FlowableInternetObservingStrategy)) {
+      return observeInternetConnectivity(settings).toFlowable(backpressureStrategy);
+    }
+    if (backpressureStrategy != BackpressureStrategy.LATEST
+        && backpressureStrategy != BackpressureStrategy.DROP) {
+      throw new IllegalArgumentException(
+          "strategy checking connectivity on demand supports only LATEST and DROP backpressure");
+    }
+
+    // ticks without demand are dropped by the strategy, so an operator requesting unbounded
+    // demand (like onBackpressureLatest) can't be applied here, because it'd check every tick
+    return ((FlowableInternetObservingStrategy) settings.strategy())
+        .observeInternetConnectivityFlowable(settings.initialInterval(), settings.interval(),
+            settings.host(), settings.port(), settings.timeout(), settings.httpResponse(),
+            settings.errorHandler());
+  }
+
   /**
    * Observes connectivity with the Internet in a given time interval.
    *
@@ -197,7 +298,77 @@ import io.reactivex.Single;
     return strategy.checkInternetConnectivity(host, port, timeoutInMs, httpResponse, errorHandler);
   }
 
+  /**
+   * Checks connectivity with the Internet through each of the given networks (e.g. Wi-Fi and mobile
+   * network) in parallel. This operation is performed only once. Strategy from the settings has to
+   * implement {@link NetworkBoundInternetObservingStrategy}. Networks can be taken from
+   * {@link #observeAllNetworks(Context)}.
+   *
+   * @param networks to check
+   * @param settings Internet Observing Settings created via Builder pattern
+   * @return RxJava Single with unmodifiable map of networks and Boolean - true, when we have
+   * connection with host through the network and false if not
+   */
+  @RequiresPermission(Manifest.permission.INTERNET)
+  public static Single<Map<Network, Boolean>> checkInternetConnectivity(
+      final Collection<Network> networks, final InternetObservingSettings settings) {
+    Preconditions.checkNotNull(networks, "networks == null");
+    Preconditions.checkNotNull(settings, "settings == null");
+    if (!(settings.strategy() instanceof NetworkBoundInternetObservingStrategy)) {
+      throw new IllegalArgumentException("strategy can't check connectivity through a network");
+    }
+    final NetworkBoundInternetObservingStrategy strategy =
+        (NetworkBoundInternetObservingStrategy) settings.strategy();
+
+    return Observable.fromIterable(networks).flatMapSingle(
+        new Function<Network, SingleSource<Map.Entry<Network, Boolean>>>() {
+          @Override public SingleSource<Map.Entry<Network, Boolean>> apply(final Network network) {
+            return strategy.checkInternetConnectivity(network, settings.host(), settings.port(),
+                settings.timeout(), settings.httpResponse(), settings.errorHandler())
+                .map(new Function<Boolean, Map.Entry<Network, Boolean>>() {
+                  @Override public Map.Entry<Network, Boolean> apply(final Boolean isConnected) {
+                    return new AbstractMap.SimpleImmutableEntry<>(network, isConnected);
+                  }
+                })
+                .subscribeOn(Schedulers.io()); // every network is checked on its own thread
+          }
+        })
+        .toMap(new Function<Map.Entry<Network, Boolean>, Network>() {
+          @Override public Network apply(final Map.Entry<Network, Boolean> entry) {
+            return entry.getKey();
+          }
+        }, new Function<Map.Entry<Network, Boolean>, Boolean>() {
+          @Override public Boolean apply(final Map.Entry<Network, Boolean> entry) {
+            return entry.getValue();
+          }
+        })
+        .map(new Function<Map<Network, Boolean>, Map<Network, Boolean>>() {
+          @Override public Map<Network, Boolean> apply(final Map<Network, Boolean> results) {
+            return Collections.unmodifiableMap(results);
+          }
+        });
+  }
+
   private static void checkStrategyIsNotNull(InternetObservingStrategy strategy) {
     Preconditions.checkNotNull(strategy, "strategy == null");
   }
+
+  /**
+   * Holds process-wide strategy appropriate for the current Android version,
+   * which is created lazily when network connectivity is observed for the first time
+   */
+  private static final class DefaultNetworkObservingStrategy {
+    private static final NetworkObservingStrategy INSTANCE =
+        new SharedNetworkObservingStrategy(create());
+
+    private static NetworkObservingStrategy create() {
+      if (Preconditions.isAtLeastAndroidMarshmallow()) {
+        return new MarshmallowNetworkObservingStrategy();
+      } else if (Preconditions.isAtLeastAndroidLollipop()) {
+        return new LollipopNetworkObservingStrategy();
+      } else {
+        return new PreLollipopNetworkObservingStrategy();
+      }
+    }
+  }
 }
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import androidx.annotation.NonNull;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Completable;
+import io.reactivex.CompletableSource;
+import io.reactivex.CompletableTransformer;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.SingleTransformer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.CompletableSubject;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.reactivestreams.Publisher;
+
+/**
+ * Retries failed upstream only when the device is online. Every retry waits for the connectivity
+ * Observable to report true and then for exponentially growing, jittered delay, so retries aren't
+ * wasted while offline and don't cause a stampede of requests at the moment of reconnection.
+ * When the retry budget is exhausted, the last error is passed downstream.
+ *
+ * All of the retried streams share a single subscription of the connectivity Observable, which
+ * is made at the first retry and kept until RetryWhenOnline is disposed. When connectivity
+ * completes without reporting true or RetryWhenOnline is disposed, the waiting retries pass
+ * their errors downstream.
+ */
+public final class RetryWhenOnline implements Disposable {
+  private final Observable<Boolean> connectivity;
+  private final AtomicReference<Disposable> connection = new AtomicReference<>();
+  private final CompletableSubject disposal = CompletableSubject.create();
+  private final int maxRetries;
+  private final long delayInMs;
+  private final long maxDelayInMs;
+  private final double jitter;
+  private final Scheduler scheduler;
+  private final Random random = new Random();
+
+  private RetryWhenOnline(final Builder builder) {
+    this.connectivity = builder.connectivity.replay(1).autoConnect(1, new Consumer<Disposable>() {
+      @Override public void accept(final Disposable disposable) {
+        if (!connection.compareAndSet(null, disposable)) {
+          disposable.dispose();
+        }
+      }
+    });
+    this.maxRetries = builder.maxRetries;
+    this.delayInMs = builder.delayInMs;
+    this.maxDelayInMs = builder.maxDelayInMs;
+    this.jitter = builder.jitter;
+    this.scheduler = builder.scheduler;
+  }
+
+  /**
+   * Creates retrying with default settings
+   *
+   * @param connectivity Observable emitting true, when the device is online,
+   * e.g. {@link ReactiveNetwork#observeInternetConnectivity()}
+   * @return RetryWhenOnline
+   */
+  public static RetryWhenOnline create(@NonNull final Observable<Boolean> connectivity) {
+    return builder(connectivity).build();
+  }
+
+  /**
+   * Creates builder of retrying
+   *
+   * @param connectivity Observable emitting true, when the device is online,
+   * e.g. {@link ReactiveNetwork#observeInternetConnectivity()}
+   * @return Builder
+   */
+  public static Builder builder(@NonNull final Observable<Boolean> connectivity) {
+    Preconditions.checkNotNull(connectivity, "connectivity == null");
+    return new Builder(connectivity);
+  }
+
+  /**
+   * @param <T> type of the items
+   * @return transformer, which can be applied with Observable#compose(...)
+   */
+  public <T> ObservableTransformer<T, T> observable() {
+    return new ObservableTransformer<T, T>() {
+      @Override public ObservableSource<T> apply(final Observable<T> upstream) {
+        return upstream.retryWhen(
+            new Function<Observable<Throwable>, ObservableSource<Boolean>>() {
+              @Override public ObservableSource<Boolean> apply(
+                  final Observable<Throwable> errors) {
+                return retries(errors);
+              }
+            });
+      }
+    };
+  }
+
+  /**
+   * @param <T> type of the item
+   * @return transformer, which can be applied with Single#compose(...)
+   */
+  public <T> SingleTransformer<T, T> single() {
+    return new SingleTransformer<T, T>() {
+      @Override public SingleSource<T> apply(final Single<T> upstream) {
+        return upstream.retryWhen(new Function<Flowable<Throwable>, Publisher<Boolean>>() {
+          @Override public Publisher<Boolean> apply(final Flowable<Throwable> errors) {
+            return retries(errors.toObservable()).toFlowable(BackpressureStrategy.BUFFER);
+          }
+        });
+      }
+    };
+  }
+
+  /**
+   * @return transformer, which can be applied with Completable#compose(...)
+   */
+  public CompletableTransformer completable() {
+    return new CompletableTransformer() {
+      @Override public CompletableSource apply(final Completable upstream) {
+        return upstream.retryWhen(new Function<Flowable<Throwable>, Publisher<Boolean>>() {
+          @Override public Publisher<Boolean> apply(final Flowable<Throwable> errors) {
+            return retries(errors.toObservable()).toFlowable(BackpressureStrategy.BUFFER);
+          }
+        });
+      }
+    };
+  }
+
+  private Observable<Boolean> retries(final Observable<Throwable> errors) {
+    return Observable.defer(new Callable<ObservableSource<Boolean>>() {
+      @Override public ObservableSource<Boolean> call() {
+        // state of a single subscription, that's why it's created in defer(...)
+        final int[] attempt = { 0 };
+        return errors.concatMap(new Function<Throwable, ObservableSource<Boolean>>() {
+          @Override public ObservableSource<Boolean> apply(final Throwable throwable) {
+            attempt[0]++;
+            if (attempt[0] > maxRetries) {
+              return Observable.error(throwable);
+            }
+            return connectivity.filter(new Predicate<Boolean>() {
+              @Override public boolean test(final Boolean isOnline) {
+                return isOnline;
+              }
+            })
+                .take(1)
+                .takeUntil(disposal.<Boolean>toObservable())
+                .switchIfEmpty(Observable.<Boolean>error(throwable))
+                .delay(delayInMs(attempt[0]), TimeUnit.MILLISECONDS, scheduler);
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Stops observing connectivity. Retries waiting for connectivity pass their errors downstream
+   * and the next ones aren't made.
+   */
+  @Override public void dispose() {
+    disposal.onComplete();
+    final Disposable disposable = connection.getAndSet(Disposables.disposed());
+    if (disposable != null) {
+      disposable.dispose();
+    }
+  }
+
+  @Override public boolean isDisposed() {
+    return disposal.hasComplete();
+  }
+
+  long delayInMs(final int attempt) {
+    final long delay = Math.min(maxDelayInMs, delayInMs << Math.min(attempt - 1, 30));
+    final double randomFactor;
+    synchronized (random) {
+      randomFactor = random.nextDouble();
+    }
+    return (long) (delay * (1 - jitter * randomFactor));
+  }
+
+  public final static class Builder {
+    private final Observable<Boolean> connectivity; // NOPMD
+    private int maxRetries = 3; // NOPMD
+    private long delayInMs = 500; // NOPMD
+    private long maxDelayInMs = 30000; // NOPMD
+    private double jitter = 0.5; // NOPMD
+    private Scheduler scheduler = Schedulers.computation(); // NOPMD
+
+    private Builder(final Observable<Boolean> connectivity) {
+      this.connectivity = connectivity;
+    }
+
+    /**
+     * sets maximum number of retries of a single subscription
+     *
+     * @param maxRetries retry budget
+     * @return Builder
+     */
+    public Builder maxRetries(final int maxRetries) {
+      Preconditions.checkGreaterOrEqualToZero(maxRetries, "maxRetries is negative");
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    /**
+     * sets delay of the first retry, which is doubled with every next one
+     *
+     * @param delay of the first retry
+     * @param maxDelay maximum delay of the retry
+     * @param unit of the delays
+     * @return Builder
+     */
+    public Builder delay(final long delay, final long maxDelay, @NonNull final TimeUnit unit) {
+      Preconditions.checkNotNull(unit, "unit == null");
+      Preconditions.checkGreaterThanZero(delay, "delay is not a positive number");
+      if (maxDelay < delay) {
+        throw new IllegalArgumentException("maxDelay is shorter than delay");
+      }
+      this.delayInMs = unit.toMillis(delay);
+      this.maxDelayInMs = unit.toMillis(maxDelay);
+      return this;
+    }
+
+    /**
+     * sets part of the delay, which is randomized. For instance, 0.5 means that the delay is
+     * between 50% and 100% of its value, and 0 disables jitter.
+     *
+     * @param jitter value between 0 and 1
+     * @return Builder
+     */
+    public Builder jitter(final double jitter) {
+      if (jitter < 0 || jitter > 1) {
+        throw new IllegalArgumentException("jitter is not between 0 and 1");
+      }
+      this.jitter = jitter;
+      return this;
+    }
+
+    /**
+     * sets scheduler of the delays
+     *
+     * @param scheduler for delays
+     * @return Builder
+     */
+    public Builder scheduler(@NonNull final Scheduler scheduler) {
+      Preconditions.checkNotNull(scheduler, "scheduler == null");
+      this.scheduler = scheduler;
+      return this;
+    }
+
+    public RetryWhenOnline build() {
+      return new RetryWhenOnline(this);
+    }
+  }
+}
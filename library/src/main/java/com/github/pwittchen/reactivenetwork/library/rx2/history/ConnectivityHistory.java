@@ -0,0 +1,492 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.history;
+
+import android.net.NetworkInfo;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.functions.Consumer;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persistent history of Connectivity and Internet connectivity transitions stored in a fixed-size,
+ * memory-mapped ring file. Every record holds a sequence number, timestamp, packed Connectivity,
+ * result of the last Internet check and its round-trip time. When the file is full, the oldest
+ * records are overwritten.
+ *
+ * Recording reserves a slot together with the snapshot of the state with a single CAS, writes
+ * the record and publishes it by setting the sequence number of the slot, so writers never wait
+ * for each other and don't block the thread delivering events. Queries validate the sequence
+ * number of every slot they read, so they skip records, which are still written or were
+ * overwritten after the ring wrapped. Flushing to the disk is left to the system.
+ * Timestamps of the records never decrease, because queries search them with a coarse index
+ * holding the timestamp of the first record in every block.
+ */
+public final class ConnectivityHistory implements Closeable {
+  static final int BLOCK_SIZE = 64;
+  static final int RECORD_SIZE = 32;
+  private static final int MAGIC = 0x524e4832; // "RNH2"
+  private static final int OFFSET_MAGIC = 0;
+  private static final int OFFSET_CAPACITY = 4;
+  private static final int HEADER_SIZE = 16;
+  private static final byte INTERNET_UNKNOWN = 0;
+  private static final byte INTERNET_DISCONNECTED = 1;
+  private static final byte INTERNET_CONNECTED = 2;
+  // sequence number of a slot, which is written, committed slots hold their sequence + 1
+  private static final long WRITING = 0;
+  // fields of a slot in the memory, the record fields of an index entry are its first two
+  private static final int SLOT_FIELDS = 4;
+  private static final int INDEX_FIELDS = 2;
+  private static final int FIELD_SEQUENCE = 0;
+  private static final int FIELD_TIMESTAMP = 1;
+  private static final int FIELD_PACKED = 2;
+  private static final int FIELD_INTERNET = 3;
+
+  private final RandomAccessFile file;
+  private final MappedByteBuffer buffer;
+  private final int capacity;
+  // records and the index are read from the memory, because the mapped file has no ordering
+  // guarantees, which are needed to validate sequence numbers; the file is their persistent copy
+  private final AtomicLongArray slots;
+  private final AtomicLongArray index;
+  // latest state and the next free slot, so concurrent records are ordered like their slots
+  private final AtomicReference<Head> head;
+
+  private ConnectivityHistory(final RandomAccessFile file, final MappedByteBuffer buffer,
+      final int capacity) {
+    this.file = file;
+    this.buffer = buffer;
+    this.capacity = capacity;
+    this.slots = new AtomicLongArray(capacity * SLOT_FIELDS);
+    this.index = new AtomicLongArray(capacity / BLOCK_SIZE * INDEX_FIELDS);
+    final long count = load();
+    Record last = null;
+    for (long sequence = count - 1; last == null && sequence >= oldest(count); sequence--) {
+      last = read(sequence);
+    }
+    if (last == null) {
+      last = new Record(0, Connectivity.create().packed(), INTERNET_UNKNOWN, 0);
+    }
+    this.head = new AtomicReference<>(new Head(last, count));
+  }
+
+  /**
+   * Opens history stored in the given file or creates a new one. History is continued, when
+   * the file was created with the same capacity. Otherwise, it's cleared.
+   * This method makes I/O, so it shouldn't be called on the main thread.
+   *
+   * @param file file of the history
+   * @param capacity maximum number of records, rounded up to the multiple of 64
+   * @return ConnectivityHistory, which has to be closed when it's no longer used
+   * @throws IOException when the file cannot be mapped
+   */
+  public static ConnectivityHistory open(@NonNull final File file, final int capacity)
+      throws IOException {
+    Preconditions.checkNotNull(file, "file == null");
+    Preconditions.checkGreaterThanZero(capacity, "capacity is not positive");
+    final int blocks = (capacity + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    final int roundedCapacity = blocks * BLOCK_SIZE;
+    final long size = HEADER_SIZE + (long) roundedCapacity * RECORD_SIZE;
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("capacity is too big");
+    }
+
+    final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      final boolean isContinued = randomAccessFile.length() == size;
+      randomAccessFile.setLength(size);
+      final MappedByteBuffer buffer =
+          randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+      if (!isContinued
+          || buffer.getInt(OFFSET_MAGIC) != MAGIC
+          || buffer.getInt(OFFSET_CAPACITY) != roundedCapacity) {
+        for (int offset = HEADER_SIZE; offset < size; offset += RECORD_SIZE) {
+          buffer.putLong(offset, WRITING);
+        }
+        buffer.putInt(OFFSET_MAGIC, MAGIC);
+        buffer.putInt(OFFSET_CAPACITY, roundedCapacity);
+      }
+      return new ConnectivityHistory(randomAccessFile, buffer, roundedCapacity);
+    } catch (IOException | RuntimeException exception) {
+      randomAccessFile.close();
+      throw exception;
+    }
+  }
+
+  // copies committed records of the file to the memory and returns the number of recorded ones
+  private long load() {
+    long count = 0;
+    for (int slot = 0; slot < capacity; slot++) {
+      final int offset = HEADER_SIZE + slot * RECORD_SIZE;
+      final long committed = buffer.getLong(offset);
+      if (committed <= WRITING || (committed - 1) % capacity != slot) {
+        continue;
+      }
+      final Record record = new Record(buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+          buffer.get(offset + 28), buffer.getInt(offset + 24));
+      publish(committed - 1, record);
+      count = Math.max(count, committed);
+    }
+    return count;
+  }
+
+  /**
+   * Records Connectivity with the current time
+   *
+   * @param connectivity current Connectivity
+   */
+  public void record(@NonNull final Connectivity connectivity) {
+    record(connectivity, System.currentTimeMillis());
+  }
+
+  void record(@NonNull final Connectivity connectivity, final long timestampInMs) {
+    Preconditions.checkNotNull(connectivity, "connectivity == null");
+    final long packed = connectivity.packed();
+    Head current;
+    Head next;
+    do {
+      current = head.get();
+      final Record last = current.last;
+      next = current.next(new Record(timestampInMs, packed, last.internet, last.rttInMs));
+    } while (!head.compareAndSet(current, next));
+    append(current.sequence, next.last);
+  }
+
+  /**
+   * Records result of the Internet connectivity check with the current time
+   *
+   * @param isConnected result of the check
+   * @param rttInMs round-trip time of the check in milliseconds or 0 if it's unknown
+   */
+  public void recordInternetConnectivity(final boolean isConnected, final int rttInMs) {
+    recordInternetConnectivity(isConnected, rttInMs, System.currentTimeMillis());
+  }
+
+  void recordInternetConnectivity(final boolean isConnected, final int rttInMs,
+      final long timestampInMs) {
+    Preconditions.checkGreaterOrEqualToZero(rttInMs, "rttInMs is negative");
+    final byte internet = isConnected ? INTERNET_CONNECTED : INTERNET_DISCONNECTED;
+    Head current;
+    Head next;
+    do {
+      current = head.get();
+      next = current.next(new Record(timestampInMs, current.last.packed, internet, rttInMs));
+    } while (!head.compareAndSet(current, next));
+    append(current.sequence, next.last);
+  }
+
+  /**
+   * Records every Connectivity emitted by the upstream
+   *
+   * @return transformer, which can be applied with Observable#compose(...)
+   */
+  public ObservableTransformer<Connectivity, Connectivity> recordConnectivity() {
+    return new ObservableTransformer<Connectivity, Connectivity>() {
+      @Override public ObservableSource<Connectivity> apply(
+          final Observable<Connectivity> upstream) {
+        return upstream.doOnNext(new Consumer<Connectivity>() {
+          @Override public void accept(final Connectivity connectivity) {
+            record(connectivity);
+          }
+        });
+      }
+    };
+  }
+
+  /**
+   * Records every result of the Internet connectivity check emitted by the upstream.
+   * Round-trip time is not known in this case, so it's recorded as 0.
+   *
+   * @return transformer, which can be applied with Observable#compose(...)
+   */
+  public ObservableTransformer<Boolean, Boolean> recordInternetConnectivity() {
+    return new ObservableTransformer<Boolean, Boolean>() {
+      @Override public ObservableSource<Boolean> apply(final Observable<Boolean> upstream) {
+        return upstream.doOnNext(new Consumer<Boolean>() {
+          @Override public void accept(final Boolean isConnected) {
+            recordInternetConnectivity(isConnected, 0);
+          }
+        });
+      }
+    };
+  }
+
+  private void append(final long sequence, final Record record) {
+    publish(sequence, record);
+    final int offset = HEADER_SIZE + (int) (sequence % capacity) * RECORD_SIZE;
+    buffer.putLong(offset, WRITING);
+    buffer.putLong(offset + 8, record.timestampInMs);
+    buffer.putLong(offset + 16, record.packed);
+    buffer.putInt(offset + 24, record.rttInMs);
+    buffer.put(offset + 28, record.internet);
+    buffer.putLong(offset, sequence + 1);
+  }
+
+  private void publish(final long sequence, final Record record) {
+    // a reader, which sees the sequence number before and after reading the fields, has read
+    // fields of that sequence, because all of the accesses are volatile
+    final int slot = (int) (sequence % capacity) * SLOT_FIELDS;
+    slots.set(slot + FIELD_SEQUENCE, WRITING);
+    slots.set(slot + FIELD_TIMESTAMP, record.timestampInMs);
+    slots.set(slot + FIELD_PACKED, record.packed);
+    slots.set(slot + FIELD_INTERNET, (long) record.rttInMs << 8 | record.internet);
+    slots.set(slot + FIELD_SEQUENCE, sequence + 1);
+    if (sequence % BLOCK_SIZE == 0) {
+      final int entry = blockOf(sequence) * INDEX_FIELDS;
+      index.set(entry + FIELD_SEQUENCE, WRITING);
+      index.set(entry + FIELD_TIMESTAMP, record.timestampInMs);
+      index.set(entry + FIELD_SEQUENCE, sequence + 1);
+    }
+  }
+
+  /**
+   * @return number of records available in the history
+   */
+  public int size() {
+    return (int) Math.min(head.get().sequence, capacity);
+  }
+
+  /**
+   * Finds the last record made at the given time or before it
+   *
+   * @param timeInMs time in milliseconds since the epoch
+   * @return record or null if the history doesn't reach the given time
+   */
+  @Nullable public Record stateAt(final long timeInMs) {
+    final long sequence = find(timeInMs, head.get().sequence);
+    return sequence < 0 ? null : read(sequence);
+  }
+
+  /**
+   * Sums time between the given moments, when the connection was up. See {@link Record#isUp()}.
+   * Time before the first available record isn't counted.
+   *
+   * @param fromInMs beginning of the period in milliseconds since the epoch
+   * @param toInMs end of the period in milliseconds since the epoch
+   * @return uptime in milliseconds
+   */
+  public long uptime(final long fromInMs, final long toInMs) {
+    if (toInMs < fromInMs) {
+      throw new IllegalArgumentException("toInMs is earlier than fromInMs");
+    }
+    final long count = head.get().sequence;
+    long sequence = find(fromInMs, count);
+    if (sequence < 0) {
+      sequence = oldest(count);
+    }
+
+    long uptime = 0;
+    Record previous = null;
+    for (; sequence < count; sequence++) {
+      final Record record = read(sequence);
+      if (record == null) {
+        continue;
+      }
+      if (previous != null) {
+        uptime += uptime(previous, record.timestampInMs, fromInMs, toInMs);
+      }
+      if (record.timestampInMs >= toInMs) {
+        return uptime;
+      }
+      previous = record;
+    }
+    return previous == null ? uptime : uptime + uptime(previous, toInMs, fromInMs, toInMs);
+  }
+
+  private static long uptime(final Record record, final long endInMs, final long fromInMs,
+      final long toInMs) {
+    final long start = Math.max(fromInMs, record.timestampInMs);
+    final long end = Math.min(toInMs, endInMs);
+    return end > start && record.isUp() ? end - start : 0;
+  }
+
+  private long find(final long timeInMs, final long count) {
+    final long oldest = oldest(count);
+
+    // binary search of blocks with the coarse index; entries of blocks, which are overwritten,
+    // are older than the ring and entries of blocks, which are still written, are newer
+    long low = (oldest + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    long high = (count - 1) / BLOCK_SIZE;
+    long start = oldest;
+    while (low <= high) {
+      final long middle = (low + high) >>> 1;
+      final long blockStart = middle * BLOCK_SIZE;
+      final int entry = blockOf(blockStart) * INDEX_FIELDS;
+      final long before = index.get(entry + FIELD_SEQUENCE);
+      final long timestampInMs = index.get(entry + FIELD_TIMESTAMP);
+      final long after = index.get(entry + FIELD_SEQUENCE);
+      if (before == blockStart + 1 && after == before) {
+        if (timestampInMs <= timeInMs) {
+          start = blockStart;
+          low = middle + 1;
+        } else {
+          high = middle - 1;
+        }
+      } else if (after > blockStart + 1) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+
+    long found = -1;
+    for (long sequence = start; sequence < count; sequence++) {
+      final Record record = read(sequence);
+      if (record == null) {
+        continue;
+      }
+      if (record.timestampInMs > timeInMs) {
+        break;
+      }
+      found = sequence;
+    }
+    return found;
+  }
+
+  private long oldest(final long count) {
+    return Math.max(0, count - capacity);
+  }
+
+  private int blockOf(final long sequence) {
+    return (int) (sequence % capacity) / BLOCK_SIZE;
+  }
+
+  @Nullable private Record read(final long sequence) {
+    final int slot = (int) (sequence % capacity) * SLOT_FIELDS;
+    if (slots.get(slot + FIELD_SEQUENCE) != sequence + 1) {
+      return null;
+    }
+    final long timestampInMs = slots.get(slot + FIELD_TIMESTAMP);
+    final long packed = slots.get(slot + FIELD_PACKED);
+    final long internet = slots.get(slot + FIELD_INTERNET);
+    if (slots.get(slot + FIELD_SEQUENCE) != sequence + 1) {
+      return null;
+    }
+    return new Record(timestampInMs, packed, (byte) internet, (int) (internet >>> 8));
+  }
+
+  private static boolean isUp(final long packed, final byte internet) {
+    final boolean isConnected =
+        Connectivity.packed(packed).build().state() == NetworkInfo.State.CONNECTED;
+    return isConnected && internet != INTERNET_DISCONNECTED;
+  }
+
+  /**
+   * Closes the file. History cannot be recorded or queried after that.
+   *
+   * @throws IOException when the file cannot be closed
+   */
+  @Override public void close() throws IOException {
+    buffer.force();
+    file.close();
+  }
+
+  private static final class Head {
+    private final Record last;
+    private final long sequence;
+
+    Head(final Record last, final long sequence) {
+      this.last = last;
+      this.sequence = sequence;
+    }
+
+    Head next(final Record record) {
+      // timestamps of racing records are clamped, so they don't decrease in the order of slots
+      final Record ordered = record.timestampInMs >= last.timestampInMs ? record
+          : new Record(last.timestampInMs, record.packed, record.internet, record.rttInMs);
+      return new Head(ordered, sequence + 1);
+    }
+  }
+
+  /**
+   * Single record of the history
+   */
+  public static final class Record {
+    private final long timestampInMs;
+    private final long packed;
+    private final byte internet;
+    private final int rttInMs;
+
+    Record(final long timestampInMs, final long packed, final byte internet, final int rttInMs) {
+      this.timestampInMs = timestampInMs;
+      this.packed = packed;
+      this.internet = internet;
+      this.rttInMs = rttInMs;
+    }
+
+    public long timestampInMs() {
+      return timestampInMs;
+    }
+
+    public Connectivity connectivity() {
+      return Connectivity.packed(packed).build();
+    }
+
+    /**
+     * @return true if at least one Internet connectivity check was recorded before this record
+     */
+    public boolean hasInternetConnectivity() {
+      return internet != INTERNET_UNKNOWN;
+    }
+
+    /**
+     * @return result of the last Internet connectivity check or false if there wasn't any
+     */
+    public boolean isConnectedToInternet() {
+      return internet == INTERNET_CONNECTED;
+    }
+
+    /**
+     * @return round-trip time of the last Internet connectivity check in milliseconds
+     */
+    public int rttInMs() {
+      return rttInMs;
+    }
+
+    /**
+     * @return true if Connectivity was connected and the last Internet connectivity check,
+     * if there was any, didn't fail
+     */
+    public boolean isUp() {
+      return ConnectivityHistory.isUp(packed, internet);
+    }
+
+    @Override public String toString() {
+      return "Record{"
+          + "timestampInMs="
+          + timestampInMs
+          + ", connectivity="
+          + connectivity()
+          + ", internet="
+          + internet
+          + ", rttInMs="
+          + rttInMs
+          + '}';
+    }
+  }
+}
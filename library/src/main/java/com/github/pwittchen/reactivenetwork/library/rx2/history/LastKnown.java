@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.history;
+
+/**
+ * Value known at the given time. Stale value was persisted before and is emitted until the live
+ * one arrives.
+ *
+ * @param <T> type of the value
+ */
+public final class LastKnown<T> {
+  private final T value;
+  private final long timestampInMs;
+  private final boolean stale;
+
+  LastKnown(final T value, final long timestampInMs, final boolean stale) {
+    this.value = value;
+    this.timestampInMs = timestampInMs;
+    this.stale = stale;
+  }
+
+  public T value() {
+    return value;
+  }
+
+  /**
+   * @return time in milliseconds since the epoch, when the value was observed
+   */
+  public long timestampInMs() {
+    return timestampInMs;
+  }
+
+  /**
+   * @return true if the value was persisted before and may not be valid anymore
+   */
+  public boolean isStale() {
+    return stale;
+  }
+
+  @Override public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    LastKnown<?> that = (LastKnown<?>) o;
+    return timestampInMs == that.timestampInMs && stale == that.stale && value.equals(that.value);
+  }
+
+  @Override public int hashCode() {
+    int result = value.hashCode();
+    result = 31 * result + (int) (timestampInMs ^ (timestampInMs >>> 32));
+    return 31 * result + (stale ? 1 : 0);
+  }
+
+  @Override public String toString() {
+    return "LastKnown{"
+        + "value="
+        + value
+        + ", timestampInMs="
+        + timestampInMs
+        + ", stale="
+        + stale
+        + '}';
+  }
+}
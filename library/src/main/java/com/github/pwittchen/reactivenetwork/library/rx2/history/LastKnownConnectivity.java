@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.history;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Last known Connectivity, Internet connectivity and latency of the endpoint persisted in a small
+ * file. Transformers of this class emit persisted values as stale immediately after subscription,
+ * so the app doesn't wait for the first check on a cold start, and then live values, which are
+ * persisted in the background.
+ *
+ * File is read once, on the first subscription, so the transformed streams should be subscribed
+ * off the main thread, like the streams of network and Internet connectivity.
+ */
+public final class LastKnownConnectivity {
+  private static final int MAGIC = 0x524e4c31; // "RNL1"
+  private static final byte UNKNOWN = 0;
+  private static final byte DISCONNECTED = 1;
+  private static final byte CONNECTED = 2;
+  private static final int LATENCY_SMOOTHING = 8;
+
+  private final File file;
+  private final Scheduler scheduler;
+  private final Object lock = new Object();
+  private boolean isLoaded;
+  private boolean isWriteScheduled;
+  private long packed;
+  private long connectivityTimestampInMs;
+  private byte internet = UNKNOWN;
+  private long internetTimestampInMs;
+  private int latencyInMs;
+
+  LastKnownConnectivity(final File file, final Scheduler scheduler) {
+    this.file = file;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Creates last known connectivity persisted in the given file
+   *
+   * @param file file of the last known connectivity, which doesn't have to exist
+   * @return LastKnownConnectivity
+   */
+  public static LastKnownConnectivity create(@NonNull final File file) {
+    Preconditions.checkNotNull(file, "file == null");
+    return new LastKnownConnectivity(file, WriteScheduler.INSTANCE);
+  }
+
+  /**
+   * Emits persisted Connectivity as stale, when it's available, and then Connectivity emitted by
+   * the upstream, which is persisted
+   *
+   * @return transformer, which can be applied with Observable#compose(...)
+   */
+  public ObservableTransformer<Connectivity, LastKnown<Connectivity>> connectivity() {
+    return new ObservableTransformer<Connectivity, LastKnown<Connectivity>>() {
+      @Override public ObservableSource<LastKnown<Connectivity>> apply(
+          final Observable<Connectivity> upstream) {
+        return Observable.defer(new Callable<ObservableSource<LastKnown<Connectivity>>>() {
+          @Override public ObservableSource<LastKnown<Connectivity>> call() {
+            final Observable<LastKnown<Connectivity>> live =
+                upstream.map(new Function<Connectivity, LastKnown<Connectivity>>() {
+                  @Override public LastKnown<Connectivity> apply(
+                      final Connectivity connectivity) {
+                    final long timestampInMs = System.currentTimeMillis();
+                    synchronized (lock) {
+                      load();
+                      packed = connectivity.packed();
+                      connectivityTimestampInMs = timestampInMs;
+                    }
+                    save();
+                    return new LastKnown<>(connectivity, timestampInMs, false);
+                  }
+                });
+            final LastKnown<Connectivity> stale = getStaleConnectivity();
+            return stale == null ? live : live.startWith(stale);
+          }
+        });
+      }
+    };
+  }
+
+  /**
+   * Emits persisted Internet connectivity as stale, when it's available, and then Internet
+   * connectivity emitted by the upstream, which is persisted
+   *
+   * @return transformer, which can be applied with Observable#compose(...)
+   */
+  public ObservableTransformer<Boolean, LastKnown<Boolean>> internetConnectivity() {
+    return new ObservableTransformer<Boolean, LastKnown<Boolean>>() {
+      @Override public ObservableSource<LastKnown<Boolean>> apply(
+          final Observable<Boolean> upstream) {
+        return Observable.defer(new Callable<ObservableSource<LastKnown<Boolean>>>() {
+          @Override public ObservableSource<LastKnown<Boolean>> call() {
+            final Observable<LastKnown<Boolean>> live =
+                upstream.map(new Function<Boolean, LastKnown<Boolean>>() {
+                  @Override public LastKnown<Boolean> apply(final Boolean isConnected) {
+                    final long timestampInMs = System.currentTimeMillis();
+                    synchronized (lock) {
+                      load();
+                      internet = isConnected ? CONNECTED : DISCONNECTED;
+                      internetTimestampInMs = timestampInMs;
+                    }
+                    save();
+                    return new LastKnown<>(isConnected, timestampInMs, false);
+                  }
+                });
+            final LastKnown<Boolean> stale = getStaleInternetConnectivity();
+            return stale == null ? live : live.startWith(stale);
+          }
+        });
+      }
+    };
+  }
+
+  /**
+   * Records latency of the endpoint, which is smoothed with the previous values and persisted
+   *
+   * @param rttInMs round-trip time of a request to the endpoint in milliseconds
+   */
+  public void recordLatency(final int rttInMs) {
+    Preconditions.checkGreaterOrEqualToZero(rttInMs, "rttInMs is negative");
+    synchronized (lock) {
+      load();
+      latencyInMs = latencyInMs == 0
+          ? rttInMs
+          : latencyInMs + (rttInMs - latencyInMs) / LATENCY_SMOOTHING;
+    }
+    save();
+  }
+
+  /**
+   * @return smoothed latency of the endpoint in milliseconds or 0 if it's unknown
+   */
+  public int latencyInMs() {
+    synchronized (lock) {
+      load();
+      return latencyInMs;
+    }
+  }
+
+  @Nullable private LastKnown<Connectivity> getStaleConnectivity() {
+    synchronized (lock) {
+      load();
+      if (connectivityTimestampInMs == 0) {
+        return null;
+      }
+      return new LastKnown<>(Connectivity.packed(packed).build(), connectivityTimestampInMs, true);
+    }
+  }
+
+  @Nullable private LastKnown<Boolean> getStaleInternetConnectivity() {
+    synchronized (lock) {
+      load();
+      if (internet == UNKNOWN) {
+        return null;
+      }
+      return new LastKnown<>(internet == CONNECTED, internetTimestampInMs, true);
+    }
+  }
+
+  private void load() {
+    if (isLoaded) {
+      return;
+    }
+    isLoaded = true;
+    if (!file.exists()) {
+      return;
+    }
+    try {
+      final DataInputStream input = new DataInputStream(new FileInputStream(file));
+      try {
+        if (input.readInt() == MAGIC) {
+          packed = input.readLong();
+          connectivityTimestampInMs = input.readLong();
+          internet = input.readByte();
+          internetTimestampInMs = input.readLong();
+          latencyInMs = input.readInt();
+        }
+      } finally {
+        input.close();
+      }
+    } catch (IOException exception) {
+      Log.e(ReactiveNetwork.LOG_TAG, "could not read last known connectivity", exception);
+    }
+  }
+
+  private void save() {
+    // writes are made one after another on a single thread, so the last state always wins,
+    // and state changed before the scheduled write is made is saved with it
+    synchronized (lock) {
+      if (isWriteScheduled) {
+        return;
+      }
+      isWriteScheduled = true;
+    }
+    scheduler.scheduleDirect(new Runnable() {
+      @Override public void run() {
+        write();
+      }
+    });
+  }
+
+  private void write() {
+    final long packed;
+    final long connectivityTimestampInMs;
+    final byte internet;
+    final long internetTimestampInMs;
+    final int latencyInMs;
+    synchronized (lock) {
+      isWriteScheduled = false;
+      packed = this.packed;
+      connectivityTimestampInMs = this.connectivityTimestampInMs;
+      internet = this.internet;
+      internetTimestampInMs = this.internetTimestampInMs;
+      latencyInMs = this.latencyInMs;
+    }
+
+    final File temporaryFile = new File(file.getPath() + ".tmp");
+    try {
+      final DataOutputStream output = new DataOutputStream(new FileOutputStream(temporaryFile));
+      try {
+        output.writeInt(MAGIC);
+        output.writeLong(packed);
+        output.writeLong(connectivityTimestampInMs);
+        output.writeByte(internet);
+        output.writeLong(internetTimestampInMs);
+        output.writeInt(latencyInMs);
+      } finally {
+        output.close();
+      }
+      if (!temporaryFile.renameTo(file)) {
+        throw new IOException("could not rename " + temporaryFile);
+      }
+    } catch (IOException exception) {
+      Log.e(ReactiveNetwork.LOG_TAG, "could not write last known connectivity", exception);
+    }
+  }
+
+  private static final class WriteScheduler {
+    // Schedulers.single() is shared with the app, so blocking I/O isn't made on it
+    static final Scheduler INSTANCE = Schedulers.from(Executors.newSingleThreadExecutor(
+        new ThreadFactory() {
+          @Override public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "ReactiveNetwork-last-known");
+            thread.setDaemon(true);
+            return thread;
+          }
+        }));
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import io.reactivex.Flowable;
+
+/**
+ * Internet observing strategy, which can observe connectivity with the Internet as a Flowable.
+ * Connectivity is checked only when there's demand of the downstream, so a slow consumer doesn't
+ * cause unbounded buffering and doesn't make unnecessary checks.
+ */
+public interface FlowableInternetObservingStrategy extends InternetObservingStrategy {
+  /**
+   * Observes connectivity with the Internet by checking it in a given time interval, when there's
+   * demand of the downstream. Ticks of the interval without demand are dropped.
+   *
+   * @param initialIntervalInMs in milliseconds determining the delay of the first connectivity
+   * check
+   * @param intervalInMs in milliseconds determining how often we want to check connectivity
+   * @param host for checking Internet connectivity
+   * @param port for checking Internet connectivity
+   * @param timeoutInMs for pinging remote host in milliseconds
+   * @param httpResponse expected HTTP response code indicating that connection is established
+   * @param errorHandler for handling errors while checking connectivity
+   * @return RxJava Flowable with Boolean - true, when we have connection with host and false if
+   * not
+   */
+  Flowable<Boolean> observeInternetConnectivityFlowable(final int initialIntervalInMs,
+      final int intervalInMs, final String host, final int port, final int timeoutInMs,
+      final int httpResponse, final ErrorHandler errorHandler);
+}
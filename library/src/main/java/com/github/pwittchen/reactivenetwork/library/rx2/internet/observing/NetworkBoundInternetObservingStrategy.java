@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing;
+
+import android.net.Network;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import io.reactivex.Single;
+
+/**
+ * Internet observing strategy, which can check connectivity with the Internet through a given
+ * Network (e.g. Wi-Fi or mobile network) instead of the default one. Available for Android
+ * Lollipop (API 21) or higher.
+ */
+public interface NetworkBoundInternetObservingStrategy extends InternetObservingStrategy {
+  /**
+   * Checks connectivity with the Internet through the given network once
+   *
+   * @param network through which the connection is opened
+   * @param host for checking Internet connectivity
+   * @param port for checking Internet connectivity
+   * @param timeoutInMs for pinging remote host in milliseconds
+   * @param httpResponse expected HTTP response code indicating that connection is established
+   * @param errorHandler for handling errors while checking connectivity
+   * @return RxJava Single with Boolean - true, when we have connection with host through the given
+   * network and false if not
+   */
+  Single<Boolean> checkInternetConnectivity(final Network network, final String host,
+      final int port, final int timeoutInMs, final int httpResponse,
+      final ErrorHandler errorHandler);
+}
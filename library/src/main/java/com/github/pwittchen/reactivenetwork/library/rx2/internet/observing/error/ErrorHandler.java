@@ -15,6 +15,10 @@
  */
 package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error;
 
-public interface ErrorHandler {
-  void handleError(final Exception exception, final String message);
+/**
+ * Error handler of the RxJava strategies. It can be passed to the probes of the core
+ * as {@link com.github.pwittchen.reactivenetwork.core.ErrorHandler}, too.
+ */
+public interface ErrorHandler extends com.github.pwittchen.reactivenetwork.core.ErrorHandler {
+  @Override void handleError(final Exception exception, final String message);
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import com.github.pwittchen.reactivenetwork.library.rx2.AppForeground;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+
+/**
+ * Strategy, which pauses observing of the given strategy while the application is in the
+ * background, i.e. none of its activities is started, and checks connectivity immediately after
+ * it returns to the foreground. The last value is kept while observing is paused.
+ * Started activities are tracked since the strategy is created, see {@link AppForeground}.
+ */
+@Open public class ForegroundInternetObservingStrategy implements InternetObservingStrategy {
+  private final Context context;
+  private final InternetObservingStrategy strategy;
+
+  /**
+   * Creates strategy
+   *
+   * @param context Context of the activity or an application
+   * @param strategy strategy, which is paused in the background
+   */
+  public ForegroundInternetObservingStrategy(@NonNull final Context context,
+      @NonNull final InternetObservingStrategy strategy) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkNotNull(strategy, "strategy == null");
+    final Context applicationContext = context.getApplicationContext();
+    this.context = applicationContext != null ? applicationContext : context;
+    this.strategy = strategy;
+    AppForeground.init(this.context);
+  }
+
+  @Override public String getDefaultPingHost() {
+    return strategy.getDefaultPingHost();
+  }
+
+  @Override public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+      final int intervalInMs, final String host, final int port, final int timeoutInMs,
+      final int httpResponse, final ErrorHandler errorHandler) {
+    final Observable<Boolean> pauses = AppForeground.observe(context)
+        .map(new Function<Boolean, Boolean>() {
+          @Override public Boolean apply(final Boolean isInForeground) {
+            return !isInForeground;
+          }
+        });
+    return PausedInternetObserving.observe(pauses, strategy,
+        initialIntervalInMs, intervalInMs, host, port, timeoutInMs, httpResponse, errorHandler);
+  }
+
+  @Override public Single<Boolean> checkInternetConnectivity(final String host, final int port,
+      final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+    return strategy.checkInternetConnectivity(host, port, timeoutInMs, httpResponse,
+        errorHandler);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import com.github.pwittchen.reactivenetwork.library.rx2.DeviceIdleMode;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+/**
+ * Strategy, which pauses observing of the given strategy while the device is in idle (Doze) mode,
+ * when checks would fail anyway, and checks connectivity immediately after leaving it.
+ * The last value is kept while observing is paused.
+ */
+@Open public class IdleAwareInternetObservingStrategy implements InternetObservingStrategy {
+  private final Context context;
+  private final InternetObservingStrategy strategy;
+
+  /**
+   * Creates strategy
+   *
+   * @param context Context of the activity or an application
+   * @param strategy strategy, which is paused in idle mode
+   */
+  public IdleAwareInternetObservingStrategy(@NonNull final Context context,
+      @NonNull final InternetObservingStrategy strategy) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkNotNull(strategy, "strategy == null");
+    final Context applicationContext = context.getApplicationContext();
+    this.context = applicationContext != null ? applicationContext : context;
+    this.strategy = strategy;
+  }
+
+  @Override public String getDefaultPingHost() {
+    return strategy.getDefaultPingHost();
+  }
+
+  @Override public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+      final int intervalInMs, final String host, final int port, final int timeoutInMs,
+      final int httpResponse, final ErrorHandler errorHandler) {
+    return PausedInternetObserving.observe(DeviceIdleMode.observe(context), strategy,
+        initialIntervalInMs, intervalInMs, host, port, timeoutInMs, httpResponse, errorHandler);
+  }
+
+  @Override public Single<Boolean> checkInternetConnectivity(final String host, final int port,
+      final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+    return strategy.checkInternetConnectivity(host, port, timeoutInMs, httpResponse,
+        errorHandler);
+  }
+}
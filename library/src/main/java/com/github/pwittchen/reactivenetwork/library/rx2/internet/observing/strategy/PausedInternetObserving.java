@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
+
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Function;
+import java.util.concurrent.Callable;
+
+/**
+ * Observing of Internet connectivity, which is stopped while it's paused and started again
+ * with an immediate check, when it's resumed. The last value is kept while it's paused.
+ */
+final class PausedInternetObserving {
+
+  private PausedInternetObserving() {
+  }
+
+  static Observable<Boolean> observe(final Observable<Boolean> pauses,
+      final InternetObservingStrategy strategy, final int initialIntervalInMs,
+      final int intervalInMs, final String host, final int port, final int timeoutInMs,
+      final int httpResponse, final ErrorHandler errorHandler) {
+    return Observable.defer(new Callable<ObservableSource<Boolean>>() {
+      @Override public ObservableSource<Boolean> call() {
+        // state of a single subscription, that's why it's created in defer(...)
+        final boolean[] isFirstCheck = { true };
+        return pauses.switchMap(new Function<Boolean, ObservableSource<Boolean>>() {
+          @Override public ObservableSource<Boolean> apply(final Boolean isPaused) {
+            if (isPaused) {
+              return Observable.empty();
+            }
+            final int initialInterval = isFirstCheck[0] ? initialIntervalInMs : 0;
+            isFirstCheck[0] = false;
+            return strategy.observeInternetConnectivity(initialInterval, intervalInMs, host, port,
+                timeoutInMs, httpResponse, errorHandler);
+          }
+        });
+      }
+    }).distinctUntilChanged();
+  }
+}
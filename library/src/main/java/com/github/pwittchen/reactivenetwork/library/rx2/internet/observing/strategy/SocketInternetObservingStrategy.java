@@ -15,10 +15,15 @@
  */
 package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
 
+import android.annotation.TargetApi;
+import android.net.Network;
+import com.github.pwittchen.reactivenetwork.core.SocketProbe;
 import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
-import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.FlowableInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.NetworkBoundInternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
 import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.SingleEmitter;
@@ -27,22 +32,23 @@ import io.reactivex.annotations.NonNull;
 import io.reactivex.functions.Function;
 import io.reactivex.schedulers.Schedulers;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.UnknownHostException;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Socket strategy for monitoring connectivity with the Internet.
  * It monitors Internet connectivity via opening socket connection with the remote host.
+ * Probing itself is done by {@link SocketProbe}, which doesn't depend on RxJava.
  */
-@Open public class SocketInternetObservingStrategy implements InternetObservingStrategy {
-  private static final String EMPTY_STRING = "";
-  private static final String DEFAULT_HOST = "www.google.com";
-  private static final String HTTP_PROTOCOL = "http://";
-  private static final String HTTPS_PROTOCOL = "https://";
+@Open public class SocketInternetObservingStrategy
+    implements NetworkBoundInternetObservingStrategy, FlowableInternetObservingStrategy {
+  private final Probe probe = new Probe();
 
   @Override public String getDefaultPingHost() {
-    return DEFAULT_HOST;
+    return probe.getDefaultPingHost();
   }
 
   @Override public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
@@ -63,6 +69,25 @@ import java.util.concurrent.TimeUnit;
     }).distinctUntilChanged();
   }
 
+  @Override public Flowable<Boolean> observeInternetConnectivityFlowable(
+      final int initialIntervalInMs, final int intervalInMs, final String host, final int port,
+      final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+    Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+        "initialIntervalInMs is not a positive number");
+    Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+    checkGeneralPreconditions(host, port, timeoutInMs, errorHandler);
+
+    final String adjustedHost = adjustHost(host);
+
+    // ticks without demand are dropped, so host is pinged only when the value can be delivered
+    return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+        Schedulers.io()).onBackpressureDrop().map(new Function<Long, Boolean>() {
+      @Override public Boolean apply(@NonNull Long tick) {
+        return isConnected(adjustedHost, port, timeoutInMs, errorHandler);
+      }
+    }).distinctUntilChanged();
+  }
+
   @Override public Single<Boolean> checkInternetConnectivity(final String host, final int port,
       final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
     checkGeneralPreconditions(host, port, timeoutInMs, errorHandler);
@@ -74,18 +99,20 @@ import java.util.concurrent.TimeUnit;
     });
   }
 
-  /**
-   * adjusts host to needs of SocketInternetObservingStrategy
-   *
-   * @return transformed host
-   */
-  protected String adjustHost(final String host) {
-    if (host.startsWith(HTTP_PROTOCOL)) {
-      return host.replace(HTTP_PROTOCOL, EMPTY_STRING);
-    } else if (host.startsWith(HTTPS_PROTOCOL)) {
-      return host.replace(HTTPS_PROTOCOL, EMPTY_STRING);
-    }
-    return host;
+  @TargetApi(21)
+  @Override public Single<Boolean> checkInternetConnectivity(final Network network,
+      final String host, final int port, final int timeoutInMs, final int httpResponse,
+      final ErrorHandler errorHandler) {
+    Preconditions.checkNotNull(network, "network is null");
+    checkGeneralPreconditions(host, port, timeoutInMs, errorHandler);
+
+    final String adjustedHost = adjustHost(host);
+
+    return Single.create(new SingleOnSubscribe<Boolean>() {
+      @Override public void subscribe(@NonNull SingleEmitter<Boolean> emitter) throws Exception {
+        emitter.onSuccess(isConnected(network, adjustedHost, port, timeoutInMs, errorHandler));
+      }
+    });
   }
 
   private void checkGeneralPreconditions(String host, int port, int timeoutInMs,
@@ -96,6 +123,15 @@ import java.util.concurrent.TimeUnit;
     Preconditions.checkNotNull(errorHandler, "errorHandler is null");
   }
 
+  /**
+   * adjusts host to needs of SocketInternetObservingStrategy
+   *
+   * @return transformed host
+   */
+  protected String adjustHost(final String host) {
+    return probe.adjustHost(host);
+  }
+
   /**
    * checks if device is connected to given host at given port
    *
@@ -123,19 +159,47 @@ import java.util.concurrent.TimeUnit;
    */
   protected boolean isConnected(final Socket socket, final String host, final int port,
       final int timeoutInMs, final ErrorHandler errorHandler) {
-    boolean isConnected;
+    return probe.connect(socket, new InetSocketAddress(host, port), timeoutInMs, errorHandler);
+  }
+
+  /**
+   * checks if device is connected to given host at given port through the given network.
+   * Host is resolved through the network as well, so DNS of the default network isn't used.
+   *
+   * @param network through which the socket is connected
+   * @param host to connect
+   * @param port to connect
+   * @param timeoutInMs connection timeout
+   * @param errorHandler error handler for socket connection
+   * @return boolean true if connected and false if not
+   */
+  @TargetApi(21)
+  protected boolean isConnected(final Network network, final String host, final int port,
+      final int timeoutInMs, final ErrorHandler errorHandler) {
+    final InetAddress address;
     try {
-      socket.connect(new InetSocketAddress(host, port), timeoutInMs);
-      isConnected = socket.isConnected();
-    } catch (IOException e) {
-      isConnected = Boolean.FALSE;
-    } finally {
-      try {
-        socket.close();
-      } catch (IOException exception) {
-        errorHandler.handleError(exception, "Could not close the socket");
-      }
+      address = network.getByName(host);
+    } catch (UnknownHostException exception) {
+      return false;
+    }
+
+    final Socket socket;
+    try {
+      socket = network.getSocketFactory().createSocket();
+    } catch (IOException exception) {
+      errorHandler.handleError(exception, "Could not create socket bound to the network");
+      return false;
+    }
+    return probe.connect(socket, new InetSocketAddress(address, port), timeoutInMs, errorHandler);
+  }
+
+  /**
+   * Core probe, which opens socket connections for this strategy
+   */
+  private static final class Probe extends SocketProbe {
+    boolean connect(final Socket socket, final InetSocketAddress address, final int timeoutInMs,
+        final ErrorHandler errorHandler) {
+      return isConnected(socket, address, timeoutInMs, errorHandler);
     }
-    return isConnected;
   }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Build;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.ObservableSource;
+import io.reactivex.Single;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import java.util.concurrent.Callable;
+
+/**
+ * Strategy for monitoring connectivity with the Internet without pinging remote host on Android
+ * Marshmallow (API 23) or higher. Connectivity is derived from validation of the default network
+ * made by the system: network has to be validated and can't be behind a captive portal.
+ * On older versions, where the validation isn't available, the fallback strategy is used.
+ */
+@Open public class ValidatedInternetObservingStrategy implements InternetObservingStrategy {
+  private final Context context;
+  private final InternetObservingStrategy fallbackStrategy;
+
+  /**
+   * Creates strategy with {@link WalledGardenInternetObservingStrategy} as the fallback
+   *
+   * @param context Context of the activity or an application
+   */
+  public ValidatedInternetObservingStrategy(@NonNull final Context context) {
+    this(context, new WalledGardenInternetObservingStrategy());
+  }
+
+  /**
+   * Creates strategy
+   *
+   * @param context Context of the activity or an application
+   * @param fallbackStrategy strategy used before Android Marshmallow
+   */
+  public ValidatedInternetObservingStrategy(@NonNull final Context context,
+      @NonNull final InternetObservingStrategy fallbackStrategy) {
+    Preconditions.checkNotNull(context, "context == null");
+    Preconditions.checkNotNull(fallbackStrategy, "fallbackStrategy == null");
+    final Context applicationContext = context.getApplicationContext();
+    this.context = applicationContext != null ? applicationContext : context;
+    this.fallbackStrategy = fallbackStrategy;
+  }
+
+  @Override public String getDefaultPingHost() {
+    return fallbackStrategy.getDefaultPingHost();
+  }
+
+  /**
+   * Observes validation of the default network. Interval, host, port, timeout and HTTP response
+   * are used only by the fallback strategy.
+   */
+  @Override public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
+      final int intervalInMs, final String host, final int port, final int timeoutInMs,
+      final int httpResponse, final ErrorHandler errorHandler) {
+    if (!Preconditions.isAtLeastAndroidMarshmallow()) {
+      return fallbackStrategy.observeInternetConnectivity(initialIntervalInMs, intervalInMs, host,
+          port, timeoutInMs, httpResponse, errorHandler);
+    }
+    Preconditions.checkNotNull(errorHandler, "errorHandler is null");
+    return observeValidation(getConnectivityManager(), errorHandler);
+  }
+
+  /**
+   * Checks validation of the default network once. Host, port, timeout and HTTP response
+   * are used only by the fallback strategy.
+   */
+  @Override public Single<Boolean> checkInternetConnectivity(final String host, final int port,
+      final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+    if (!Preconditions.isAtLeastAndroidMarshmallow()) {
+      return fallbackStrategy.checkInternetConnectivity(host, port, timeoutInMs, httpResponse,
+          errorHandler);
+    }
+    final ConnectivityManager manager = getConnectivityManager();
+    return Single.fromCallable(new Callable<Boolean>() {
+      @Override public Boolean call() {
+        return isDefaultNetworkValidated(manager);
+      }
+    });
+  }
+
+  @TargetApi(23) private Observable<Boolean> observeValidation(final ConnectivityManager manager,
+      final ErrorHandler errorHandler) {
+    final Observable<Boolean> changes = Observable.create(new ObservableOnSubscribe<Boolean>() {
+      @Override public void subscribe(final ObservableEmitter<Boolean> subscriber) {
+        final ObservableEmitter<Boolean> emitter = subscriber.serialize();
+        final NetworkCallback networkCallback = createNetworkCallback(manager, emitter);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+          manager.registerDefaultNetworkCallback(networkCallback);
+        } else {
+          final NetworkRequest request = new NetworkRequest.Builder()
+              .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+              .build();
+          manager.registerNetworkCallback(request, networkCallback);
+        }
+        emitter.setCancellable(new Cancellable() {
+          @Override public void cancel() {
+            try {
+              manager.unregisterNetworkCallback(networkCallback);
+            } catch (Exception exception) {
+              errorHandler.handleError(exception, "Could not unregister network callback");
+            }
+          }
+        });
+      }
+    });
+
+    // initial validation requires IPC, so it's checked lazily on the I/O scheduler and dropped,
+    // when the callback delivers validation of the default network before it
+    final Observable<Boolean> initial = Observable.fromCallable(new Callable<Boolean>() {
+      @Override public Boolean call() {
+        return isDefaultNetworkValidated(manager);
+      }
+    }).subscribeOn(Schedulers.io());
+
+    return changes.publish(new Function<Observable<Boolean>, ObservableSource<Boolean>>() {
+      @Override public ObservableSource<Boolean> apply(final Observable<Boolean> changes) {
+        return Observable.merge(initial.takeUntil(changes), changes);
+      }
+    }).distinctUntilChanged();
+  }
+
+  @TargetApi(23) private NetworkCallback createNetworkCallback(final ConnectivityManager manager,
+      final ObservableEmitter<Boolean> emitter) {
+    final boolean isDefaultNetworkCallback = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N;
+    return new NetworkCallback() {
+      @Override public void onAvailable(final Network network) {
+        // since Android Oreo onCapabilitiesChanged always follows, so there's nothing to query
+        if (Preconditions.isAtLeastAndroidOreo()) {
+          return;
+        }
+        emitter.onNext(isDefaultNetworkCallback
+            ? isValidated(manager.getNetworkCapabilities(network))
+            : isDefaultNetworkValidated(manager));
+      }
+
+      @Override public void onCapabilitiesChanged(final Network network,
+          final NetworkCapabilities capabilities) {
+        // default network callback delivers capabilities of the default network only
+        emitter.onNext(isDefaultNetworkCallback ? isValidated(capabilities)
+            : isDefaultNetworkValidated(manager));
+      }
+
+      @Override public void onLost(final Network network) {
+        emitter.onNext(!isDefaultNetworkCallback && isDefaultNetworkValidated(manager));
+      }
+    };
+  }
+
+  @TargetApi(23) private static boolean isDefaultNetworkValidated(
+      final ConnectivityManager manager) {
+    final Network network = manager.getActiveNetwork();
+    return network != null && isValidated(manager.getNetworkCapabilities(network));
+  }
+
+  /**
+   * Checks if network was validated by the system and it's not behind a captive portal
+   *
+   * @param capabilities of the network
+   * @return boolean true if network has access to the Internet
+   */
+  @TargetApi(23) protected static boolean isValidated(
+      @Nullable final NetworkCapabilities capabilities) {
+    return capabilities != null
+        && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)
+        && !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_CAPTIVE_PORTAL);
+  }
+
+  private ConnectivityManager getConnectivityManager() {
+    return (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+  }
+}
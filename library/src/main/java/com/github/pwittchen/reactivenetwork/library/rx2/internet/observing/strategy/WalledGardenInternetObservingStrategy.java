@@ -15,10 +15,15 @@
  */
 package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
 
+import android.annotation.TargetApi;
+import android.net.Network;
+import com.github.pwittchen.reactivenetwork.core.WalledGardenProbe;
 import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
-import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.FlowableInternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.NetworkBoundInternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
 import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.SingleEmitter;
@@ -38,14 +43,15 @@ import javax.net.ssl.HttpsURLConnection;
  * which does not has access to several websites like Google. It such case, different HTTP responses
  * are generated. Instead HTTP 200 (OK), we got HTTP 204 (NO CONTENT), but it still can tell us
  * if a device is connected to the Internet or not.
+ * Probing itself is done by {@link WalledGardenProbe}, which doesn't depend on RxJava.
  */
-@Open public class WalledGardenInternetObservingStrategy implements InternetObservingStrategy {
-  private static final String DEFAULT_HOST = "http://clients3.google.com/generate_204";
-  private static final String HTTP_PROTOCOL = "http://";
+@Open public class WalledGardenInternetObservingStrategy
+    implements NetworkBoundInternetObservingStrategy, FlowableInternetObservingStrategy {
   private static final String HTTPS_PROTOCOL = "https://";
+  private final Probe probe = new Probe();
 
   @Override public String getDefaultPingHost() {
-    return DEFAULT_HOST;
+    return probe.getDefaultPingHost();
   }
 
   @Override public Observable<Boolean> observeInternetConnectivity(final int initialIntervalInMs,
@@ -68,6 +74,25 @@ import javax.net.ssl.HttpsURLConnection;
     }).distinctUntilChanged();
   }
 
+  @Override public Flowable<Boolean> observeInternetConnectivityFlowable(
+      final int initialIntervalInMs, final int intervalInMs, final String host, final int port,
+      final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+    Preconditions.checkGreaterOrEqualToZero(initialIntervalInMs,
+        "initialIntervalInMs is not a positive number");
+    Preconditions.checkGreaterThanZero(intervalInMs, "intervalInMs is not a positive number");
+    checkGeneralPreconditions(host, port, timeoutInMs, httpResponse, errorHandler);
+
+    final String adjustedHost = adjustHost(host);
+
+    // ticks without demand are dropped, so host is pinged only when the value can be delivered
+    return Flowable.interval(initialIntervalInMs, intervalInMs, TimeUnit.MILLISECONDS,
+        Schedulers.io()).onBackpressureDrop().map(new Function<Long, Boolean>() {
+      @Override public Boolean apply(@NonNull Long tick) {
+        return isConnected(adjustedHost, port, timeoutInMs, httpResponse, errorHandler);
+      }
+    }).distinctUntilChanged();
+  }
+
   @Override public Single<Boolean> checkInternetConnectivity(final String host, final int port,
       final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
     checkGeneralPreconditions(host, port, timeoutInMs, httpResponse, errorHandler);
@@ -79,12 +104,21 @@ import javax.net.ssl.HttpsURLConnection;
     });
   }
 
-  protected String adjustHost(final String host) {
-    if (!host.startsWith(HTTP_PROTOCOL) && !host.startsWith(HTTPS_PROTOCOL)) {
-      return HTTPS_PROTOCOL.concat(host);
-    }
+  @TargetApi(21)
+  @Override public Single<Boolean> checkInternetConnectivity(final Network network,
+      final String host, final int port, final int timeoutInMs, final int httpResponse,
+      final ErrorHandler errorHandler) {
+    Preconditions.checkNotNull(network, "network is null");
+    checkGeneralPreconditions(host, port, timeoutInMs, httpResponse, errorHandler);
 
-    return host;
+    final String adjustedHost = adjustHost(host);
+
+    return Single.create(new SingleOnSubscribe<Boolean>() {
+      @Override public void subscribe(@NonNull SingleEmitter<Boolean> emitter) {
+        emitter.onSuccess(
+            isConnected(network, adjustedHost, port, timeoutInMs, httpResponse, errorHandler));
+      }
+    });
   }
 
   private void checkGeneralPreconditions(final String host, final int port, final int timeoutInMs,
@@ -97,6 +131,10 @@ import javax.net.ssl.HttpsURLConnection;
     Preconditions.checkGreaterThanZero(httpResponse, "httpResponse is not a positive number");
   }
 
+  protected String adjustHost(final String host) {
+    return probe.adjustHost(host);
+  }
+
   protected Boolean isConnected(final String host, final int port, final int timeoutInMs,
       final int httpResponse, final ErrorHandler errorHandler) {
     HttpURLConnection urlConnection = null;
@@ -119,25 +157,59 @@ import javax.net.ssl.HttpsURLConnection;
 
   protected HttpURLConnection createHttpUrlConnection(final String host, final int port,
       final int timeoutInMs) throws IOException {
-    URL initialUrl = new URL(host);
-    URL url = new URL(initialUrl.getProtocol(), initialUrl.getHost(), port, initialUrl.getFile());
-    HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
-    urlConnection.setConnectTimeout(timeoutInMs);
-    urlConnection.setReadTimeout(timeoutInMs);
-    urlConnection.setInstanceFollowRedirects(false);
-    urlConnection.setUseCaches(false);
-    return urlConnection;
+    return probe.openHttpUrlConnection(host, port, timeoutInMs);
   }
 
   protected HttpsURLConnection createHttpsUrlConnection(final String host, final int port,
       final int timeoutInMs) throws IOException {
+    return probe.openHttpsUrlConnection(host, port, timeoutInMs);
+  }
+
+  @TargetApi(21)
+  protected Boolean isConnected(final Network network, final String host, final int port,
+      final int timeoutInMs, final int httpResponse, final ErrorHandler errorHandler) {
+    HttpURLConnection urlConnection = null;
+    try {
+      urlConnection = createHttpUrlConnection(network, host, port, timeoutInMs);
+      return urlConnection.getResponseCode() == httpResponse;
+    } catch (IOException e) {
+      errorHandler.handleError(e, "Could not establish connection with WalledGardenStrategy");
+      return Boolean.FALSE;
+    } finally {
+      if (urlConnection != null) {
+        urlConnection.disconnect();
+      }
+    }
+  }
+
+  /**
+   * Creates HTTP or HTTPS connection opened through the given network
+   */
+  @TargetApi(21)
+  protected HttpURLConnection createHttpUrlConnection(final Network network, final String host,
+      final int port, final int timeoutInMs) throws IOException {
     URL initialUrl = new URL(host);
     URL url = new URL(initialUrl.getProtocol(), initialUrl.getHost(), port, initialUrl.getFile());
-    HttpsURLConnection urlConnection = (HttpsURLConnection) url.openConnection();
+    HttpURLConnection urlConnection = (HttpURLConnection) network.openConnection(url);
     urlConnection.setConnectTimeout(timeoutInMs);
     urlConnection.setReadTimeout(timeoutInMs);
     urlConnection.setInstanceFollowRedirects(false);
     urlConnection.setUseCaches(false);
     return urlConnection;
   }
+
+  /**
+   * Core probe, which opens HTTP and HTTPS connections for this strategy
+   */
+  private static final class Probe extends WalledGardenProbe {
+    HttpURLConnection openHttpUrlConnection(final String host, final int port,
+        final int timeoutInMs) throws IOException {
+      return createHttpUrlConnection(host, port, timeoutInMs);
+    }
+
+    HttpsURLConnection openHttpsUrlConnection(final String host, final int port,
+        final int timeoutInMs) throws IOException {
+      return createHttpsUrlConnection(host, port, timeoutInMs);
+    }
+  }
 }
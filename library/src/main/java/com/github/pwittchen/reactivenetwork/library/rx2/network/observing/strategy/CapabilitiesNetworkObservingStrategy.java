@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
+import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.functions.Cancellable;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.LOG_TAG;
+
+/**
+ * Network observing strategy for devices with Android Nougat (API 24) or higher.
+ * Builds Connectivity directly from NetworkCapabilities and LinkProperties delivered to the
+ * default network callback, so it doesn't call ConnectivityManager on every change.
+ * Connectivity created by this strategy contains validated, metered and bandwidth values.
+ */
+@Open @TargetApi(24) public class CapabilitiesNetworkObservingStrategy
+    implements NetworkObservingStrategy {
+  @Nullable private final Handler handler;
+
+  public CapabilitiesNetworkObservingStrategy() {
+    this(null);
+  }
+
+  /**
+   * Creates strategy, which delivers network events on the given Handler
+   *
+   * @param handler handler, on which events are delivered or null to use the default thread
+   */
+  public CapabilitiesNetworkObservingStrategy(@Nullable final Handler handler) {
+    this.handler = handler;
+  }
+
+  @Override public Observable<Connectivity> observeNetworkConnectivity(final Context context) {
+    final String service = Context.CONNECTIVITY_SERVICE;
+    final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
+
+    final ObservableOnSubscribe<Connectivity> events = new ObservableOnSubscribe<Connectivity>() {
+      @Override public void subscribe(ObservableEmitter<Connectivity> subscriber) throws Exception {
+        final NetworkCallback networkCallback = NetworkCallbacks.register(manager, null,
+            createNetworkCallback(manager, subscriber), handler);
+        subscriber.setCancellable(new Cancellable() {
+          @Override public void cancel() {
+            tryToUnregisterCallback(manager, networkCallback);
+          }
+        });
+      }
+    };
+
+    return InitialConnectivity.startWith(Observable.create(events), context).distinctUntilChanged();
+  }
+
+  private void tryToUnregisterCallback(final ConnectivityManager manager,
+      final NetworkCallback networkCallback) {
+    try {
+      manager.unregisterNetworkCallback(networkCallback);
+    } catch (Exception exception) {
+      onError("could not unregister network callback", exception);
+    }
+  }
+
+  @Override public void onError(final String message, final Exception exception) {
+    Log.e(LOG_TAG, message, exception);
+  }
+
+  private NetworkCallback createNetworkCallback(final ConnectivityManager manager,
+      final ObservableEmitter<Connectivity> subscriber) {
+    return new ConnectivityManager.NetworkCallback() {
+      // callbacks are delivered on a single thread, so the state doesn't need synchronization
+      private final Map<Network, NetworkState> networks = new HashMap<>();
+      @Nullable private Network current;
+
+      @Override public void onAvailable(final Network network) {
+        current = network;
+        // since Android Oreo onCapabilitiesChanged and onLinkPropertiesChanged always follow,
+        // so ConnectivityManager is queried only on older versions
+        if (!Preconditions.isAtLeastAndroidOreo()) {
+          queryState(network);
+        }
+        emitIfCurrent(network);
+      }
+
+      @Override public void onCapabilitiesChanged(final Network network,
+          final NetworkCapabilities capabilities) {
+        getState(network).capabilities = capabilities;
+        emitIfCurrent(network);
+      }
+
+      @Override public void onLinkPropertiesChanged(final Network network,
+          final LinkProperties linkProperties) {
+        getState(network).linkProperties = linkProperties;
+        emitIfCurrent(network);
+      }
+
+      @Override public void onLost(final Network network) {
+        networks.remove(network);
+        if (network.equals(current)) {
+          current = null;
+          subscriber.onNext(Connectivity.create());
+        }
+      }
+
+      private void queryState(final Network network) {
+        final NetworkState state = getState(network);
+        final NetworkCapabilities capabilities = manager.getNetworkCapabilities(network);
+        if (capabilities != null) {
+          state.capabilities = capabilities;
+        }
+        final LinkProperties linkProperties = manager.getLinkProperties(network);
+        if (linkProperties != null) {
+          state.linkProperties = linkProperties;
+        }
+      }
+
+      private NetworkState getState(final Network network) {
+        NetworkState state = networks.get(network);
+        if (state == null) {
+          state = new NetworkState();
+          networks.put(network, state);
+        }
+        return state;
+      }
+
+      private void emitIfCurrent(final Network network) {
+        final NetworkState state = networks.get(network);
+        if (network.equals(current) && state != null && state.capabilities != null) {
+          subscriber.onNext(createConnectivity(state.capabilities, state.linkProperties));
+        }
+      }
+    };
+  }
+
+  /**
+   * Creates Connectivity of connected network from payloads of the network callback
+   *
+   * @param capabilities of the network
+   * @param linkProperties of the network or null if they weren't delivered yet
+   * @return Connectivity object
+   */
+  protected Connectivity createConnectivity(final NetworkCapabilities capabilities,
+      @Nullable final LinkProperties linkProperties) {
+    return NetworkConnectivity.create(capabilities, linkProperties);
+  }
+
+  private static final class NetworkState {
+    @Nullable NetworkCapabilities capabilities;
+    @Nullable LinkProperties linkProperties;
+  }
+}
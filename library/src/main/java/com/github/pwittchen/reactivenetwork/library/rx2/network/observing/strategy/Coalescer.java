@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.os.Handler;
+import androidx.annotation.Nullable;
+import io.reactivex.Scheduler;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the latest action once per burst of events according to the CoalescingWindow.
+ */
+final class Coalescer {
+  private final CoalescingWindow window;
+  private final Scheduler scheduler;
+  @Nullable private Disposable pending;
+  private long burstStart;
+  private long generation;
+
+  Coalescer(final CoalescingWindow window, final Scheduler scheduler) {
+    this.window = window;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Creates coalescer running actions on the thread of the given handler or on the I/O scheduler,
+   * when the handler is null, because actions make blocking calls to ConnectivityManager
+   */
+  static Coalescer create(final CoalescingWindow window, @Nullable final Handler handler) {
+    final Scheduler scheduler =
+        handler == null ? Schedulers.io() : AndroidSchedulers.from(handler.getLooper());
+    return new Coalescer(window, scheduler);
+  }
+
+  /**
+   * Notifies about a new event. The action replaces the action of the previous event in the same
+   * burst. It's run immediately, when the window is none.
+   *
+   * @param action to run at the end of the burst
+   */
+  void onEvent(final Runnable action) {
+    if (window.isNone()) {
+      action.run();
+      return;
+    }
+    // scheduling under the lock guarantees, that pending is set before the action completes
+    synchronized (this) {
+      final long now = scheduler.now(TimeUnit.MILLISECONDS);
+      if (pending == null) {
+        burstStart = now;
+      } else {
+        pending.dispose();
+      }
+      final long maxDelayLeft = burstStart + window.maxDelayInMillis() - now;
+      final long delay = Math.max(0, Math.min(window.windowInMillis(), maxDelayLeft));
+      final long id = ++generation;
+      pending = scheduler.scheduleDirect(new Runnable() {
+        @Override public void run() {
+          if (complete(id)) {
+            action.run();
+          }
+        }
+      }, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private synchronized boolean complete(final long id) {
+    if (id != generation) {
+      return false;
+    }
+    pending = null;
+    return true;
+  }
+
+  /**
+   * Cancels action of the current burst. Coalescer can be used again afterwards.
+   */
+  synchronized void cancel() {
+    generation++;
+    if (pending != null) {
+      pending.dispose();
+      pending = null;
+    }
+  }
+}
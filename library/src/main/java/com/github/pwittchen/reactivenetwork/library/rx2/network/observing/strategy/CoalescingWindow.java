@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import androidx.annotation.NonNull;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Window, in which bursts of network events (e.g. during handover from Wi-Fi to mobile network)
+ * are collapsed into a single emission of the final Connectivity. Connectivity is emitted when
+ * there were no new events for the given window, but not later than max delay after the first
+ * event of the burst.
+ */
+public final class CoalescingWindow {
+  private static final CoalescingWindow NONE = new CoalescingWindow(0, 0);
+
+  private final long windowInMillis;
+  private final long maxDelayInMillis;
+
+  private CoalescingWindow(final long windowInMillis, final long maxDelayInMillis) {
+    this.windowInMillis = windowInMillis;
+    this.maxDelayInMillis = maxDelayInMillis;
+  }
+
+  /**
+   * @return window, which emits Connectivity for every event immediately
+   */
+  public static CoalescingWindow none() {
+    return NONE;
+  }
+
+  /**
+   * Creates coalescing window
+   *
+   * @param window time without new events, after which Connectivity is emitted
+   * @param maxDelay max time between the first event of the burst and emission of Connectivity
+   * @param unit time unit of window and max delay
+   * @return CoalescingWindow object
+   */
+  public static CoalescingWindow create(final long window, final long maxDelay,
+      @NonNull final TimeUnit unit) {
+    Preconditions.checkNotNull(unit, "unit == null");
+    Preconditions.checkGreaterThanZero(window, "window is not a positive number");
+    Preconditions.checkGreaterThanZero(maxDelay, "maxDelay is not a positive number");
+    if (maxDelay < window) {
+      throw new IllegalArgumentException("maxDelay is shorter than window");
+    }
+    return new CoalescingWindow(unit.toMillis(window), unit.toMillis(maxDelay));
+  }
+
+  public long windowInMillis() {
+    return windowInMillis;
+  }
+
+  public long maxDelayInMillis() {
+    return maxDelayInMillis;
+  }
+
+  boolean isNone() {
+    return windowInMillis == 0;
+  }
+
+  @Override public String toString() {
+    return "CoalescingWindow{"
+        + "windowInMillis="
+        + windowInMillis
+        + ", maxDelayInMillis="
+        + maxDelayInMillis
+        + '}';
+  }
+}
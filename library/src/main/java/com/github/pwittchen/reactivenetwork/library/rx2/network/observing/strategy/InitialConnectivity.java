@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.content.Context;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+import java.util.concurrent.Callable;
+
+/**
+ * Emits initial Connectivity before the network events. It's created lazily at subscription time
+ * on the I/O scheduler, because it requires IPC with ConnectivityManager, so neither assembling nor
+ * subscribing the Observable blocks the calling thread.
+ */
+final class InitialConnectivity {
+
+  private InitialConnectivity() {
+  }
+
+  /**
+   * Merges initial Connectivity with the network events. Initial Connectivity is dropped, when
+   * a network event arrives before it, because it could be outdated then.
+   *
+   * @param events Observable with Connectivity created from the network events
+   * @param context Context of the activity or an application
+   * @return Observable with initial Connectivity and the network events
+   */
+  static Observable<Connectivity> startWith(final Observable<Connectivity> events,
+      final Context context) {
+    final Observable<Connectivity> initial = Observable.fromCallable(new Callable<Connectivity>() {
+      @Override public Connectivity call() {
+        return Connectivity.create(context);
+      }
+    }).subscribeOn(Schedulers.io());
+
+    return events.publish(new Function<Observable<Connectivity>, ObservableSource<Connectivity>>() {
+      @Override public ObservableSource<Connectivity> apply(final Observable<Connectivity> events) {
+        return Observable.merge(initial.takeUntil(events), events);
+      }
+    });
+  }
+}
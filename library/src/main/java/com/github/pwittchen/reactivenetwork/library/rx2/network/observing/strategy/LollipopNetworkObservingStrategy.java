@@ -21,14 +21,18 @@ import android.net.ConnectivityManager;
 import android.net.ConnectivityManager.NetworkCallback;
 import android.net.Network;
 import android.net.NetworkRequest;
+import android.os.Handler;
 import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
 import com.jakewharton.nopen.annotation.Open;
 import io.reactivex.Observable;
 import io.reactivex.ObservableEmitter;
 import io.reactivex.ObservableOnSubscribe;
-import io.reactivex.functions.Action;
+import io.reactivex.functions.Cancellable;
 
 import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.LOG_TAG;
 
@@ -38,27 +42,73 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
  */
 @Open @TargetApi(21) public class LollipopNetworkObservingStrategy
     implements NetworkObservingStrategy {
-  @SuppressWarnings("NullAway") // it has to be initialized in the Observable due to Context
-  private NetworkCallback networkCallback;
+  @Nullable private final Handler handler;
+  private final CoalescingWindow window;
+
+  public LollipopNetworkObservingStrategy() {
+    this(null);
+  }
+
+  /**
+   * Creates strategy, which delivers network events on the given Handler
+   *
+   * @param handler handler, on which events are delivered or null to use the default thread
+   */
+  public LollipopNetworkObservingStrategy(@Nullable final Handler handler) {
+    this(handler, CoalescingWindow.none());
+  }
+
+  /**
+   * Creates strategy, which delivers network events on the given Handler and collapses their
+   * bursts within the given window into a single Connectivity
+   *
+   * @param handler handler, on which events are delivered or null to use the default thread
+   * @param window coalescing window of network events
+   */
+  public LollipopNetworkObservingStrategy(@Nullable final Handler handler,
+      @NonNull final CoalescingWindow window) {
+    Preconditions.checkNotNull(window, "window == null");
+    this.handler = handler;
+    this.window = window;
+  }
 
   @Override public Observable<Connectivity> observeNetworkConnectivity(final Context context) {
     final String service = Context.CONNECTIVITY_SERVICE;
     final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
 
-    return Observable.create(new ObservableOnSubscribe<Connectivity>() {
+    final ObservableOnSubscribe<Connectivity> events = new ObservableOnSubscribe<Connectivity>() {
       @Override public void subscribe(ObservableEmitter<Connectivity> subscriber) throws Exception {
-        networkCallback = createNetworkCallback(subscriber, context);
-        final NetworkRequest networkRequest = new NetworkRequest.Builder().build();
-        manager.registerNetworkCallback(networkRequest, networkCallback);
-      }
-    }).doOnDispose(new Action() {
-      @Override public void run() {
-        tryToUnregisterCallback(manager);
+        // each subscriber has its own callback, so disposing one of them doesn't affect the others
+        final ObservableEmitter<Connectivity> emitter = subscriber.serialize();
+        final Coalescer coalescer = Coalescer.create(window, handler);
+        final NetworkCallback networkCallback =
+            registerNetworkCallback(manager, createNetworkCallback(emitter, context, coalescer));
+        emitter.setCancellable(new Cancellable() {
+          @Override public void cancel() {
+            tryToUnregisterCallback(manager, networkCallback);
+            coalescer.cancel();
+          }
+        });
       }
-    }).startWith(Connectivity.create(context)).distinctUntilChanged();
+    };
+    return InitialConnectivity.startWith(Observable.create(events), context).distinctUntilChanged();
+  }
+
+  /**
+   * Registers network callback of a single subscriber
+   *
+   * @param manager ConnectivityManager, in which the callback is registered
+   * @param networkCallback callback to register
+   * @return callback, which was registered and has to be unregistered later
+   */
+  NetworkCallback registerNetworkCallback(final ConnectivityManager manager,
+      final NetworkCallback networkCallback) {
+    final NetworkRequest networkRequest = new NetworkRequest.Builder().build();
+    return NetworkCallbacks.register(manager, networkRequest, networkCallback, handler);
   }
 
-  private void tryToUnregisterCallback(final ConnectivityManager manager) {
+  void tryToUnregisterCallback(final ConnectivityManager manager,
+      final NetworkCallback networkCallback) {
     try {
       manager.unregisterNetworkCallback(networkCallback);
     } catch (Exception exception) {
@@ -70,15 +120,30 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
     Log.e(LOG_TAG, message, exception);
   }
 
+  /**
+   * Creates Connectivity after a network event
+   *
+   * @param context Context of the activity or an application
+   * @return Connectivity object
+   */
+  Connectivity createConnectivity(final Context context) {
+    return Connectivity.create(context);
+  }
+
   private NetworkCallback createNetworkCallback(final ObservableEmitter<Connectivity> subscriber,
-      final Context context) {
+      final Context context, final Coalescer coalescer) {
+    final Runnable emitConnectivity = new Runnable() {
+      @Override public void run() {
+        subscriber.onNext(createConnectivity(context));
+      }
+    };
     return new ConnectivityManager.NetworkCallback() {
       @Override public void onAvailable(Network network) {
-        subscriber.onNext(Connectivity.create(context));
+        coalescer.onEvent(emitConnectivity);
       }
 
       @Override public void onLost(Network network) {
-        subscriber.onNext(Connectivity.create(context));
+        coalescer.onEvent(emitConnectivity);
       }
     };
   }
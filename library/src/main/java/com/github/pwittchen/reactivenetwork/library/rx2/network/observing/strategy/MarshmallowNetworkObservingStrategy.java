@@ -21,24 +21,33 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
 import android.net.Network;
 import android.net.NetworkCapabilities;
 import android.net.NetworkInfo;
 import android.net.NetworkRequest;
+import android.os.Handler;
 import android.os.PowerManager;
 import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.DeviceIdleMode;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
 import com.jakewharton.nopen.annotation.Open;
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
 import io.reactivex.Observable;
-import io.reactivex.functions.Action;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Cancellable;
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.subjects.PublishSubject;
 import io.reactivex.subjects.Subject;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.reactivestreams.Publisher;
 
 import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.LOG_TAG;
@@ -53,38 +62,73 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
       "could not unregister network callback";
   protected static final String ERROR_MSG_RECEIVER = "could not unregister receiver";
 
-  @SuppressWarnings("NullAway") // it has to be initialized in the Observable due to Context
-  private ConnectivityManager.NetworkCallback networkCallback;
   private final Subject<Connectivity> connectivitySubject;
-  private final BroadcastReceiver idleReceiver;
+  @Nullable private final Handler handler;
+  private final Coalescer coalescer;
+  private final AtomicInteger subscriptions = new AtomicInteger();
   private Connectivity lastConnectivity = Connectivity.create();
 
-  @SuppressWarnings("NullAway") // networkCallback cannot be initialized here
   public MarshmallowNetworkObservingStrategy() {
-    this.idleReceiver = createIdleBroadcastReceiver();
+    this(null);
+  }
+
+  /**
+   * Creates strategy, which delivers network events on the given Handler
+   *
+   * @param handler handler, on which events are delivered or null to use the default thread
+   */
+  public MarshmallowNetworkObservingStrategy(@Nullable final Handler handler) {
+    this(handler, CoalescingWindow.none());
+  }
+
+  /**
+   * Creates strategy, which delivers network events on the given Handler and collapses their
+   * bursts within the given window into a single Connectivity
+   *
+   * @param handler handler, on which events are delivered or null to use the default thread
+   * @param window coalescing window of network events
+   */
+  public MarshmallowNetworkObservingStrategy(@Nullable final Handler handler,
+      @NonNull final CoalescingWindow window) {
+    Preconditions.checkNotNull(window, "window == null");
     this.connectivitySubject = PublishSubject.<Connectivity>create().toSerialized();
+    this.handler = handler;
+    this.coalescer = Coalescer.create(window, handler);
   }
 
   @Override public Observable<Connectivity> observeNetworkConnectivity(final Context context) {
     final String service = Context.CONNECTIVITY_SERVICE;
     final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
-    networkCallback = createNetworkCallback(context);
 
-    registerIdleReceiver(context);
-
-    final NetworkRequest request =
-        new NetworkRequest.Builder().addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
-            .addCapability(NetworkCapabilities.NET_CAPABILITY_NOT_RESTRICTED)
-            .build();
-
-    manager.registerNetworkCallback(request, networkCallback);
-
-    return connectivitySubject.toFlowable(BackpressureStrategy.LATEST).doOnCancel(new Action() {
-      @Override public void run() {
-        tryToUnregisterCallback(manager);
-        tryToUnregisterReceiver(context);
+    final Flowable<Connectivity> events = Flowable.create(new FlowableOnSubscribe<Connectivity>() {
+      @Override public void subscribe(final FlowableEmitter<Connectivity> emitter) {
+        // callback and receiver are registered per subscription, so they're registered again,
+        // when the Observable is subscribed after all the previous subscribers were gone
+        final Disposable disposable = connectivitySubject.subscribe(new Consumer<Connectivity>() {
+          @Override public void accept(final Connectivity connectivity) {
+            emitter.onNext(connectivity);
+          }
+        });
+        subscriptions.incrementAndGet();
+        final BroadcastReceiver idleReceiver = createIdleBroadcastReceiver();
+        registerIdleReceiver(context, idleReceiver);
+        final NetworkCallback networkCallback =
+            registerNetworkCallback(manager, createNetworkCallback(context));
+        emitter.setCancellable(new Cancellable() {
+          @Override public void cancel() {
+            disposable.dispose();
+            tryToUnregisterCallback(manager, networkCallback);
+            tryToUnregisterReceiver(context, idleReceiver);
+            // pending burst is shared with subscribers of other Observables of this strategy
+            if (subscriptions.decrementAndGet() == 0) {
+              coalescer.cancel();
+            }
+          }
+        });
       }
-    }).doAfterNext(new Consumer<Connectivity>() {
+    }, BackpressureStrategy.LATEST);
+
+    final Observable<Connectivity> shared = events.doAfterNext(new Consumer<Connectivity>() {
       @Override
       public void accept(final Connectivity connectivity) {
         lastConnectivity = connectivity;
@@ -94,7 +138,10 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
       public Publisher<Connectivity> apply(final Connectivity connectivity) {
         return propagateAnyConnectedState(lastConnectivity, connectivity);
       }
-    }).startWith(Connectivity.create(context)).distinctUntilChanged().toObservable();
+      // subscribers share the callback, which is unregistered when the last one is gone
+    }).share().toObservable();
+
+    return InitialConnectivity.startWith(shared, context).distinctUntilChanged();
   }
 
   protected Publisher<Connectivity> propagateAnyConnectedState(final Connectivity last,
@@ -111,9 +158,9 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
     }
   }
 
-  protected void registerIdleReceiver(final Context context) {
+  void registerIdleReceiver(final Context context, final BroadcastReceiver idleReceiver) {
     final IntentFilter filter = new IntentFilter(PowerManager.ACTION_DEVICE_IDLE_MODE_CHANGED);
-    context.registerReceiver(idleReceiver, filter);
+    context.registerReceiver(idleReceiver, filter, null, handler);
   }
 
   @NonNull protected BroadcastReceiver createIdleBroadcastReceiver() {
@@ -122,20 +169,34 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
         if (isIdleMode(context)) {
           onNext(Connectivity.create());
         } else {
-          onNext(Connectivity.create(context));
+          onNext(createConnectivity(context));
         }
       }
     };
   }
 
   protected boolean isIdleMode(final Context context) {
-    final String packageName = context.getPackageName();
-    final PowerManager manager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
-    boolean isIgnoringOptimizations = manager.isIgnoringBatteryOptimizations(packageName);
-    return manager.isDeviceIdleMode() && !isIgnoringOptimizations;
+    return DeviceIdleMode.isIdleMode(context);
+  }
+
+  /**
+   * Registers network callback of a single subscription
+   *
+   * @param manager ConnectivityManager, in which the callback is registered
+   * @param networkCallback callback to register
+   * @return callback, which was registered and has to be unregistered later
+   */
+  NetworkCallback registerNetworkCallback(final ConnectivityManager manager,
+      final NetworkCallback networkCallback) {
+    final NetworkRequest request =
+        new NetworkRequest.Builder().addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+            .addCapability(NetworkCapabilities.NET_CAPABILITY_NOT_RESTRICTED)
+            .build();
+    return NetworkCallbacks.register(manager, request, networkCallback, handler);
   }
 
-  protected void tryToUnregisterCallback(final ConnectivityManager manager) {
+  void tryToUnregisterCallback(final ConnectivityManager manager,
+      final NetworkCallback networkCallback) {
     try {
       manager.unregisterNetworkCallback(networkCallback);
     } catch (Exception exception) {
@@ -143,7 +204,7 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
     }
   }
 
-  protected void tryToUnregisterReceiver(Context context) {
+  void tryToUnregisterReceiver(final Context context, final BroadcastReceiver idleReceiver) {
     try {
       context.unregisterReceiver(idleReceiver);
     } catch (Exception exception) {
@@ -155,14 +216,29 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
     Log.e(LOG_TAG, message, exception);
   }
 
-  protected ConnectivityManager.NetworkCallback createNetworkCallback(final Context context) {
-    return new ConnectivityManager.NetworkCallback() {
+  /**
+   * Creates Connectivity after a network event or a change of idle mode
+   *
+   * @param context Context of the activity or an application
+   * @return Connectivity object
+   */
+  Connectivity createConnectivity(final Context context) {
+    return Connectivity.create(context);
+  }
+
+  protected NetworkCallback createNetworkCallback(final Context context) {
+    final Runnable emitConnectivity = new Runnable() {
+      @Override public void run() {
+        onNext(createConnectivity(context));
+      }
+    };
+    return new NetworkCallback() {
       @Override public void onAvailable(Network network) {
-        onNext(Connectivity.create(context));
+        coalescer.onEvent(emitConnectivity);
       }
 
       @Override public void onLost(Network network) {
-        onNext(Connectivity.create(context));
+        coalescer.onEvent(emitConnectivity);
       }
     };
   }
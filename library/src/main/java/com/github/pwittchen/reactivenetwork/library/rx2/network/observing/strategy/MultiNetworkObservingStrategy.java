@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Handler;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.functions.Cancellable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.LOG_TAG;
+
+/**
+ * Strategy observing all of the networks available for the device at the same time
+ * (e.g. Wi-Fi and mobile network) for Android Lollipop (API 21) or higher.
+ * Map of networks is updated incrementally from payloads of the network callback and emitted as
+ * an unmodifiable snapshot after every change. Callback delivers networks available at the time
+ * of the subscription, so the first snapshot is emitted when the first of them is delivered.
+ */
+@Open @TargetApi(21) public class MultiNetworkObservingStrategy {
+  @Nullable private final Handler handler;
+
+  public MultiNetworkObservingStrategy() {
+    this(null);
+  }
+
+  /**
+   * Creates strategy, which delivers network events on the given Handler
+   *
+   * @param handler handler, on which events are delivered or null to use the default thread
+   */
+  public MultiNetworkObservingStrategy(@Nullable final Handler handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * Observes all of the available networks
+   *
+   * @param context Context of the activity or an application
+   * @return RxJava Observable with unmodifiable map of available networks and their Connectivity
+   */
+  public Observable<Map<Network, Connectivity>> observeAllNetworks(final Context context) {
+    final String service = Context.CONNECTIVITY_SERVICE;
+    final ConnectivityManager manager = (ConnectivityManager) context.getSystemService(service);
+
+    return Observable.create(new ObservableOnSubscribe<Map<Network, Connectivity>>() {
+      @Override public void subscribe(ObservableEmitter<Map<Network, Connectivity>> subscriber)
+          throws Exception {
+        final NetworkMap networks = new NetworkMap(subscriber.serialize());
+        // requests have NOT_VPN capability by default, so VPNs would be never delivered
+        final NetworkRequest networkRequest = new NetworkRequest.Builder()
+            .removeCapability(NetworkCapabilities.NET_CAPABILITY_NOT_VPN)
+            .build();
+        final NetworkCallback networkCallback = NetworkCallbacks.register(manager, networkRequest,
+            createNetworkCallback(manager, networks), handler);
+        subscriber.setCancellable(new Cancellable() {
+          @Override public void cancel() {
+            tryToUnregisterCallback(manager, networkCallback);
+          }
+        });
+      }
+    }).distinctUntilChanged();
+  }
+
+  private void tryToUnregisterCallback(final ConnectivityManager manager,
+      final NetworkCallback networkCallback) {
+    try {
+      manager.unregisterNetworkCallback(networkCallback);
+    } catch (Exception exception) {
+      onError("could not unregister network callback", exception);
+    }
+  }
+
+  public void onError(final String message, final Exception exception) {
+    Log.e(LOG_TAG, message, exception);
+  }
+
+  private NetworkCallback createNetworkCallback(final ConnectivityManager manager,
+      final NetworkMap networks) {
+    return new ConnectivityManager.NetworkCallback() {
+      @Override public void onAvailable(final Network network) {
+        // since Android Oreo onCapabilitiesChanged always follows, so there's nothing to query
+        if (!Preconditions.isAtLeastAndroidOreo()) {
+          networks.onAvailable(manager, network);
+        }
+      }
+
+      @Override public void onCapabilitiesChanged(final Network network,
+          final NetworkCapabilities capabilities) {
+        networks.onCapabilitiesChanged(network, capabilities);
+      }
+
+      @Override public void onLinkPropertiesChanged(final Network network,
+          final LinkProperties linkProperties) {
+        networks.onLinkPropertiesChanged(network, linkProperties);
+      }
+
+      @Override public void onLost(final Network network) {
+        networks.onLost(network);
+      }
+    };
+  }
+
+  /**
+   * Networks of a single subscription. Connectivity is created again only for the network, which
+   * has changed.
+   */
+  private static final class NetworkMap {
+    private final ObservableEmitter<Map<Network, Connectivity>> emitter;
+    private final Map<Network, NetworkCapabilities> capabilities = new HashMap<>();
+    private final Map<Network, LinkProperties> linkProperties = new HashMap<>();
+    private final Map<Network, Connectivity> connectivities = new HashMap<>();
+
+    NetworkMap(final ObservableEmitter<Map<Network, Connectivity>> emitter) {
+      this.emitter = emitter;
+    }
+
+    synchronized void onAvailable(final ConnectivityManager manager, final Network network) {
+      final NetworkCapabilities networkCapabilities = manager.getNetworkCapabilities(network);
+      if (networkCapabilities == null) {
+        return;
+      }
+      capabilities.put(network, networkCapabilities);
+      final LinkProperties networkLinkProperties = manager.getLinkProperties(network);
+      if (networkLinkProperties != null) {
+        linkProperties.put(network, networkLinkProperties);
+      }
+      update(network);
+      emit();
+    }
+
+    synchronized void onCapabilitiesChanged(final Network network,
+        final NetworkCapabilities networkCapabilities) {
+      capabilities.put(network, networkCapabilities);
+      update(network);
+      emit();
+    }
+
+    synchronized void onLinkPropertiesChanged(final Network network,
+        final LinkProperties networkLinkProperties) {
+      linkProperties.put(network, networkLinkProperties);
+      // network is visible only after its capabilities are known
+      if (capabilities.containsKey(network)) {
+        update(network);
+        emit();
+      }
+    }
+
+    synchronized void onLost(final Network network) {
+      capabilities.remove(network);
+      linkProperties.remove(network);
+      if (connectivities.remove(network) != null) {
+        emit();
+      }
+    }
+
+    private void update(final Network network) {
+      final NetworkCapabilities networkCapabilities = capabilities.get(network);
+      if (networkCapabilities != null) {
+        connectivities.put(network,
+            NetworkConnectivity.create(networkCapabilities, linkProperties.get(network)));
+      }
+    }
+
+    private void emit() {
+      emitter.onNext(Collections.unmodifiableMap(new HashMap<>(connectivities)));
+    }
+  }
+}
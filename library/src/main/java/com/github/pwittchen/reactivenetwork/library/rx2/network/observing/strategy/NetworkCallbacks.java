@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.LinkProperties;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Handler;
+import androidx.annotation.Nullable;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+
+/**
+ * Registers network callbacks, which are delivered on the given Handler.
+ */
+@TargetApi(21) final class NetworkCallbacks {
+
+  private NetworkCallbacks() {
+  }
+
+  /**
+   * Registers network callback
+   *
+   * @param manager connectivity manager
+   * @param request network request or null to track the default network (API 24 or higher)
+   * @param callback network callback
+   * @param handler handler of the callback or null to use the default thread of the system
+   * @return callback, which was registered and should be unregistered later
+   */
+  static NetworkCallback register(final ConnectivityManager manager,
+      @Nullable final NetworkRequest request, final NetworkCallback callback,
+      @Nullable final Handler handler) {
+    if (handler == null) {
+      register(manager, request, callback);
+      return callback;
+    }
+    if (Preconditions.isAtLeastAndroidOreo()) {
+      registerWithHandler(manager, request, callback, handler);
+      return callback;
+    }
+    // before Oreo callbacks can't be registered with a Handler, so they're posted to it
+    final NetworkCallback forwardingCallback = forward(callback, handler);
+    register(manager, request, forwardingCallback);
+    return forwardingCallback;
+  }
+
+  @TargetApi(24) private static void register(final ConnectivityManager manager,
+      @Nullable final NetworkRequest request, final NetworkCallback callback) {
+    if (request == null) {
+      manager.registerDefaultNetworkCallback(callback);
+    } else {
+      manager.registerNetworkCallback(request, callback);
+    }
+  }
+
+  @TargetApi(26) private static void registerWithHandler(final ConnectivityManager manager,
+      @Nullable final NetworkRequest request, final NetworkCallback callback,
+      final Handler handler) {
+    if (request == null) {
+      manager.registerDefaultNetworkCallback(callback, handler);
+    } else {
+      manager.registerNetworkCallback(request, callback, handler);
+    }
+  }
+
+  private static NetworkCallback forward(final NetworkCallback callback, final Handler handler) {
+    return new NetworkCallback() {
+      @Override public void onAvailable(final Network network) {
+        handler.post(new Runnable() {
+          @Override public void run() {
+            callback.onAvailable(network);
+          }
+        });
+      }
+
+      @Override public void onLosing(final Network network, final int maxMsToLive) {
+        handler.post(new Runnable() {
+          @Override public void run() {
+            callback.onLosing(network, maxMsToLive);
+          }
+        });
+      }
+
+      @Override public void onLost(final Network network) {
+        handler.post(new Runnable() {
+          @Override public void run() {
+            callback.onLost(network);
+          }
+        });
+      }
+
+      @Override public void onCapabilitiesChanged(final Network network,
+          final NetworkCapabilities capabilities) {
+        handler.post(new Runnable() {
+          @Override public void run() {
+            callback.onCapabilitiesChanged(network, capabilities);
+          }
+        });
+      }
+
+      @Override public void onLinkPropertiesChanged(final Network network,
+          final LinkProperties linkProperties) {
+        handler.post(new Runnable() {
+          @Override public void run() {
+            callback.onLinkPropertiesChanged(network, linkProperties);
+          }
+        });
+      }
+    };
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.annotation.TargetApi;
+import android.net.ConnectivityManager;
+import android.net.LinkProperties;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import androidx.annotation.Nullable;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+
+/**
+ * Creates Connectivity from NetworkCapabilities and LinkProperties of a single network.
+ */
+@TargetApi(21) final class NetworkConnectivity {
+  private static final int UNKNOWN_TYPE = -1; // the same value as for Connectivity.create()
+
+  private NetworkConnectivity() {
+  }
+
+  /**
+   * Creates Connectivity of connected network from payloads of the network callback
+   *
+   * @param capabilities of the network
+   * @param linkProperties of the network or null if they weren't delivered yet
+   * @return Connectivity object
+   */
+  static Connectivity create(final NetworkCapabilities capabilities,
+      @Nullable final LinkProperties linkProperties) {
+    final int type = getType(capabilities);
+    return Connectivity.state(NetworkInfo.State.CONNECTED)
+        .detailedState(NetworkInfo.DetailedState.CONNECTED)
+        .type(type)
+        .typeName(getTypeName(type))
+        .available(true)
+        .validated(capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED))
+        .metered(!capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED))
+        .downstreamBandwidthKbps(capabilities.getLinkDownstreamBandwidthKbps())
+        .upstreamBandwidthKbps(capabilities.getLinkUpstreamBandwidthKbps())
+        .extraInfo(getInterfaceName(linkProperties))
+        .build();
+  }
+
+  private static int getType(final NetworkCapabilities capabilities) {
+    // VPN is checked first, because it can also have transports of the underlying network
+    if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_VPN)) {
+      return ConnectivityManager.TYPE_VPN;
+    } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+      return ConnectivityManager.TYPE_WIFI;
+    } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+      return ConnectivityManager.TYPE_MOBILE;
+    } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+      return ConnectivityManager.TYPE_ETHERNET;
+    } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_BLUETOOTH)) {
+      return ConnectivityManager.TYPE_BLUETOOTH;
+    }
+    return UNKNOWN_TYPE;
+  }
+
+  private static String getTypeName(final int type) {
+    switch (type) {
+      case ConnectivityManager.TYPE_VPN:
+        return "VPN";
+      case ConnectivityManager.TYPE_WIFI:
+        return "WIFI";
+      case ConnectivityManager.TYPE_MOBILE:
+        return "MOBILE";
+      case ConnectivityManager.TYPE_ETHERNET:
+        return "ETHERNET";
+      case ConnectivityManager.TYPE_BLUETOOTH:
+        return "BLUETOOTH";
+      default:
+        return "";
+    }
+  }
+
+  private static String getInterfaceName(@Nullable final LinkProperties linkProperties) {
+    if (linkProperties == null || linkProperties.getInterfaceName() == null) {
+      return "";
+    }
+    return linkProperties.getInterfaceName();
+  }
+}
@@ -20,9 +20,13 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.net.ConnectivityManager;
+import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
 import com.jakewharton.nopen.annotation.Open;
 import io.reactivex.Observable;
@@ -41,25 +45,61 @@ import static com.github.pwittchen.reactivenetwork.library.rx2.ReactiveNetwork.L
  * Uses Broadcast Receiver.
  */
 @Open public class PreLollipopNetworkObservingStrategy implements NetworkObservingStrategy {
+  @Nullable private final Handler handler;
+  private final CoalescingWindow window;
+
+  public PreLollipopNetworkObservingStrategy() {
+    this(null);
+  }
+
+  /**
+   * Creates strategy, which delivers network events on the given Handler
+   *
+   * @param handler handler, on which events are delivered or null to use the default thread
+   */
+  public PreLollipopNetworkObservingStrategy(@Nullable final Handler handler) {
+    this(handler, CoalescingWindow.none());
+  }
+
+  /**
+   * Creates strategy, which delivers network events on the given Handler and collapses their
+   * bursts within the given window into a single Connectivity
+   *
+   * @param handler handler, on which events are delivered or null to use the default thread
+   * @param window coalescing window of network events
+   */
+  public PreLollipopNetworkObservingStrategy(@Nullable final Handler handler,
+      @NonNull final CoalescingWindow window) {
+    Preconditions.checkNotNull(window, "window == null");
+    this.handler = handler;
+    this.window = window;
+  }
 
   @Override public Observable<Connectivity> observeNetworkConnectivity(final Context context) {
     final IntentFilter filter = new IntentFilter();
     filter.addAction(ConnectivityManager.CONNECTIVITY_ACTION);
 
     return Observable.create(new ObservableOnSubscribe<Connectivity>() {
-      @Override public void subscribe(final ObservableEmitter<Connectivity> emitter)
+      @Override public void subscribe(final ObservableEmitter<Connectivity> subscriber)
           throws Exception {
+        final ObservableEmitter<Connectivity> emitter = subscriber.serialize();
+        final Coalescer coalescer = Coalescer.create(window, handler);
         final BroadcastReceiver receiver = new BroadcastReceiver() {
-          @Override public void onReceive(Context context, Intent intent) {
-            emitter.onNext(Connectivity.create(context));
+          @Override public void onReceive(final Context context, final Intent intent) {
+            coalescer.onEvent(new Runnable() {
+              @Override public void run() {
+                emitter.onNext(Connectivity.create(context));
+              }
+            });
           }
         };
 
-        context.registerReceiver(receiver, filter);
+        context.registerReceiver(receiver, filter, null, handler);
 
         Disposable disposable = disposeInUiThread(new Action() {
           @Override public void run() {
             tryToUnregisterReceiver(context, receiver);
+            coalescer.cancel();
           }
         });
         emitter.setDisposable(disposable);
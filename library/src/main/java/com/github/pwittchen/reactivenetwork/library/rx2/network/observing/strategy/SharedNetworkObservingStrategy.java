@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.Preconditions;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
+import com.jakewharton.nopen.annotation.Open;
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+
+/**
+ * Network observing strategy, which shares a single registration of the given strategy between
+ * all of the subscribers observing the same application Context. Registration is made with the
+ * first subscriber and released with the last one. Late subscribers receive the latest
+ * Connectivity immediately.
+ */
+@Open public class SharedNetworkObservingStrategy implements NetworkObservingStrategy {
+  private final NetworkObservingStrategy strategy;
+  private final Map<Context, Observable<Connectivity>> observables = new WeakHashMap<>();
+
+  public SharedNetworkObservingStrategy(@NonNull final NetworkObservingStrategy strategy) {
+    Preconditions.checkNotNull(strategy, "strategy == null");
+    this.strategy = strategy;
+  }
+
+  @Override public Observable<Connectivity> observeNetworkConnectivity(final Context context) {
+    Preconditions.checkNotNull(context, "context == null");
+    final Context applicationContext = getApplicationContext(context);
+
+    synchronized (observables) {
+      Observable<Connectivity> observable = observables.get(applicationContext);
+      if (observable == null) {
+        observable = createSharedObservable(applicationContext);
+        observables.put(applicationContext, observable);
+      }
+      return observable;
+    }
+  }
+
+  private Observable<Connectivity> createSharedObservable(final Context context) {
+    // weak reference, because the value cannot keep the key of WeakHashMap
+    final WeakReference<Context> contextReference = new WeakReference<>(context);
+    return Observable.defer(new Callable<ObservableSource<Connectivity>>() {
+      @Override public ObservableSource<Connectivity> call() {
+        final Context context = contextReference.get();
+        if (context == null) {
+          return Observable.empty();
+        }
+        return strategy.observeNetworkConnectivity(context);
+      }
+    }).replay(1).refCount();
+  }
+
+  private static Context getApplicationContext(final Context context) {
+    final Context applicationContext = context.getApplicationContext();
+    return applicationContext != null ? applicationContext : context;
+  }
+
+  @Override public void onError(final String message, final Exception exception) {
+    strategy.onError(message, exception);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.app.Activity;
+import android.content.res.Configuration;
+import io.reactivex.observers.TestObserver;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings("NullAway") public class AppForegroundTest {
+
+  @Test public void shouldObserveStartedAndStoppedActivities() {
+    // given
+    final ActivityController<Activity> activity = Robolectric.buildActivity(Activity.class);
+    final TestObserver<Boolean> observer =
+        AppForeground.observe(RuntimeEnvironment.getApplication()).test();
+
+    // when
+    activity.create().start();
+    activity.stop();
+
+    // then
+    observer.assertValues(false, true, false);
+    observer.dispose();
+  }
+
+  @Test public void shouldStayInForegroundWhenAnotherActivityIsStarted() {
+    // given
+    final ActivityController<Activity> first = Robolectric.buildActivity(Activity.class);
+    final ActivityController<Activity> second = Robolectric.buildActivity(Activity.class);
+    final TestObserver<Boolean> observer =
+        AppForeground.observe(RuntimeEnvironment.getApplication()).test();
+
+    // when
+    first.create().start();
+    second.create().start();
+    first.stop();
+
+    // then
+    observer.assertValues(false, true);
+    observer.dispose();
+  }
+
+  @Test public void shouldStayInForegroundWhenNavigatingFromActivityStartedBeforeObserving() {
+    // given
+    final ActivityController<Activity> first = Robolectric.buildActivity(Activity.class);
+    final ActivityController<Activity> second = Robolectric.buildActivity(Activity.class);
+    AppForeground.init(RuntimeEnvironment.getApplication());
+    first.setup();
+    final TestObserver<Boolean> observer =
+        AppForeground.observe(RuntimeEnvironment.getApplication()).test();
+
+    // when
+    first.pause();
+    second.setup();
+    first.stop();
+
+    // then
+    observer.assertValues(true);
+
+    // when
+    second.pause().stop();
+
+    // then
+    observer.assertValues(true, false);
+    observer.dispose();
+  }
+
+  @Test public void shouldStayInForegroundDuringConfigurationChange() {
+    // given
+    final ActivityController<Activity> activity = Robolectric.buildActivity(Activity.class);
+    final TestObserver<Boolean> observer =
+        AppForeground.observe(RuntimeEnvironment.getApplication()).test();
+    activity.setup();
+
+    // when
+    final Configuration configuration = new Configuration();
+    configuration.orientation = Configuration.ORIENTATION_LANDSCAPE;
+    activity.configurationChange(configuration);
+
+    // then
+    observer.assertValues(false, true);
+    observer.dispose();
+  }
+
+  @Test public void shouldBeInBackgroundUntilActivityIsStartedWhenTrackingStartedLate() {
+    // given
+    final ActivityController<Activity> first = Robolectric.buildActivity(Activity.class);
+    final ActivityController<Activity> second = Robolectric.buildActivity(Activity.class);
+    first.setup();
+    final TestObserver<Boolean> observer =
+        AppForeground.observe(RuntimeEnvironment.getApplication()).test();
+    final boolean isInForegroundBeforeStart =
+        AppForeground.isInForeground(RuntimeEnvironment.getApplication());
+
+    // when
+    second.setup();
+
+    // then
+    assertThat(isInForegroundBeforeStart).isFalse();
+    assertThat(AppForeground.isInForeground(RuntimeEnvironment.getApplication())).isTrue();
+    observer.assertValues(false, true);
+    observer.dispose();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.app.Application;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings("NullAway") public class ConnectivityChangeTest {
+
+  private final Connectivity wifi = Connectivity.state(NetworkInfo.State.CONNECTED)
+      .type(ConnectivityManager.TYPE_WIFI)
+      .typeName("WIFI")
+      .build();
+
+  private final Connectivity wifiWithReason = Connectivity.state(NetworkInfo.State.CONNECTED)
+      .type(ConnectivityManager.TYPE_WIFI)
+      .typeName("WIFI")
+      .reason("roaming changed")
+      .build();
+
+  private final Connectivity disconnected = Connectivity.state(NetworkInfo.State.DISCONNECTED)
+      .type(ConnectivityManager.TYPE_WIFI)
+      .typeName("WIFI")
+      .build();
+
+  @Test public void shouldCreateChangeWithDifferentFields() {
+    // when
+    final ConnectivityChange change = ConnectivityChange.create(wifi, disconnected);
+
+    // then
+    assertThat(change.previous()).isEqualTo(wifi);
+    assertThat(change.current()).isEqualTo(disconnected);
+    assertThat(change.fields()).isEqualTo(Connectivity.FIELD_STATE);
+    assertThat(change.hasChanged(Connectivity.FIELD_STATE | Connectivity.FIELD_TYPE)).isTrue();
+    assertThat(change.hasChanged(Connectivity.FIELD_TYPE)).isFalse();
+  }
+
+  @Test public void shouldEmitOnlyChangesOfSelectedFields() {
+    // given
+    final PublishSubject<Connectivity> subject = PublishSubject.create();
+    final TestObserver<ConnectivityChange> observer =
+        subject.compose(ConnectivityChange.select(Connectivity.FIELD_STATE)).test();
+
+    // when
+    subject.onNext(wifi);
+    subject.onNext(wifiWithReason);
+    subject.onNext(disconnected);
+
+    // then
+    observer.assertValueCount(2);
+    assertThat(observer.values().get(0).previous()).isEqualTo(Connectivity.create());
+    assertThat(observer.values().get(0).current()).isEqualTo(wifi);
+    assertThat(observer.values().get(1).previous()).isEqualTo(wifi);
+    assertThat(observer.values().get(1).current()).isEqualTo(disconnected);
+  }
+
+  @Test public void shouldKeepStateOfEverySubscriptionSeparately() {
+    // given
+    final PublishSubject<Connectivity> subject = PublishSubject.create();
+    final Observable<ConnectivityChange> changes =
+        subject.compose(ConnectivityChange.select(Connectivity.FIELD_STATE));
+    final TestObserver<ConnectivityChange> first = changes.test();
+    subject.onNext(wifi);
+
+    // when
+    final TestObserver<ConnectivityChange> second = changes.test();
+    subject.onNext(wifiWithReason);
+
+    // then
+    first.assertValueCount(1);
+    second.assertValueCount(1);
+    assertThat(second.values().get(0).current()).isEqualTo(wifiWithReason);
+  }
+
+  @Test public void shouldObserveChangesOfNetworkConnectivity() {
+    // given
+    final Application context = RuntimeEnvironment.getApplication();
+
+    // when
+    final ConnectivityChange change = ReactiveNetwork
+        .observeNetworkConnectivityChanges(context, Connectivity.FIELD_STATE)
+        .blockingFirst();
+
+    // then
+    assertThat(change.current().state()).isEqualTo(NetworkInfo.State.CONNECTED);
+    assertThat(change.hasChanged(Connectivity.FIELD_STATE)).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowEmptyFields() {
+    ReactiveNetwork.observeNetworkConnectivityChanges(RuntimeEnvironment.getApplication(), 0);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.subjects.CompletableSubject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class ConnectivityGateTest {
+  private final BehaviorSubject<Boolean> connectivity = BehaviorSubject.createDefault(false);
+  private ConnectivityGate gate;
+
+  @Before public void setUp() {
+    gate = ConnectivityGate.builder(connectivity).capacity(4).batchSize(2).build();
+  }
+
+  @After public void tearDown() {
+    gate.dispose();
+  }
+
+  @Test public void shouldHoldWorkWhileOfflineAndRunItOnReconnect() {
+    // given
+    final TestObserver<Void> observer = gate.enqueue(Completable.complete()).test();
+    final boolean isCompletedOffline = observer.completions() > 0;
+
+    // when
+    connectivity.onNext(true);
+
+    // then
+    assertThat(isCompletedOffline).isFalse();
+    observer.assertComplete();
+    assertThat(gate.size()).isEqualTo(0);
+  }
+
+  @Test public void shouldReleaseWorkInBatches() {
+    // given
+    final List<CompletableSubject> works = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final CompletableSubject work = CompletableSubject.create();
+      works.add(work);
+      gate.enqueue(work).test();
+    }
+
+    // when
+    connectivity.onNext(true);
+    final boolean isThirdStartedWithFirstBatch = works.get(2).hasObservers();
+    works.get(0).onComplete();
+
+    // then
+    assertThat(works.get(0).hasObservers()).isFalse();
+    assertThat(works.get(1).hasObservers()).isTrue();
+    assertThat(isThirdStartedWithFirstBatch).isFalse();
+    assertThat(works.get(2).hasObservers()).isTrue();
+  }
+
+  @Test public void shouldStartWorkWithHigherPriorityFirst() {
+    // given
+    final List<String> order = new ArrayList<>();
+    gate.dispose();
+    gate = ConnectivityGate.builder(connectivity).batchSize(1).build();
+    gate.enqueue(work(order, "low"), ConnectivityGate.Priority.LOW).test();
+    gate.enqueue(work(order, "normal")).test();
+    gate.enqueue(work(order, "high"), ConnectivityGate.Priority.HIGH).test();
+
+    // when
+    connectivity.onNext(true);
+
+    // then
+    assertThat(order).containsExactly("high", "normal", "low").inOrder();
+  }
+
+  @Test public void shouldRejectWorkWhenQueueIsFull() {
+    // given
+    for (int i = 0; i < 4; i++) {
+      gate.enqueue(Completable.complete()).test();
+    }
+
+    // when
+    final TestObserver<Void> observer = gate.enqueue(Completable.complete()).test();
+
+    // then
+    observer.assertError(RejectedExecutionException.class);
+    assertThat(gate.size()).isEqualTo(4);
+  }
+
+  @Test public void shouldRemoveDisposedWorkFromQueue() {
+    // given
+    final TestObserver<Void> observer = gate.enqueue(Completable.complete()).test();
+
+    // when
+    observer.dispose();
+
+    // then
+    assertThat(gate.size()).isEqualTo(0);
+  }
+
+  @Test public void shouldReturnResultOfSingle() {
+    // given
+    final TestObserver<String> observer = gate.enqueue(Single.just("result")).test();
+
+    // when
+    connectivity.onNext(true);
+
+    // then
+    observer.assertResult("result");
+  }
+
+  @Test public void shouldFailQueuedWorkWhenDisposed() {
+    // given
+    final TestObserver<Void> observer = gate.enqueue(Completable.complete()).test();
+
+    // when
+    gate.dispose();
+
+    // then
+    observer.assertError(CancellationException.class);
+    assertThat(connectivity.hasObservers()).isFalse();
+  }
+
+  private static Completable work(final List<String> order, final String name) {
+    return Completable.fromAction(() -> order.add(name));
+  }
+}
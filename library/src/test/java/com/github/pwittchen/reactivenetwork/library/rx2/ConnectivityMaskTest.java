@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.telephony.TelephonyManager;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings("NullAway") public class ConnectivityMaskTest {
+
+  private final Connectivity wifi = Connectivity.state(NetworkInfo.State.CONNECTED)
+      .detailedState(NetworkInfo.DetailedState.CONNECTED)
+      .type(ConnectivityManager.TYPE_WIFI)
+      .available(true)
+      .build();
+
+  private final Connectivity roamingLte = Connectivity.state(NetworkInfo.State.CONNECTED)
+      .detailedState(NetworkInfo.DetailedState.CONNECTED)
+      .type(ConnectivityManager.TYPE_MOBILE)
+      .subType(TelephonyManager.NETWORK_TYPE_LTE)
+      .available(true)
+      .roaming(true)
+      .build();
+
+  @Test public void shouldMatchAllConditionsOfTheBuilder() {
+    // given
+    final ConnectivityMask mask = ConnectivityMask.builder()
+        .state(NetworkInfo.State.CONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .available(true)
+        .build();
+
+    // when
+    final boolean isWifiMatching = mask.test(wifi);
+    final boolean isMobileMatching = mask.test(roamingLte);
+
+    // then
+    assertThat(isWifiMatching).isTrue();
+    assertThat(isMobileMatching).isFalse();
+  }
+
+  @Test public void shouldMatchEveryConnectivityWhenNoConditionIsGiven() {
+    // given
+    final ConnectivityMask mask = ConnectivityMask.builder().build();
+
+    // when
+    final boolean isDefaultMatching = mask.test(Connectivity.create());
+
+    // then
+    assertThat(isDefaultMatching).isTrue();
+    assertThat(mask).isSameInstanceAs(ConnectivityMask.any());
+  }
+
+  @Test public void shouldMatchEitherOfMasks() {
+    // given
+    final ConnectivityMask mask = ConnectivityMask.builder()
+        .type(ConnectivityManager.TYPE_WIFI)
+        .build()
+        .or(ConnectivityMask.builder().subType(TelephonyManager.NETWORK_TYPE_LTE).build());
+
+    // when
+    final boolean isWifiMatching = mask.test(wifi);
+    final boolean isLteMatching = mask.test(roamingLte);
+    final boolean isDefaultMatching = mask.test(Connectivity.create());
+
+    // then
+    assertThat(isWifiMatching).isTrue();
+    assertThat(isLteMatching).isTrue();
+    assertThat(isDefaultMatching).isFalse();
+  }
+
+  @Test public void shouldMatchBothOfMasks() {
+    // given
+    final ConnectivityMask mask = ConnectivityMask.builder()
+        .state(NetworkInfo.State.CONNECTED)
+        .build()
+        .and(ConnectivityMask.builder().roaming(false).build());
+
+    // when
+    final boolean isWifiMatching = mask.test(wifi);
+    final boolean isRoamingMatching = mask.test(roamingLte);
+
+    // then
+    assertThat(isWifiMatching).isTrue();
+    assertThat(isRoamingMatching).isFalse();
+  }
+
+  @Test public void shouldNotMatchAnythingWhenFlagsAreContradictory() {
+    // given
+    final ConnectivityMask roaming = ConnectivityMask.builder().roaming(true).build();
+    final ConnectivityMask notRoaming = ConnectivityMask.builder().roaming(false).build();
+
+    // when
+    final ConnectivityMask mask = roaming.and(notRoaming);
+
+    // then
+    assertThat(mask).isSameInstanceAs(ConnectivityMask.none());
+    assertThat(mask.test(wifi)).isFalse();
+    assertThat(mask.test(roamingLte)).isFalse();
+  }
+
+  @Test public void negatedMaskShouldMatchRejectedConnectivity() {
+    // given
+    final ConnectivityMask mask = ConnectivityMask.builder()
+        .type(ConnectivityManager.TYPE_MOBILE)
+        .roaming(true)
+        .build();
+
+    // when
+    final ConnectivityMask negated = mask.not();
+
+    // then
+    assertThat(negated.test(wifi)).isTrue();
+    assertThat(negated.test(roamingLte)).isFalse();
+    assertThat(negated.test(Connectivity.type(100).build())).isTrue();
+    assertThat(negated.not().test(roamingLte)).isTrue();
+  }
+
+  @Test public void maskShouldMatchUnknownState() {
+    // given
+    final ConnectivityMask mask = ConnectivityMask.builder()
+        .state(NetworkInfo.State.DISCONNECTED)
+        .detailedState(NetworkInfo.DetailedState.IDLE)
+        .type(Connectivity.UNKNOWN_TYPE)
+        .subType(Connectivity.UNKNOWN_SUB_TYPE)
+        .build();
+
+    // when
+    final boolean isDefaultMatching = mask.test(Connectivity.create());
+
+    // then
+    assertThat(isDefaultMatching).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowTypeOutOfSupportedRange() {
+    ConnectivityMask.builder().type(ConnectivityMask.MAX_TYPE + 1);
+  }
+
+  @Test public void hasTypeShouldSupportTypesOutOfMaskRange() throws Exception {
+    // given
+    final Connectivity connectivity = Connectivity.type(100).build();
+
+    // when
+    final boolean isMatching = ConnectivityPredicate.hasType(100).test(connectivity);
+
+    // then
+    assertThat(isMatching).isTrue();
+  }
+}
@@ -18,13 +18,16 @@ package com.github.pwittchen.reactivenetwork.library.rx2;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
+import android.telephony.TelephonyManager;
 import io.reactivex.functions.Predicate;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowNetworkInfo;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.Shadows.shadowOf;
 
 @RunWith(RobolectricTestRunner.class)
 @SuppressWarnings("NullAway") public class ConnectivityTest {
@@ -187,7 +190,11 @@ import static com.google.common.truth.Truth.assertThat;
         + "typeName='NONE', "
         + "subTypeName='NONE', "
         + "reason='', "
-        + "extraInfo=''}";
+        + "extraInfo='', "
+        + "validated=false, "
+        + "metered=false, "
+        + "downstreamBandwidthKbps=0, "
+        + "upstreamBandwidthKbps=0}";
 
     // when
     Connectivity connectivity = Connectivity.create();
@@ -343,4 +350,199 @@ import static com.google.common.truth.Truth.assertThat;
     assertThat(connectivity.reason()).isEmpty();
     assertThat(connectivity.extraInfo()).isEmpty();
   }
+
+  @Test public void shouldReturnTheSameInstanceForTheSameNetworkState() {
+    // given
+    final Context context = RuntimeEnvironment.getApplication().getApplicationContext();
+    final ConnectivityManager connectivityManager =
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    shadowOf(connectivityManager).setActiveNetworkInfo(createNetworkInfo(true));
+
+    // when
+    final Connectivity connectivityOne = Connectivity.create(context);
+    final Connectivity connectivityTwo = Connectivity.create(context);
+
+    // then
+    assertThat(connectivityOne).isSameInstanceAs(connectivityTwo);
+    assertThat(connectivityOne.state()).isEqualTo(NetworkInfo.State.CONNECTED);
+  }
+
+  @Test public void shouldReturnNewInstanceWhenNetworkStateChanges() {
+    // given
+    final Context context = RuntimeEnvironment.getApplication().getApplicationContext();
+    final ConnectivityManager connectivityManager =
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    shadowOf(connectivityManager).setActiveNetworkInfo(createNetworkInfo(true));
+    final Connectivity connected = Connectivity.create(context);
+
+    // when
+    shadowOf(connectivityManager).setActiveNetworkInfo(createNetworkInfo(false));
+    final Connectivity disconnected = Connectivity.create(context);
+
+    // then
+    assertThat(disconnected).isNotEqualTo(connected);
+    assertThat(disconnected.state()).isEqualTo(NetworkInfo.State.DISCONNECTED);
+  }
+
+  @Test public void equalConnectivityObjectsShouldHaveTheSameHashCode() {
+    // given
+    final Connectivity connectivityOne = Connectivity.state(NetworkInfo.State.CONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .typeName(TYPE_NAME_WIFI)
+        .build();
+    final Connectivity connectivityTwo = Connectivity.state(NetworkInfo.State.CONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .typeName(TYPE_NAME_WIFI)
+        .build();
+
+    // when
+    final boolean isTheSameHashCode = connectivityOne.hashCode() == connectivityTwo.hashCode();
+
+    // then
+    assertThat(isTheSameHashCode).isTrue();
+    assertThat(connectivityOne).isEqualTo(connectivityTwo);
+  }
+
+  @Test public void shouldRestoreConnectivityFromPackedValue() {
+    // given
+    final Connectivity connectivity = Connectivity.state(NetworkInfo.State.CONNECTED)
+        .detailedState(NetworkInfo.DetailedState.CONNECTED)
+        .type(ConnectivityManager.TYPE_MOBILE)
+        .subType(TelephonyManager.NETWORK_TYPE_LTE)
+        .available(true)
+        .roaming(true)
+        .build();
+
+    // when
+    final Connectivity restored = Connectivity.packed(connectivity.packed()).build();
+
+    // then
+    assertThat(restored.state()).isEqualTo(NetworkInfo.State.CONNECTED);
+    assertThat(restored.detailedState()).isEqualTo(NetworkInfo.DetailedState.CONNECTED);
+    assertThat(restored.type()).isEqualTo(ConnectivityManager.TYPE_MOBILE);
+    assertThat(restored.subType()).isEqualTo(TelephonyManager.NETWORK_TYPE_LTE);
+    assertThat(restored.available()).isTrue();
+    assertThat(restored.failover()).isFalse();
+    assertThat(restored.roaming()).isTrue();
+    assertThat(restored.packed()).isEqualTo(connectivity.packed());
+  }
+
+  @Test public void shouldKeepUnknownTypesInPackedValue() {
+    // given
+    final Connectivity connectivity = Connectivity.create();
+
+    // when
+    final Connectivity restored = Connectivity.packed(connectivity.packed()).build();
+
+    // then
+    assertThat(restored.type()).isEqualTo(Connectivity.UNKNOWN_TYPE);
+    assertThat(restored.subType()).isEqualTo(Connectivity.UNKNOWN_SUB_TYPE);
+    assertThat(restored).isEqualTo(connectivity);
+  }
+
+  @Test public void shouldKeepBoundaryTypesInPackedValue() {
+    // given
+    final Connectivity connectivity =
+        Connectivity.type(Short.MIN_VALUE).subType(Short.MAX_VALUE).build();
+
+    // when
+    final Connectivity restored = Connectivity.packed(connectivity.packed()).build();
+
+    // then
+    assertThat(restored.type()).isEqualTo(Short.MIN_VALUE);
+    assertThat(restored.subType()).isEqualTo(Short.MAX_VALUE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAcceptTypeNotFittingIntoPackedValue() {
+    // when
+    Connectivity.type(Short.MAX_VALUE + 1);
+
+    // then an exception is thrown
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAcceptSubTypeNotFittingIntoPackedValue() {
+    // when
+    Connectivity.subType(Short.MIN_VALUE - 1);
+
+    // then an exception is thrown
+  }
+
+  @Test public void diffOfTheSameConnectivityObjectsShouldBeEmpty() {
+    // given
+    final Connectivity connectivityOne = Connectivity.state(NetworkInfo.State.CONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .typeName(TYPE_NAME_WIFI)
+        .build();
+    final Connectivity connectivityTwo = Connectivity.state(NetworkInfo.State.CONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .typeName(TYPE_NAME_WIFI)
+        .build();
+
+    // when
+    final int diff = connectivityOne.diff(connectivityTwo);
+
+    // then
+    assertThat(diff).isEqualTo(0);
+  }
+
+  @Test public void diffShouldContainOnlyChangedFields() {
+    // given
+    final Connectivity wifi = Connectivity.state(NetworkInfo.State.CONNECTED)
+        .type(ConnectivityManager.TYPE_WIFI)
+        .typeName(TYPE_NAME_WIFI)
+        .extraInfo("home")
+        .build();
+    final Connectivity mobile = Connectivity.state(NetworkInfo.State.CONNECTED)
+        .type(ConnectivityManager.TYPE_MOBILE)
+        .typeName(TYPE_NAME_MOBILE)
+        .extraInfo("internet")
+        .build();
+
+    // when
+    final int diff = wifi.diff(mobile);
+
+    // then
+    assertThat(diff).isEqualTo(
+        Connectivity.FIELD_TYPE | Connectivity.FIELD_TYPE_NAME | Connectivity.FIELD_EXTRA_INFO);
+  }
+
+  @Test public void diffShouldDetectChangedFlags() {
+    // given
+    final Connectivity connectivity = Connectivity.available(true).build();
+    final Connectivity changed = Connectivity.available(false).roaming(true).failover(true).build();
+
+    // when
+    final int diff = connectivity.diff(changed);
+
+    // then
+    assertThat(diff).isEqualTo(
+        Connectivity.FIELD_AVAILABLE | Connectivity.FIELD_ROAMING | Connectivity.FIELD_FAILOVER);
+  }
+
+  @Test public void diffShouldDetectChangedCapabilities() {
+    // given
+    final Connectivity connectivity = Connectivity.validated(true).metered(false).build();
+    final Connectivity changed = Connectivity.validated(false)
+        .metered(true)
+        .downstreamBandwidthKbps(1000)
+        .build();
+
+    // when
+    final int diff = connectivity.diff(changed);
+
+    // then
+    assertThat(diff).isEqualTo(Connectivity.FIELD_VALIDATED
+        | Connectivity.FIELD_METERED
+        | Connectivity.FIELD_BANDWIDTH);
+    assertThat(Connectivity.packed(changed.packed()).build().metered()).isTrue();
+  }
+
+  private NetworkInfo createNetworkInfo(final boolean isConnected) {
+    return ShadowNetworkInfo.newInstance(
+        isConnected ? NetworkInfo.DetailedState.CONNECTED : NetworkInfo.DetailedState.DISCONNECTED,
+        ConnectivityManager.TYPE_WIFI, 0, isConnected,
+        isConnected ? NetworkInfo.State.CONNECTED : NetworkInfo.State.DISCONNECTED);
+  }
 }
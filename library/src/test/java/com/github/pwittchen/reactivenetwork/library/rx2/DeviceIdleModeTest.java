@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.os.PowerManager;
+import io.reactivex.observers.TestObserver;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowPowerManager;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class DeviceIdleModeTest {
+  private Application context;
+  private ShadowPowerManager powerManager;
+
+  @Before public void setUp() {
+    context = RuntimeEnvironment.getApplication();
+    powerManager = shadowOf((PowerManager) context.getSystemService(Context.POWER_SERVICE));
+  }
+
+  @Test public void shouldBeInIdleMode() {
+    // given
+    powerManager.setIsDeviceIdleMode(true);
+
+    // when
+    final boolean isIdleMode = DeviceIdleMode.isIdleMode(context);
+
+    // then
+    assertThat(isIdleMode).isTrue();
+  }
+
+  @Test public void shouldNotBeInIdleModeWhenIgnoringBatteryOptimizations() {
+    // given
+    powerManager.setIsDeviceIdleMode(true);
+    powerManager.setIgnoringBatteryOptimizations(context.getPackageName(), true);
+
+    // when
+    final boolean isIdleMode = DeviceIdleMode.isIdleMode(context);
+
+    // then
+    assertThat(isIdleMode).isFalse();
+  }
+
+  @Test public void shouldObserveChangesOfIdleMode() {
+    // given
+    final TestObserver<Boolean> observer = DeviceIdleMode.observe(context).test();
+
+    // when
+    powerManager.setIsDeviceIdleMode(true);
+    context.sendBroadcast(new Intent(PowerManager.ACTION_DEVICE_IDLE_MODE_CHANGED));
+    shadowOf(context.getMainLooper()).idle();
+    powerManager.setIsDeviceIdleMode(false);
+    context.sendBroadcast(new Intent(PowerManager.ACTION_DEVICE_IDLE_MODE_CHANGED));
+    shadowOf(context.getMainLooper()).idle();
+
+    // then
+    observer.assertValues(false, true, false);
+    observer.dispose();
+  }
+
+  @Test @Config(sdk = 21) public void shouldNotBeInIdleModeBeforeMarshmallow() {
+    // when
+    final TestObserver<Boolean> observer = DeviceIdleMode.observe(context).test();
+
+    // then
+    observer.assertValues(false);
+    observer.assertComplete();
+  }
+}
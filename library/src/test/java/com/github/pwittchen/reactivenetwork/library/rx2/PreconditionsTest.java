@@ -48,6 +48,11 @@ import static com.google.common.truth.Truth.assertThat;
     assertThat(isAtLeastAndroidMarshmallow).isTrue();
   }
 
+  @Test @Config(sdk = 23) public void shouldNotBeAtLeastAndroidOreoForLowerApi() {
+    boolean isAtLeastAndroidOreo = Preconditions.isAtLeastAndroidOreo();
+    assertThat(isAtLeastAndroidOreo).isFalse();
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void shouldThrowAnExceptionWhenStringIsNull() {
     Preconditions.checkNotNullOrEmpty(null, MSG_STRING_IS_NULL);
@@ -17,26 +17,47 @@ package com.github.pwittchen.reactivenetwork.library.rx2;
 
 import android.app.Application;
 import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
 import android.net.NetworkInfo;
 import androidx.annotation.NonNull;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingSettings;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.NetworkBoundInternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.DefaultErrorHandler;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy.SocketInternetObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.LollipopNetworkObservingStrategy;
+import io.reactivex.BackpressureStrategy;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetwork;
+import org.robolectric.shadows.ShadowNetworkCapabilities;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(shadows = ShadowConnectivityManager.class)
@@ -104,6 +125,25 @@ import static com.google.common.truth.Truth.assertThat;
     assertThat(observable).isNotNull();
   }
 
+  @Test public void observeAllNetworksShouldEmitSnapshotWhenNetworkIsDelivered() {
+    // given
+    final Application context = RuntimeEnvironment.getApplication();
+    final ShadowConnectivityManager connectivityManager = shadowOf(
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
+    final Network network = ShadowNetwork.newInstance(100);
+    final TestObserver<Map<Network, Connectivity>> observer =
+        ReactiveNetwork.observeAllNetworks(context).test();
+
+    // when
+    connectivityManager.getNetworkCallbacks().iterator().next()
+        .onCapabilitiesChanged(network, ShadowNetworkCapabilities.newInstance());
+
+    // then
+    observer.assertValueCount(1);
+    assertThat(observer.values().get(0)).containsKey(network);
+    observer.dispose();
+  }
+
   @Test public void observeInternetConnectivityDefaultShouldNotBeNull() {
     // given
     Observable<Boolean> observable;
@@ -166,6 +206,98 @@ import static com.google.common.truth.Truth.assertThat;
     // then an exception is thrown
   }
 
+  @Test public void observeNetworkConnectivityAsFlowableShouldEmitConnectivity() {
+    // given
+    final Application context = RuntimeEnvironment.getApplication();
+
+    // when
+    final Connectivity connectivity = ReactiveNetwork
+        .observeNetworkConnectivity(context, BackpressureStrategy.LATEST)
+        .blockingFirst();
+
+    // then
+    assertThat(connectivity.state()).isEqualTo(NetworkInfo.State.CONNECTED);
+  }
+
+  @Test public void observeInternetConnectivityAsFlowableShouldUseObservableOfOtherStrategies() {
+    // given
+    final InternetObservingStrategy strategy = mock(InternetObservingStrategy.class);
+    when(strategy.observeInternetConnectivity(anyInt(), anyInt(), anyString(), anyInt(), anyInt(),
+        anyInt(), any(ErrorHandler.class))).thenReturn(Observable.just(true, false));
+    final InternetObservingSettings settings = InternetObservingSettings.builder()
+        .host(TEST_VALID_HOST)
+        .strategy(strategy)
+        .build();
+
+    // when
+    final TestSubscriber<Boolean> subscriber = ReactiveNetwork
+        .observeInternetConnectivity(settings, BackpressureStrategy.LATEST)
+        .test(0);
+    subscriber.request(1);
+
+    // then
+    subscriber.assertValues(false);
+  }
+
+  @Test public void observeInternetConnectivityAsFlowableShouldNotCheckWithoutDemandForLatest() {
+    shouldNotCheckInternetConnectivityWithoutDemand(BackpressureStrategy.LATEST);
+  }
+
+  @Test public void observeInternetConnectivityAsFlowableShouldNotCheckWithoutDemandForDrop() {
+    shouldNotCheckInternetConnectivityWithoutDemand(BackpressureStrategy.DROP);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void observeInternetConnectivityAsFlowableShouldNotAllowBufferingChecksOnDemand() {
+    // given
+    final InternetObservingSettings settings = InternetObservingSettings.builder()
+        .strategy(new SocketInternetObservingStrategy())
+        .build();
+
+    // when
+    ReactiveNetwork.observeInternetConnectivity(settings, BackpressureStrategy.BUFFER);
+
+    // then an exception is thrown
+  }
+
+  private void shouldNotCheckInternetConnectivityWithoutDemand(
+      final BackpressureStrategy backpressureStrategy) {
+    // given
+    final TestScheduler scheduler = new TestScheduler();
+    RxJavaPlugins.setIoSchedulerHandler(ignored -> scheduler);
+    final AtomicInteger checks = new AtomicInteger();
+    final SocketInternetObservingStrategy strategy = new SocketInternetObservingStrategy() {
+      @Override protected boolean isConnected(final String host, final int port,
+          final int timeoutInMs, final ErrorHandler errorHandler) {
+        checks.incrementAndGet();
+        return true;
+      }
+    };
+    final InternetObservingSettings settings = InternetObservingSettings.builder()
+        .initialInterval(0)
+        .interval(TEST_VALID_INTERVAL)
+        .host(TEST_VALID_HOST)
+        .strategy(strategy)
+        .build();
+
+    try {
+      // when
+      final TestSubscriber<Boolean> subscriber = ReactiveNetwork
+          .observeInternetConnectivity(settings, backpressureStrategy)
+          .test(0);
+      scheduler.advanceTimeBy(TEST_VALID_INTERVAL * 10, TimeUnit.MILLISECONDS);
+
+      // then
+      assertThat(checks.get()).isEqualTo(0);
+      subscriber.request(1);
+      scheduler.advanceTimeBy(TEST_VALID_INTERVAL, TimeUnit.MILLISECONDS);
+      assertThat(checks.get()).isEqualTo(1);
+      subscriber.assertValues(true);
+    } finally {
+      RxJavaPlugins.reset();
+    }
+  }
+
   @Test public void observeInternetConnectivityShouldNotThrowAnExceptionWhenStrategyIsNotNull() {
     // given
     final InternetObservingStrategy strategy = new SocketInternetObservingStrategy();
@@ -263,6 +395,45 @@ import static com.google.common.truth.Truth.assertThat;
     assertThat(single).isNotNull();
   }
 
+  @Test public void shouldCheckInternetConnectivityThroughEveryNetwork() {
+    // given
+    final Network wifi = ShadowNetwork.newInstance(1);
+    final Network mobile = ShadowNetwork.newInstance(2);
+    final NetworkBoundInternetObservingStrategy strategy =
+        mock(NetworkBoundInternetObservingStrategy.class);
+    final ErrorHandler errorHandler = createTestErrorHandler();
+    when(strategy.checkInternetConnectivity(eq(wifi), anyString(), anyInt(), anyInt(), anyInt(),
+        eq(errorHandler))).thenReturn(Single.just(false));
+    when(strategy.checkInternetConnectivity(eq(mobile), anyString(), anyInt(), anyInt(), anyInt(),
+        eq(errorHandler))).thenReturn(Single.just(true));
+    final InternetObservingSettings settings = InternetObservingSettings.builder()
+        .errorHandler(errorHandler)
+        .strategy(strategy)
+        .build();
+
+    // when
+    final Map<Network, Boolean> results = ReactiveNetwork
+        .checkInternetConnectivity(Arrays.asList(wifi, mobile), settings)
+        .blockingGet();
+
+    // then
+    assertThat(results).containsExactly(wifi, false, mobile, true);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotCheckConnectivityThroughNetworksWithStrategyNotBoundToNetwork() {
+    // given
+    final InternetObservingSettings settings = InternetObservingSettings.builder()
+        .strategy(createTestInternetObservingStrategy())
+        .build();
+
+    // when
+    ReactiveNetwork.checkInternetConnectivity(Arrays.asList(ShadowNetwork.newInstance(1)),
+        settings);
+
+    // then an exception is thrown
+  }
+
   @NonNull private InternetObservingStrategy createTestInternetObservingStrategy() {
     return new InternetObservingStrategy() {
       @Override public Observable<Boolean> observeInternetConnectivity(int initialIntervalInMs,
@@ -288,11 +459,11 @@ import static com.google.common.truth.Truth.assertThat;
   }
 
   @Test
-  public void shouldHaveJustSevenMethodsInPublicApi() {
+  public void shouldHaveJustTwelveMethodsInPublicApi() {
     // given
     Class<? extends ReactiveNetwork> clazz = ReactiveNetwork.create().getClass();
     final int predefinedNumberOfMethods = 9;
-    final int publicMethodsInApi = 7; // this number can be increased only in reasonable case
+    final int publicMethodsInApi = 12; // this number can be increased only in reasonable case
 
     // when
     Method[] methods = clazz.getMethods();
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2;
+
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.BehaviorSubject;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class RetryWhenOnlineTest {
+  private final BehaviorSubject<Boolean> connectivity = BehaviorSubject.createDefault(false);
+  private final TestScheduler scheduler = new TestScheduler();
+  private final AtomicInteger subscriptions = new AtomicInteger();
+  private RetryWhenOnline retry;
+
+  @Before public void setUp() {
+    retry = RetryWhenOnline.builder(connectivity)
+        .maxRetries(2)
+        .delay(100, 1000, TimeUnit.MILLISECONDS)
+        .jitter(0)
+        .scheduler(scheduler)
+        .build();
+  }
+
+  @Test public void shouldRetryOnlyWhenOnline() {
+    // given
+    final TestObserver<Integer> observer = failing().compose(retry.<Integer>observable()).test();
+    scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+    final int subscriptionsWhileOffline = subscriptions.get();
+
+    // when
+    connectivity.onNext(true);
+    scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+    final int subscriptionsBeforeDelay = subscriptions.get();
+    scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+    // then
+    assertThat(subscriptionsWhileOffline).isEqualTo(1);
+    assertThat(subscriptionsBeforeDelay).isEqualTo(1);
+    assertThat(subscriptions.get()).isEqualTo(2);
+    observer.assertNotTerminated();
+  }
+
+  @Test public void shouldPassErrorWhenRetryBudgetIsExhausted() {
+    // given
+    connectivity.onNext(true);
+    final TestObserver<Integer> observer = failing().compose(retry.<Integer>observable()).test();
+
+    // when
+    scheduler.advanceTimeBy(100 + 200, TimeUnit.MILLISECONDS);
+
+    // then
+    assertThat(subscriptions.get()).isEqualTo(3);
+    observer.assertError(IOException.class);
+  }
+
+  @Test public void shouldShareConnectivityBetweenRetriedStreams() {
+    // given
+    final AtomicInteger connectivitySubscriptions = new AtomicInteger();
+    final RetryWhenOnline shared = RetryWhenOnline.builder(
+        connectivity.doOnSubscribe(disposable -> connectivitySubscriptions.incrementAndGet()))
+        .scheduler(scheduler)
+        .build();
+
+    // when
+    failing().compose(shared.<Integer>observable()).test();
+    failing().compose(shared.<Integer>observable()).test();
+
+    // then
+    assertThat(connectivitySubscriptions.get()).isEqualTo(1);
+    assertThat(subscriptions.get()).isEqualTo(2);
+  }
+
+  @Test public void shouldKeepConnectivitySubscribedBetweenRetries() {
+    // given
+    final AtomicInteger connectivitySubscriptions = new AtomicInteger();
+    final RetryWhenOnline kept = RetryWhenOnline.builder(
+        connectivity.doOnSubscribe(disposable -> connectivitySubscriptions.incrementAndGet()))
+        .maxRetries(2)
+        .delay(100, 1000, TimeUnit.MILLISECONDS)
+        .scheduler(scheduler)
+        .build();
+    connectivity.onNext(true);
+
+    // when
+    final TestObserver<Integer> observer = failing().compose(kept.<Integer>observable()).test();
+    scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+    // then
+    observer.assertError(IOException.class);
+    assertThat(subscriptions.get()).isEqualTo(3);
+    assertThat(connectivitySubscriptions.get()).isEqualTo(1);
+    assertThat(connectivity.hasObservers()).isTrue();
+  }
+
+  @Test public void shouldPassErrorWhenConnectivityCompletesWhileOffline() {
+    // given
+    final TestObserver<Integer> observer = failing().compose(retry.<Integer>observable()).test();
+
+    // when
+    connectivity.onComplete();
+    scheduler.triggerActions();
+
+    // then
+    observer.assertError(IOException.class);
+    assertThat(subscriptions.get()).isEqualTo(1);
+  }
+
+  @Test public void shouldPassErrorAndStopObservingConnectivityWhenDisposed() {
+    // given
+    final TestObserver<Integer> observer = failing().compose(retry.<Integer>observable()).test();
+
+    // when
+    retry.dispose();
+    scheduler.triggerActions();
+
+    // then
+    observer.assertError(IOException.class);
+    assertThat(retry.isDisposed()).isTrue();
+    assertThat(connectivity.hasObservers()).isFalse();
+  }
+
+  @Test public void shouldNotRetryAfterDisposal() {
+    // given
+    connectivity.onNext(true);
+    retry.dispose();
+
+    // when
+    final TestObserver<Integer> observer = failing().compose(retry.<Integer>observable()).test();
+    scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+    // then
+    observer.assertError(IOException.class);
+    assertThat(subscriptions.get()).isEqualTo(1);
+    assertThat(connectivity.hasObservers()).isFalse();
+  }
+
+  @Test public void shouldRetrySingleAndCompletable() {
+    // given
+    connectivity.onNext(true);
+    final TestObserver<Integer> single = Single.defer(() -> subscriptions.incrementAndGet() < 2
+        ? Single.<Integer>error(new IOException()) : Single.just(1))
+        .compose(retry.<Integer>single())
+        .test();
+    final TestObserver<Void> completable = Completable.error(new IOException())
+        .compose(retry.completable())
+        .test();
+
+    // when
+    scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+    // then
+    single.assertResult(1);
+    completable.assertError(IOException.class);
+  }
+
+  @Test public void delayShouldGrowExponentiallyUpToMaxDelay() {
+    // when
+    final long firstDelay = retry.delayInMs(1);
+    final long thirdDelay = retry.delayInMs(3);
+    final long tenthDelay = retry.delayInMs(10);
+
+    // then
+    assertThat(firstDelay).isEqualTo(100);
+    assertThat(thirdDelay).isEqualTo(400);
+    assertThat(tenthDelay).isEqualTo(1000);
+  }
+
+  @Test public void jitteredDelayShouldBeWithinBounds() {
+    // given
+    final RetryWhenOnline jittered = RetryWhenOnline.builder(connectivity)
+        .delay(100, 1000, TimeUnit.MILLISECONDS)
+        .jitter(0.5)
+        .build();
+
+    // when
+    final long delay = jittered.delayInMs(2);
+
+    // then
+    assertThat(delay).isAtLeast(100);
+    assertThat(delay).isAtMost(200);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowJitterGreaterThanOne() {
+    RetryWhenOnline.builder(connectivity).jitter(1.5);
+  }
+
+  private Observable<Integer> failing() {
+    return Observable.defer(() -> {
+      subscriptions.incrementAndGet();
+      return Observable.error(new IOException());
+    });
+  }
+}
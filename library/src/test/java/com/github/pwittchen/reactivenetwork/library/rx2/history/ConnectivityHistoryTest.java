@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.history;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import io.reactivex.subjects.PublishSubject;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class ConnectivityHistoryTest {
+  private static final int CAPACITY = 128;
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Connectivity wifi = Connectivity.state(NetworkInfo.State.CONNECTED)
+      .type(ConnectivityManager.TYPE_WIFI)
+      .build();
+
+  private final Connectivity disconnected = Connectivity.state(NetworkInfo.State.DISCONNECTED)
+      .type(ConnectivityManager.TYPE_WIFI)
+      .build();
+
+  private File file;
+  private ConnectivityHistory history;
+
+  @Before public void setUp() throws IOException {
+    file = folder.newFile();
+    history = ConnectivityHistory.open(file, CAPACITY);
+  }
+
+  @After public void tearDown() throws IOException {
+    history.close();
+  }
+
+  @Test public void shouldFindStateAtGivenTime() {
+    // given
+    history.record(wifi, 1000);
+    history.recordInternetConnectivity(true, 25, 1500);
+    history.record(disconnected, 2000);
+
+    // when
+    final ConnectivityHistory.Record beforeHistory = history.stateAt(999);
+    final ConnectivityHistory.Record wifiRecord = history.stateAt(1000);
+    final ConnectivityHistory.Record internetRecord = history.stateAt(1999);
+    final ConnectivityHistory.Record lastRecord = history.stateAt(5000);
+
+    // then
+    assertThat(beforeHistory).isNull();
+    assertThat(wifiRecord.connectivity().packed()).isEqualTo(wifi.packed());
+    assertThat(wifiRecord.hasInternetConnectivity()).isFalse();
+    assertThat(internetRecord.connectivity().packed()).isEqualTo(wifi.packed());
+    assertThat(internetRecord.isConnectedToInternet()).isTrue();
+    assertThat(internetRecord.rttInMs()).isEqualTo(25);
+    assertThat(lastRecord.timestampInMs()).isEqualTo(2000);
+    assertThat(lastRecord.connectivity().state()).isEqualTo(NetworkInfo.State.DISCONNECTED);
+  }
+
+  @Test public void shouldCalculateUptime() {
+    // given
+    history.record(wifi, 1000);
+    history.recordInternetConnectivity(false, 0, 2000);
+    history.recordInternetConnectivity(true, 10, 3000);
+    history.record(disconnected, 4000);
+
+    // when
+    final long uptime = history.uptime(0, 5000);
+    final long partialUptime = history.uptime(1500, 3500);
+
+    // then
+    assertThat(uptime).isEqualTo(2000); // 1000-2000 connected, 3000-4000 Internet available
+    assertThat(partialUptime).isEqualTo(1000);
+  }
+
+  @Test public void shouldOverwriteOldestRecordsAndKeepSearching() {
+    // given
+    final int records = CAPACITY * 3 + 10;
+
+    // when
+    for (int i = 0; i < records; i++) {
+      history.record(i % 2 == 0 ? wifi : disconnected, i * 10L);
+    }
+
+    // then
+    assertThat(history.size()).isEqualTo(CAPACITY);
+    assertThat(history.stateAt((records - CAPACITY) * 10L - 1)).isNull();
+    for (int i = records - CAPACITY; i < records; i++) {
+      final ConnectivityHistory.Record record = history.stateAt(i * 10L + 5);
+      assertThat(record.timestampInMs()).isEqualTo(i * 10L);
+    }
+  }
+
+  @Test public void shouldContinueHistoryAfterReopening() throws IOException {
+    // given
+    history.record(wifi, 1000);
+    history.recordInternetConnectivity(true, 25, 1500);
+    history.close();
+
+    // when
+    history = ConnectivityHistory.open(file, CAPACITY);
+    history.record(disconnected, 2000);
+
+    // then
+    assertThat(history.size()).isEqualTo(3);
+    assertThat(history.stateAt(2000).isConnectedToInternet()).isTrue();
+    assertThat(history.stateAt(1000).connectivity().packed()).isEqualTo(wifi.packed());
+  }
+
+  @Test public void shouldContinueWrappedHistoryAfterReopening() throws IOException {
+    // given
+    final int records = CAPACITY * 2 + 10;
+    for (int i = 0; i < records; i++) {
+      history.record(i % 2 == 0 ? wifi : disconnected, i * 10L);
+    }
+    history.close();
+
+    // when
+    history = ConnectivityHistory.open(file, CAPACITY);
+    history.recordInternetConnectivity(true, 5, records * 10L);
+
+    // then
+    assertThat(history.size()).isEqualTo(CAPACITY);
+    assertThat(history.stateAt((records - CAPACITY + 1) * 10L - 1)).isNull();
+    assertThat(history.stateAt(records * 10L).connectivity().packed())
+        .isEqualTo(disconnected.packed());
+    assertThat(history.stateAt(records * 10L).isConnectedToInternet()).isTrue();
+  }
+
+  @Test public void shouldClearHistoryOfDifferentCapacity() throws IOException {
+    // given
+    history.record(wifi, 1000);
+    history.close();
+
+    // when
+    history = ConnectivityHistory.open(file, CAPACITY * 2);
+
+    // then
+    assertThat(history.size()).isEqualTo(0);
+    assertThat(history.stateAt(1000)).isNull();
+  }
+
+  @Test public void shouldRecordEmittedConnectivity() {
+    // given
+    final PublishSubject<Connectivity> subject = PublishSubject.create();
+    subject.compose(history.recordConnectivity()).test();
+
+    // when
+    subject.onNext(wifi);
+
+    // then
+    assertThat(history.size()).isEqualTo(1);
+    assertThat(history.stateAt(Long.MAX_VALUE).connectivity().packed()).isEqualTo(wifi.packed());
+  }
+
+  @Test public void shouldRecordFromManyThreads() throws InterruptedException {
+    // given
+    final int threads = 4;
+    final int records = CAPACITY / threads;
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Thread> writers = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      final Thread writer = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException exception) {
+          return;
+        }
+        for (int timestamp = 1; timestamp <= records; timestamp++) {
+          if (timestamp % 2 == 0) {
+            history.record(wifi, timestamp);
+          } else {
+            history.recordInternetConnectivity(true, timestamp, timestamp);
+          }
+        }
+      });
+      writers.add(writer);
+      writer.start();
+    }
+
+    // when
+    start.countDown();
+    for (final Thread writer : writers) {
+      writer.join();
+    }
+
+    // then
+    assertThat(history.size()).isEqualTo(CAPACITY);
+    assertThat(history.stateAt(0)).isNull();
+    for (int timestamp = 1; timestamp <= records; timestamp++) {
+      final ConnectivityHistory.Record record = history.stateAt(timestamp);
+      assertThat(record).isNotNull();
+      assertThat(record.timestampInMs()).isAtMost(timestamp);
+      assertThat(record.connectivity().packed()).isAnyOf(wifi.packed(),
+          Connectivity.create().packed());
+    }
+    assertThat(history.stateAt(records).timestampInMs()).isEqualTo(records);
+    assertThat(history.stateAt(records).isConnectedToInternet()).isTrue();
+  }
+
+  @Test public void shouldNotReadRecordsOverwrittenWhileQuerying() throws InterruptedException {
+    // given
+    final int records = CAPACITY * 200;
+    final Thread writer = new Thread(() -> {
+      for (int i = 0; i < records; i++) {
+        history.record(i % 2 == 0 ? wifi : disconnected, i);
+      }
+    });
+    final List<ConnectivityHistory.Record> torn = new ArrayList<>();
+
+    // when
+    writer.start();
+    while (writer.isAlive()) {
+      for (long time = 0; time < records; time += CAPACITY / 2) {
+        final ConnectivityHistory.Record record = history.stateAt(time);
+        final long expected = record == null || record.timestampInMs() % 2 == 0
+            ? wifi.packed() : disconnected.packed();
+        if (record != null && record.connectivity().packed() != expected) {
+          torn.add(record);
+        }
+      }
+    }
+    writer.join();
+
+    // then
+    assertThat(torn).isEmpty();
+    assertThat(history.stateAt(records).timestampInMs()).isEqualTo(records - 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowNonPositiveCapacity() throws IOException {
+    ConnectivityHistory.open(file, 0);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.history;
+
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class LastKnownConnectivityTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final Connectivity wifi = Connectivity.state(NetworkInfo.State.CONNECTED)
+      .type(ConnectivityManager.TYPE_WIFI)
+      .build();
+
+  private File file;
+
+  @Before public void setUp() throws IOException {
+    file = new File(folder.newFolder(), "connectivity");
+  }
+
+  @Test public void shouldEmitOnlyLiveValuesWithoutPersistedOnes() {
+    // given
+    final PublishSubject<Connectivity> subject = PublishSubject.create();
+    final TestObserver<LastKnown<Connectivity>> observer =
+        subject.compose(create().connectivity()).test();
+
+    // when
+    subject.onNext(wifi);
+
+    // then
+    observer.assertValueCount(1);
+    assertThat(observer.values().get(0).value()).isEqualTo(wifi);
+    assertThat(observer.values().get(0).isStale()).isFalse();
+  }
+
+  @Test public void shouldEmitPersistedConnectivityAsStaleAfterRestart() {
+    // given
+    final PublishSubject<Connectivity> subject = PublishSubject.create();
+    subject.compose(create().connectivity()).test();
+    subject.onNext(wifi);
+
+    // when
+    final TestObserver<LastKnown<Connectivity>> observer =
+        subject.compose(create().connectivity()).test();
+    subject.onNext(Connectivity.create());
+
+    // then
+    observer.assertValueCount(2);
+    assertThat(observer.values().get(0).isStale()).isTrue();
+    assertThat(observer.values().get(0).value().packed()).isEqualTo(wifi.packed());
+    assertThat(observer.values().get(1).isStale()).isFalse();
+    assertThat(observer.values().get(1).value()).isEqualTo(Connectivity.create());
+  }
+
+  @Test public void shouldEmitPersistedInternetConnectivityAsStaleAfterRestart() {
+    // given
+    final PublishSubject<Boolean> subject = PublishSubject.create();
+    final LastKnownConnectivity lastKnownConnectivity = create();
+    subject.compose(lastKnownConnectivity.internetConnectivity()).test();
+    subject.onNext(true);
+    lastKnownConnectivity.recordLatency(100);
+    lastKnownConnectivity.recordLatency(180);
+
+    // when
+    final LastKnownConnectivity restarted = create();
+    final TestObserver<LastKnown<Boolean>> observer =
+        subject.compose(restarted.internetConnectivity()).test();
+
+    // then
+    observer.assertValueCount(1);
+    assertThat(observer.values().get(0).value()).isTrue();
+    assertThat(observer.values().get(0).isStale()).isTrue();
+    assertThat(restarted.latencyInMs()).isEqualTo(110);
+  }
+
+  @Test public void shouldCoalesceWritesMadeBeforeScheduledOne() {
+    // given
+    final List<Runnable> writes = new ArrayList<>();
+    final LastKnownConnectivity lastKnownConnectivity =
+        new LastKnownConnectivity(file, Schedulers.from(writes::add));
+
+    // when
+    lastKnownConnectivity.recordLatency(100);
+    lastKnownConnectivity.recordLatency(100);
+    lastKnownConnectivity.recordLatency(180);
+    writes.get(0).run();
+    lastKnownConnectivity.recordLatency(110);
+
+    // then
+    assertThat(writes).hasSize(2);
+    assertThat(create().latencyInMs()).isEqualTo(110);
+  }
+
+  @Test public void shouldIgnoreInvalidFile() throws IOException {
+    // given
+    assertThat(file.createNewFile()).isTrue();
+
+    // when
+    final TestObserver<LastKnown<Boolean>> observer =
+        PublishSubject.<Boolean>create().compose(create().internetConnectivity()).test();
+
+    // then
+    observer.assertNoValues();
+  }
+
+  private LastKnownConnectivity create() {
+    return new LastKnownConnectivity(file, Schedulers.trampoline());
+  }
+}
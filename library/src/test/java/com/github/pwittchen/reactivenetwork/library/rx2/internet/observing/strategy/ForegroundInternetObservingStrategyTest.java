@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
+
+import android.app.Activity;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class ForegroundInternetObservingStrategyTest {
+  private static final int INITIAL_INTERVAL_IN_MS = 1000;
+  private static final int INTERVAL_IN_MS = 2000;
+  private static final String HOST = "www.website.com";
+  private static final int PORT = 80;
+  private static final int TIMEOUT_IN_MS = 30;
+  private static final int HTTP_RESPONSE = 204;
+
+  @Rule public MockitoRule rule = MockitoJUnit.rule();
+  @Mock private ErrorHandler errorHandler;
+  @Mock private InternetObservingStrategy delegate;
+
+  private final PublishSubject<Boolean> checks = PublishSubject.create();
+  private ForegroundInternetObservingStrategy strategy;
+
+  @Before public void setUp() {
+    when(delegate.observeInternetConnectivity(anyInt(), anyInt(), anyString(), anyInt(), anyInt(),
+        anyInt(), any(ErrorHandler.class))).thenReturn(checks);
+    strategy = new ForegroundInternetObservingStrategy(RuntimeEnvironment.getApplication(),
+        delegate);
+  }
+
+  @Test public void shouldPauseObservingInBackgroundAndCheckImmediatelyInForeground() {
+    // given
+    final ActivityController<Activity> activity = Robolectric.buildActivity(Activity.class);
+    activity.setup();
+    final TestObserver<Boolean> observer = strategy.observeInternetConnectivity(
+        INITIAL_INTERVAL_IN_MS, INTERVAL_IN_MS, HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE,
+        errorHandler).test();
+    checks.onNext(true);
+
+    // when
+    activity.pause().stop();
+    final boolean hasObserversInBackground = checks.hasObservers();
+    activity.start();
+
+    // then
+    assertThat(hasObserversInBackground).isFalse();
+    assertThat(checks.hasObservers()).isTrue();
+    verify(delegate, times(1)).observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, PORT,
+        TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler);
+    observer.assertValues(true);
+    observer.dispose();
+  }
+
+  @Test public void shouldCheckConnectivityWithGivenStrategy() {
+    // when
+    strategy.checkInternetConnectivity(HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler);
+
+    // then
+    verify(delegate, times(1))
+        .checkInternetConnectivity(HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler);
+  }
+}
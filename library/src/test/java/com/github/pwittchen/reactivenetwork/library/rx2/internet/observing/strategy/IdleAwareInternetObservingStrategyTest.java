@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.os.PowerManager;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowPowerManager;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class IdleAwareInternetObservingStrategyTest {
+  private static final int INITIAL_INTERVAL_IN_MS = 1000;
+  private static final int INTERVAL_IN_MS = 2000;
+  private static final String HOST = "www.website.com";
+  private static final int PORT = 80;
+  private static final int TIMEOUT_IN_MS = 30;
+  private static final int HTTP_RESPONSE = 204;
+
+  @Rule public MockitoRule rule = MockitoJUnit.rule();
+  @Mock private ErrorHandler errorHandler;
+  @Mock private InternetObservingStrategy delegate;
+
+  private final PublishSubject<Boolean> checks = PublishSubject.create();
+  private Application context;
+  private ShadowPowerManager powerManager;
+  private IdleAwareInternetObservingStrategy strategy;
+
+  @Before public void setUp() {
+    context = RuntimeEnvironment.getApplication();
+    powerManager = shadowOf((PowerManager) context.getSystemService(Context.POWER_SERVICE));
+    when(delegate.observeInternetConnectivity(anyInt(), anyInt(), anyString(), anyInt(), anyInt(),
+        anyInt(), any(ErrorHandler.class))).thenReturn(checks);
+    strategy = new IdleAwareInternetObservingStrategy(context, delegate);
+  }
+
+  @Test public void shouldPauseObservingInIdleModeAndCheckImmediatelyAfterIt() {
+    // given
+    final TestObserver<Boolean> observer = observe();
+    checks.onNext(true);
+
+    // when
+    setIdleMode(true);
+    final boolean hasObserversInIdleMode = checks.hasObservers();
+    setIdleMode(false);
+
+    // then
+    assertThat(hasObserversInIdleMode).isFalse();
+    verify(delegate).observeInternetConnectivity(INITIAL_INTERVAL_IN_MS, INTERVAL_IN_MS, HOST,
+        PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler);
+    verify(delegate).observeInternetConnectivity(0, INTERVAL_IN_MS, HOST, PORT, TIMEOUT_IN_MS,
+        HTTP_RESPONSE, errorHandler);
+    observer.assertValues(true);
+    observer.dispose();
+  }
+
+  @Test public void shouldNotObserveWhenSubscribedInIdleMode() {
+    // given
+    powerManager.setIsDeviceIdleMode(true);
+
+    // when
+    final TestObserver<Boolean> observer = observe();
+
+    // then
+    verify(delegate, never()).observeInternetConnectivity(anyInt(), anyInt(), anyString(),
+        anyInt(), anyInt(), anyInt(), any(ErrorHandler.class));
+    observer.assertNoValues();
+    observer.dispose();
+  }
+
+  @Test public void shouldCheckConnectivityWithGivenStrategy() {
+    // when
+    strategy.checkInternetConnectivity(HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler);
+
+    // then
+    verify(delegate, times(1))
+        .checkInternetConnectivity(HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler);
+  }
+
+  private TestObserver<Boolean> observe() {
+    return strategy.observeInternetConnectivity(INITIAL_INTERVAL_IN_MS, INTERVAL_IN_MS, HOST,
+        PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler).test();
+  }
+
+  private void setIdleMode(final boolean isIdle) {
+    powerManager.setIsDeviceIdleMode(isIdle);
+    context.sendBroadcast(new Intent(PowerManager.ACTION_DEVICE_IDLE_MODE_CHANGED));
+    shadowOf(context.getMainLooper()).idle();
+  }
+}
@@ -15,15 +15,24 @@
  */
 package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
 
+import android.net.Network;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import javax.net.SocketFactory;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnit;
@@ -31,7 +40,10 @@ import org.mockito.junit.MockitoRule;
 import org.robolectric.RobolectricTestRunner;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -46,11 +58,14 @@ import static org.mockito.Mockito.when;
   private static final int HTTP_RESPONSE = 204;
   private static final String HOST_WITH_HTTP = "http://www.website.com";
   private static final String HOST_WITHOUT_HTTP = "www.website.com";
+  private static final byte[] ADDRESS = { 10, 0, 0, 1 };
 
   @Rule public MockitoRule rule = MockitoJUnit.rule();
   @Spy private SocketInternetObservingStrategy strategy;
   @Mock private ErrorHandler errorHandler;
   @Mock private Socket socket;
+  @Mock private Network network;
+  @Mock private SocketFactory socketFactory;
 
   private String getHost() {
     return strategy.getDefaultPingHost();
@@ -86,6 +101,27 @@ import static org.mockito.Mockito.when;
     assertThat(isConnected).isFalse();
   }
 
+  @Test public void shouldPingHostOnlyWhenThereIsDemand() {
+    // given
+    final String host = getHost();
+    final TestScheduler scheduler = new TestScheduler();
+    RxJavaPlugins.setIoSchedulerHandler(ioScheduler -> scheduler);
+    doReturn(true).when(strategy).isConnected(host, PORT, TIMEOUT_IN_MS, errorHandler);
+    final TestSubscriber<Boolean> subscriber =
+        strategy.observeInternetConnectivityFlowable(INITIAL_INTERVAL_IN_MS, INTERVAL_IN_MS,
+            host, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler).test(0);
+    RxJavaPlugins.reset();
+
+    // when
+    scheduler.advanceTimeBy(INTERVAL_IN_MS * 3, TimeUnit.MILLISECONDS);
+    subscriber.request(1);
+    scheduler.advanceTimeBy(INTERVAL_IN_MS * 3, TimeUnit.MILLISECONDS);
+
+    // then
+    verify(strategy, times(1)).isConnected(host, PORT, TIMEOUT_IN_MS, errorHandler);
+    subscriber.assertValues(true);
+  }
+
   @Test public void shouldNotBeConnectedToTheInternetWhenSocketThrowsAnExceptionOnConnect()
       throws IOException {
     // given
@@ -180,4 +216,70 @@ import static org.mockito.Mockito.when;
     // then
     verify(strategy).adjustHost(host);
   }
+
+  @Test public void shouldConnectSocketCreatedByTheNetwork() throws IOException {
+    // given
+    final InetAddress address = InetAddress.getByAddress(HOST_WITHOUT_HTTP, ADDRESS);
+    when(network.getByName(HOST_WITHOUT_HTTP)).thenReturn(address);
+    when(network.getSocketFactory()).thenReturn(socketFactory);
+    when(socketFactory.createSocket()).thenReturn(socket);
+    when(socket.isConnected()).thenReturn(true);
+
+    // when
+    final boolean isConnected = strategy
+        .checkInternetConnectivity(network, HOST_WITH_HTTP, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE,
+            errorHandler)
+        .blockingGet();
+
+    // then
+    assertThat(isConnected).isTrue();
+    verify(socket).connect(new InetSocketAddress(address, PORT), TIMEOUT_IN_MS);
+  }
+
+  @Test public void shouldResolveHostThroughTheNetwork() throws IOException {
+    // given
+    final InetAddress address = InetAddress.getByAddress(HOST_WITHOUT_HTTP, ADDRESS);
+    when(network.getByName(HOST_WITHOUT_HTTP)).thenReturn(address);
+    when(network.getSocketFactory()).thenReturn(socketFactory);
+    when(socketFactory.createSocket()).thenReturn(socket);
+    final ArgumentCaptor<InetSocketAddress> captor =
+        ArgumentCaptor.forClass(InetSocketAddress.class);
+
+    // when
+    strategy.isConnected(network, HOST_WITHOUT_HTTP, PORT, TIMEOUT_IN_MS, errorHandler);
+
+    // then
+    verify(network).getByName(HOST_WITHOUT_HTTP);
+    verify(socket).connect(captor.capture(), eq(TIMEOUT_IN_MS));
+    assertThat(captor.getValue().getAddress()).isSameInstanceAs(address);
+    assertThat(captor.getValue().isUnresolved()).isFalse();
+  }
+
+  @Test public void shouldNotBeConnectedWhenNetworkCannotResolveHost() throws IOException {
+    // given
+    when(network.getByName(HOST_WITHOUT_HTTP)).thenThrow(new UnknownHostException());
+
+    // when
+    final boolean isConnected =
+        strategy.isConnected(network, HOST_WITHOUT_HTTP, PORT, TIMEOUT_IN_MS, errorHandler);
+
+    // then
+    assertThat(isConnected).isFalse();
+    verify(network, never()).getSocketFactory();
+  }
+
+  @Test public void shouldNotBeConnectedWhenNetworkCannotCreateSocket() throws IOException {
+    // given
+    final IOException exception = new IOException();
+    when(network.getSocketFactory()).thenReturn(socketFactory);
+    when(socketFactory.createSocket()).thenThrow(exception);
+
+    // when
+    final boolean isConnected =
+        strategy.isConnected(network, HOST_WITHOUT_HTTP, PORT, TIMEOUT_IN_MS, errorHandler);
+
+    // then
+    assertThat(isConnected).isFalse();
+    verify(errorHandler).handleError(exception, "Could not create socket bound to the network");
+  }
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2016 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
+
+import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.InternetObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetworkCapabilities;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class ValidatedInternetObservingStrategyTest {
+  private static final String HOST = "www.website.com";
+  private static final int PORT = 80;
+  private static final int TIMEOUT_IN_MS = 30;
+  private static final int HTTP_RESPONSE = 204;
+
+  @Rule public MockitoRule rule = MockitoJUnit.rule();
+  @Mock private ErrorHandler errorHandler;
+  @Mock private InternetObservingStrategy fallbackStrategy;
+
+  private ConnectivityManager manager;
+  private ShadowConnectivityManager connectivityManager;
+  private ValidatedInternetObservingStrategy strategy;
+
+  @Before public void setUp() {
+    // initial validation is checked synchronously, so it's emitted before callback events
+    RxJavaPlugins.setIoSchedulerHandler(scheduler -> Schedulers.trampoline());
+    final Application context = RuntimeEnvironment.getApplication();
+    manager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    connectivityManager = shadowOf(manager);
+    strategy = new ValidatedInternetObservingStrategy(context, fallbackStrategy);
+  }
+
+  @After public void tearDown() {
+    RxJavaPlugins.reset();
+  }
+
+  @Test public void shouldBeConnectedWhenDefaultNetworkIsValidated() {
+    // given
+    final Network network = manager.getActiveNetwork();
+    connectivityManager.setNetworkCapabilities(network,
+        createCapabilities(NetworkCapabilities.NET_CAPABILITY_VALIDATED));
+
+    // when
+    final boolean isConnected = strategy
+        .checkInternetConnectivity(HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler)
+        .blockingGet();
+
+    // then
+    assertThat(isConnected).isTrue();
+  }
+
+  @Test public void shouldNotBeConnectedBehindCaptivePortal() {
+    // given
+    final Network network = manager.getActiveNetwork();
+    connectivityManager.setNetworkCapabilities(network,
+        createCapabilities(NetworkCapabilities.NET_CAPABILITY_VALIDATED,
+            NetworkCapabilities.NET_CAPABILITY_CAPTIVE_PORTAL));
+
+    // when
+    final boolean isConnected = strategy
+        .checkInternetConnectivity(HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE, errorHandler)
+        .blockingGet();
+
+    // then
+    assertThat(isConnected).isFalse();
+  }
+
+  @Test @Config(sdk = 24)
+  public void shouldObserveValidationOfDefaultNetwork() {
+    // given
+    final Network network = manager.getActiveNetwork();
+    final TestObserver<Boolean> observer = strategy
+        .observeInternetConnectivity(0, 2000, HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE,
+            errorHandler)
+        .test();
+    final ConnectivityManager.NetworkCallback callback =
+        connectivityManager.getNetworkCallbacks().iterator().next();
+
+    // when
+    callback.onCapabilitiesChanged(network,
+        createCapabilities(NetworkCapabilities.NET_CAPABILITY_VALIDATED));
+    callback.onCapabilitiesChanged(network,
+        createCapabilities(NetworkCapabilities.NET_CAPABILITY_VALIDATED));
+    callback.onLost(network);
+
+    // then
+    observer.assertValues(false, true, false);
+    observer.dispose();
+    assertThat(connectivityManager.getNetworkCallbacks()).isEmpty();
+  }
+
+  @Test @Config(sdk = 24)
+  public void shouldEmitValidationOfDefaultNetworkWhenItBecomesAvailable() {
+    // given
+    final Network network = manager.getActiveNetwork();
+    final TestObserver<Boolean> observer = strategy
+        .observeInternetConnectivity(0, 2000, HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE,
+            errorHandler)
+        .test();
+    final ConnectivityManager.NetworkCallback callback =
+        connectivityManager.getNetworkCallbacks().iterator().next();
+    connectivityManager.setNetworkCapabilities(network,
+        createCapabilities(NetworkCapabilities.NET_CAPABILITY_VALIDATED));
+
+    // when
+    callback.onAvailable(network);
+
+    // then
+    observer.assertValues(false, true);
+    observer.dispose();
+  }
+
+  @Test @Config(sdk = 26)
+  public void shouldWaitForCapabilitiesOfDefaultNetworkWhenItBecomesAvailable() {
+    // given
+    final Network network = manager.getActiveNetwork();
+    final TestObserver<Boolean> observer = strategy
+        .observeInternetConnectivity(0, 2000, HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE,
+            errorHandler)
+        .test();
+    final ConnectivityManager.NetworkCallback callback =
+        connectivityManager.getNetworkCallbacks().iterator().next();
+    final NetworkCapabilities capabilities =
+        createCapabilities(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+    connectivityManager.setNetworkCapabilities(network, capabilities);
+
+    // when
+    callback.onAvailable(network);
+
+    // then
+    observer.assertValues(false);
+    callback.onCapabilitiesChanged(network, capabilities);
+    observer.assertValues(false, true);
+    observer.dispose();
+  }
+
+  @Test @Config(sdk = 21) public void shouldUseFallbackStrategyBeforeMarshmallow() {
+    // given
+    when(fallbackStrategy.observeInternetConnectivity(0, 2000, HOST, PORT, TIMEOUT_IN_MS,
+        HTTP_RESPONSE, errorHandler)).thenReturn(Observable.just(true));
+
+    // when
+    final boolean isConnected = strategy
+        .observeInternetConnectivity(0, 2000, HOST, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE,
+            errorHandler)
+        .blockingFirst();
+
+    // then
+    assertThat(isConnected).isTrue();
+    verify(fallbackStrategy).observeInternetConnectivity(0, 2000, HOST, PORT, TIMEOUT_IN_MS,
+        HTTP_RESPONSE, errorHandler);
+  }
+
+  private static NetworkCapabilities createCapabilities(final int... capabilities) {
+    final NetworkCapabilities networkCapabilities = ShadowNetworkCapabilities.newInstance();
+    for (int capability : capabilities) {
+      shadowOf(networkCapabilities).addCapability(capability);
+    }
+    return networkCapabilities;
+  }
+}
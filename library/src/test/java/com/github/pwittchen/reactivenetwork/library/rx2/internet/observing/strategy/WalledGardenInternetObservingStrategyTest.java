@@ -15,11 +15,13 @@
  */
 package com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.strategy;
 
+import android.net.Network;
 import com.github.pwittchen.reactivenetwork.library.rx2.internet.observing.error.ErrorHandler;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.net.URL;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -31,6 +33,7 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +52,8 @@ import static org.mockito.Mockito.when;
 
   @Rule public MockitoRule rule = MockitoJUnit.rule();
   @Mock private ErrorHandler errorHandler;
+  @Mock private Network network;
+  @Mock private HttpURLConnection networkConnection;
   @Spy private WalledGardenInternetObservingStrategy strategy;
 
   private String getHost() {
@@ -234,4 +239,23 @@ import static org.mockito.Mockito.when;
       }
     };
   }
+
+  @Test public void shouldCheckConnectivityThroughConnectionOpenedByTheNetwork()
+      throws IOException {
+    // given
+    when(network.openConnection(any(URL.class))).thenReturn(networkConnection);
+    when(networkConnection.getResponseCode()).thenReturn(HTTP_RESPONSE);
+
+    // when
+    final boolean isConnected = strategy
+        .checkInternetConnectivity(network, HOST_WITHOUT_HTTPS, PORT, TIMEOUT_IN_MS, HTTP_RESPONSE,
+            errorHandler)
+        .blockingGet();
+
+    // then
+    assertThat(isConnected).isTrue();
+    verify(network).openConnection(new URL("https", HOST_WITHOUT_HTTPS, PORT, ""));
+    verify(networkConnection).setConnectTimeout(TIMEOUT_IN_MS);
+    verify(networkConnection).disconnect();
+  }
 }
@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.Intent;
+import android.net.ConnectivityManager;
+import android.net.ConnectivityManager.NetworkCallback;
+import android.net.Network;
+import android.net.NetworkInfo;
+import android.os.Looper;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.LollipopNetworkObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.MarshmallowNetworkObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.PreLollipopNetworkObservingStrategy;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy.SharedNetworkObservingStrategy;
+import io.reactivex.Observable;
+import io.reactivex.observers.DisposableObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetwork;
+import org.robolectric.shadows.ShadowNetworkInfo;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Subscribes and disposes thousands of observers against each network observing strategy
+ * while simulated network callbacks and broadcasts are delivered. Size of the storm can be
+ * changed with soak.subscribers and soak.events system properties. Memory retained by the
+ * strategies is bounded by counting callbacks and receivers, which reference the observers.
+ */
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class NetworkObservingStrategySoakTest {
+  private static final int SUBSCRIBERS = Integer.getInteger("soak.subscribers", 1000);
+  private static final int EVENTS = Integer.getInteger("soak.events", 20);
+  private static final long MAX_EMISSION_LATENCY_IN_MS = 1000;
+  private static final int LEAVING = (SUBSCRIBERS + 1) / 2;
+  private static final int REMAINING = SUBSCRIBERS - LEAVING;
+
+  private Application context;
+  private ShadowConnectivityManager connectivityManager;
+  private Network network;
+  private NetworkInfo connected;
+  private NetworkInfo disconnected;
+  private int registrationsBefore;
+
+  @Before public void setUp() {
+    // initial Connectivity is emitted synchronously, so the counts of values are deterministic
+    RxJavaPlugins.setIoSchedulerHandler(scheduler -> Schedulers.trampoline());
+    context = RuntimeEnvironment.getApplication();
+    connectivityManager = shadowOf(
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
+    network = ShadowNetwork.newInstance(1);
+    connected = ShadowNetworkInfo.newInstance(NetworkInfo.DetailedState.CONNECTED,
+        ConnectivityManager.TYPE_WIFI, 0, true, NetworkInfo.State.CONNECTED);
+    disconnected = ShadowNetworkInfo.newInstance(NetworkInfo.DetailedState.DISCONNECTED,
+        ConnectivityManager.TYPE_WIFI, 0, false, NetworkInfo.State.DISCONNECTED);
+    connectivityManager.setActiveNetworkInfo(connected);
+    registrationsBefore = countRegistrations();
+  }
+
+  @After public void tearDown() {
+    RxJavaPlugins.reset();
+  }
+
+  @Test public void lollipopStrategyShouldSurviveStormOfSubscribersSharingObservable() {
+    // given
+    final Observable<Connectivity> observable =
+        new LollipopNetworkObservingStrategy().observeNetworkConnectivity(context);
+
+    // when
+    final Storm storm = runStorm(new Callable<Observable<Connectivity>>() {
+      @Override public Observable<Connectivity> call() {
+        return observable;
+      }
+    }, true);
+
+    // then
+    assertWithinBounds(storm, 1, SUBSCRIBERS, REMAINING);
+  }
+
+  @Test public void lollipopStrategyShouldSurviveStormOfSubscribersWithOwnStrategies() {
+    // when
+    final Storm storm = runStorm(new Callable<Observable<Connectivity>>() {
+      @Override public Observable<Connectivity> call() {
+        return new LollipopNetworkObservingStrategy().observeNetworkConnectivity(context);
+      }
+    }, true);
+
+    // then
+    assertWithinBounds(storm, 1, SUBSCRIBERS, REMAINING);
+  }
+
+  @Test public void marshmallowStrategyShouldSurviveStormOfSubscribersSharingObservable() {
+    // given
+    final Observable<Connectivity> observable =
+        new MarshmallowNetworkObservingStrategy().observeNetworkConnectivity(context);
+
+    // when
+    final Storm storm = runStorm(new Callable<Observable<Connectivity>>() {
+      @Override public Observable<Connectivity> call() {
+        return observable;
+      }
+    }, true);
+
+    // then
+    assertWithinBounds(storm, 1, 2, 2);
+  }
+
+  @Test public void marshmallowStrategyShouldSurviveStormOfSubscribersWithOwnStrategies() {
+    // when
+    final Storm storm = runStorm(new Callable<Observable<Connectivity>>() {
+      @Override public Observable<Connectivity> call() {
+        return new MarshmallowNetworkObservingStrategy().observeNetworkConnectivity(context);
+      }
+    }, true);
+
+    // then
+    assertWithinBounds(storm, 1, 2 * SUBSCRIBERS, 2 * REMAINING);
+  }
+
+  @Test public void marshmallowStrategyShouldSurviveStormOfSubscribersOfTwoObservables() {
+    // given
+    final MarshmallowNetworkObservingStrategy strategy = new MarshmallowNetworkObservingStrategy();
+    final List<Observable<Connectivity>> observables = Arrays.asList(
+        strategy.observeNetworkConnectivity(context), strategy.observeNetworkConnectivity(context));
+
+    // when
+    final Storm storm = runStorm(new Callable<Observable<Connectivity>>() {
+      private int subscribed;
+
+      // subscribers of the first Observable leave in the middle of the storm
+      @Override public Observable<Connectivity> call() {
+        return observables.get(subscribed++ % 2);
+      }
+    }, true);
+
+    // then
+    assertWithinBounds(storm, 1, 4, 2);
+  }
+
+  @Test public void marshmallowStrategyShouldSurviveStormAfterAllSubscribersWereGone() {
+    // given
+    final Observable<Connectivity> observable =
+        new MarshmallowNetworkObservingStrategy().observeNetworkConnectivity(context);
+    final Callable<Observable<Connectivity>> observables =
+        new Callable<Observable<Connectivity>>() {
+          @Override public Observable<Connectivity> call() {
+            return observable;
+          }
+        };
+    assertWithinBounds(runStorm(observables, true), 1, 2, 2);
+
+    // when
+    final Storm storm = runStorm(observables, true);
+
+    // then
+    assertWithinBounds(storm, 1, 2, 2);
+  }
+
+  @Test public void sharedStrategyShouldSurviveStormOfSubscribers() {
+    // given
+    final NetworkObservingStrategy strategy =
+        new SharedNetworkObservingStrategy(new LollipopNetworkObservingStrategy());
+
+    // when
+    final Storm storm = runStorm(new Callable<Observable<Connectivity>>() {
+      @Override public Observable<Connectivity> call() {
+        return strategy.observeNetworkConnectivity(context);
+      }
+    }, true);
+
+    // then
+    assertWithinBounds(storm, 1, 1, 1);
+  }
+
+  @Test public void preLollipopStrategyShouldSurviveStormOfSubscribersSharingObservable() {
+    // given
+    final Observable<Connectivity> observable =
+        new PreLollipopNetworkObservingStrategy().observeNetworkConnectivity(context);
+
+    // when
+    final Storm storm = runStorm(new Callable<Observable<Connectivity>>() {
+      @Override public Observable<Connectivity> call() {
+        return observable;
+      }
+    }, false);
+
+    // then
+    assertWithinBounds(storm, 0, SUBSCRIBERS, REMAINING);
+  }
+
+  @Test public void preLollipopStrategyShouldSurviveStormOfSubscribersWithOwnStrategies() {
+    // when
+    final Storm storm = runStorm(new Callable<Observable<Connectivity>>() {
+      @Override public Observable<Connectivity> call() {
+        return new PreLollipopNetworkObservingStrategy().observeNetworkConnectivity(context);
+      }
+    }, false);
+
+    // then
+    assertWithinBounds(storm, 0, SUBSCRIBERS, REMAINING);
+  }
+
+  private Storm runStorm(final Callable<Observable<Connectivity>> observables,
+      final boolean viaNetworkCallbacks) {
+    final Storm storm = new Storm();
+    subscribeFireAndDispose(storm, observables, viaNetworkCallbacks);
+    storm.registrationsAfter = countRegistrations();
+    return storm;
+  }
+
+  private void subscribeFireAndDispose(final Storm storm,
+      final Callable<Observable<Connectivity>> observables, final boolean viaNetworkCallbacks) {
+    final List<SoakObserver> observers = new ArrayList<>(SUBSCRIBERS);
+    for (int i = 0; i < SUBSCRIBERS; i++) {
+      final SoakObserver observer = new SoakObserver(storm);
+      try {
+        observables.call().subscribe(observer);
+      } catch (Exception exception) {
+        throw new AssertionError(exception);
+      }
+      observers.add(observer);
+    }
+    storm.registrationsAtPeak = countRegistrations();
+
+    fireEvents(storm, 0, EVENTS / 2, viaNetworkCallbacks);
+    // half of the subscribers leaves in the middle of the storm, the rest should not notice it
+    for (int i = 0; i < observers.size(); i += 2) {
+      disposeAndCount(storm, observers.get(i));
+    }
+    storm.registrationsAfterHalfLeft = countRegistrations();
+    fireEvents(storm, EVENTS / 2, EVENTS, viaNetworkCallbacks);
+    for (int i = 1; i < observers.size(); i += 2) {
+      disposeAndCount(storm, observers.get(i));
+    }
+  }
+
+  private void fireEvents(final Storm storm, final int from, final int to,
+      final boolean viaNetworkCallbacks) {
+    for (int event = from; event < to; event++) {
+      final boolean isConnected = event % 2 == 1;
+      connectivityManager.setActiveNetworkInfo(isConnected ? connected : disconnected);
+      storm.firedAt = System.nanoTime();
+      if (viaNetworkCallbacks) {
+        fireNetworkCallbacks(isConnected);
+      } else {
+        fireBroadcast();
+      }
+    }
+  }
+
+  private static void disposeAndCount(final Storm storm, final SoakObserver observer) {
+    observer.dispose();
+    storm.received += observer.received;
+  }
+
+  private void fireNetworkCallbacks(final boolean isConnected) {
+    // copy, because callbacks can be unregistered while being notified
+    for (NetworkCallback callback : new ArrayList<>(connectivityManager.getNetworkCallbacks())) {
+      if (isConnected) {
+        callback.onAvailable(network);
+      } else {
+        callback.onLost(network);
+      }
+    }
+  }
+
+  private void fireBroadcast() {
+    context.sendBroadcast(new Intent(ConnectivityManager.CONNECTIVITY_ACTION));
+    shadowOf(Looper.getMainLooper()).idle();
+  }
+
+  /**
+   * Counts network callbacks and broadcast receivers registered by the strategies, which are the
+   * only references from the system to the observers
+   */
+  private int countRegistrations() {
+    // disposing may be posted to the main thread
+    shadowOf(Looper.getMainLooper()).idle();
+    return connectivityManager.getNetworkCallbacks().size()
+        + shadowOf(context).getRegisteredReceivers().size();
+  }
+
+  private void assertWithinBounds(final Storm storm, final int initialEvents,
+      final int registrationsAtPeak, final int registrationsAfterHalfLeft) {
+    final long expected = (long) SUBSCRIBERS * (initialEvents + EVENTS / 2)
+        + (long) REMAINING * (EVENTS - EVENTS / 2);
+    assertThat(storm.received).isEqualTo(expected);
+    assertThat(storm.errors).isEqualTo(0);
+    assertThat(TimeUnit.NANOSECONDS.toMillis(storm.maxLatencyNs))
+        .isLessThan(MAX_EMISSION_LATENCY_IN_MS);
+    assertThat(storm.registrationsAtPeak - registrationsBefore).isEqualTo(registrationsAtPeak);
+    assertThat(storm.registrationsAfterHalfLeft - registrationsBefore)
+        .isEqualTo(registrationsAfterHalfLeft);
+    assertThat(storm.registrationsAfter).isEqualTo(registrationsBefore);
+  }
+
+  private static final class Storm {
+    private long firedAt;
+    private long maxLatencyNs;
+    private long received;
+    private int errors;
+    private int registrationsAtPeak;
+    private int registrationsAfterHalfLeft;
+    private int registrationsAfter;
+  }
+
+  private static final class SoakObserver extends DisposableObserver<Connectivity> {
+    private final Storm storm;
+    private int received;
+
+    SoakObserver(final Storm storm) {
+      this.storm = storm;
+    }
+
+    @Override public void onNext(final Connectivity connectivity) {
+      received++;
+      if (storm.firedAt > 0) {
+        storm.maxLatencyNs = Math.max(storm.maxLatencyNs, System.nanoTime() - storm.firedAt);
+      }
+    }
+
+    @Override public void onError(final Throwable throwable) {
+      storm.errors++;
+    }
+
+    @Override public void onComplete() {
+    }
+  }
+}
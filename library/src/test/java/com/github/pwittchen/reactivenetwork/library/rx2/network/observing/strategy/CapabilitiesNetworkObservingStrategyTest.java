@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetwork;
+import org.robolectric.shadows.ShadowNetworkCapabilities;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 24)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class CapabilitiesNetworkObservingStrategyTest {
+  // id of a network unknown to ConnectivityManager, so it has no capabilities until delivered
+  private static final int NETWORK_ID = 100;
+
+  private Application context;
+  private ShadowConnectivityManager connectivityManager;
+  private NetworkObservingStrategy strategy;
+
+  @Before public void setUp() {
+    // initial Connectivity is emitted synchronously, so the counts of values are deterministic
+    RxJavaPlugins.setIoSchedulerHandler(scheduler -> Schedulers.trampoline());
+    context = RuntimeEnvironment.getApplication();
+    connectivityManager = shadowOf(
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
+    strategy = new CapabilitiesNetworkObservingStrategy();
+  }
+
+  @After public void tearDown() {
+    RxJavaPlugins.reset();
+  }
+
+  @Test public void shouldCreateConnectivityFromCapabilities() {
+    // given
+    final TestObserver<Connectivity> observer = strategy.observeNetworkConnectivity(context).test();
+    final ConnectivityManager.NetworkCallback callback = getCallback();
+    final Network network = ShadowNetwork.newInstance(NETWORK_ID);
+    final NetworkCapabilities capabilities = ShadowNetworkCapabilities.newInstance();
+    shadowOf(capabilities).addTransportType(NetworkCapabilities.TRANSPORT_CELLULAR);
+    shadowOf(capabilities).addCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+    shadowOf(capabilities).setLinkDownstreamBandwidthKbps(5000);
+
+    // when
+    callback.onAvailable(network);
+    callback.onCapabilitiesChanged(network, capabilities);
+
+    // then
+    observer.assertValueCount(2);
+    final Connectivity connectivity = observer.values().get(1);
+    assertThat(connectivity.state()).isEqualTo(NetworkInfo.State.CONNECTED);
+    assertThat(connectivity.type()).isEqualTo(ConnectivityManager.TYPE_MOBILE);
+    assertThat(connectivity.typeName()).isEqualTo("MOBILE");
+    assertThat(connectivity.validated()).isTrue();
+    assertThat(connectivity.metered()).isTrue();
+    assertThat(connectivity.downstreamBandwidthKbps()).isEqualTo(5000);
+    observer.dispose();
+  }
+
+  @Test public void shouldEmitConnectivityWhenNetworkBecomesAvailable() {
+    // given
+    final TestObserver<Connectivity> observer = strategy.observeNetworkConnectivity(context).test();
+    final ConnectivityManager.NetworkCallback callback = getCallback();
+    final Network network = ShadowNetwork.newInstance(NETWORK_ID);
+    final NetworkCapabilities capabilities = ShadowNetworkCapabilities.newInstance();
+    shadowOf(capabilities).addTransportType(NetworkCapabilities.TRANSPORT_WIFI);
+    connectivityManager.setNetworkCapabilities(network, capabilities);
+
+    // when
+    callback.onAvailable(network);
+
+    // then
+    observer.assertValueCount(2);
+    assertThat(observer.values().get(1).type()).isEqualTo(ConnectivityManager.TYPE_WIFI);
+    observer.dispose();
+  }
+
+  @Test @Config(sdk = 26)
+  public void shouldWaitForCapabilitiesInsteadOfQueryingThemWhenNetworkBecomesAvailable() {
+    // given
+    final TestObserver<Connectivity> observer = strategy.observeNetworkConnectivity(context).test();
+    final ConnectivityManager.NetworkCallback callback = getCallback();
+    final Network network = ShadowNetwork.newInstance(NETWORK_ID);
+    final NetworkCapabilities capabilities = ShadowNetworkCapabilities.newInstance();
+    shadowOf(capabilities).addTransportType(NetworkCapabilities.TRANSPORT_WIFI);
+    connectivityManager.setNetworkCapabilities(network, capabilities);
+
+    // when
+    callback.onAvailable(network);
+
+    // then
+    observer.assertValueCount(1);
+    callback.onCapabilitiesChanged(network, capabilities);
+    observer.assertValueCount(2);
+    assertThat(observer.values().get(1).type()).isEqualTo(ConnectivityManager.TYPE_WIFI);
+    observer.dispose();
+  }
+
+  @Test public void shouldEmitDisconnectedConnectivityWhenCurrentNetworkIsLost() {
+    // given
+    final TestObserver<Connectivity> observer = strategy.observeNetworkConnectivity(context).test();
+    final ConnectivityManager.NetworkCallback callback = getCallback();
+    final Network network = ShadowNetwork.newInstance(1);
+    final NetworkCapabilities capabilities = ShadowNetworkCapabilities.newInstance();
+    shadowOf(capabilities).addTransportType(NetworkCapabilities.TRANSPORT_WIFI);
+    callback.onAvailable(network);
+    callback.onCapabilitiesChanged(network, capabilities);
+
+    // when
+    callback.onLost(ShadowNetwork.newInstance(2));
+    callback.onLost(network);
+
+    // then
+    observer.assertValueCount(3);
+    assertThat(observer.values().get(1).type()).isEqualTo(ConnectivityManager.TYPE_WIFI);
+    assertThat(observer.values().get(2)).isEqualTo(Connectivity.create());
+    observer.dispose();
+  }
+
+  @Test public void shouldUnregisterCallbackOnDispose() {
+    // given
+    final TestObserver<Connectivity> observer = strategy.observeNetworkConnectivity(context).test();
+
+    // when
+    observer.dispose();
+
+    // then
+    assertThat(connectivityManager.getNetworkCallbacks()).isEmpty();
+  }
+
+  private ConnectivityManager.NetworkCallback getCallback() {
+    assertThat(connectivityManager.getNetworkCallbacks()).hasSize(1);
+    return connectivityManager.getNetworkCallbacks().iterator().next();
+  }
+}
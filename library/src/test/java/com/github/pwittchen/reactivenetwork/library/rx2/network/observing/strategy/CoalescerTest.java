@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import io.reactivex.schedulers.TestScheduler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in tests
+public class CoalescerTest {
+  private final TestScheduler scheduler = new TestScheduler();
+  private final List<String> actions = new ArrayList<>();
+  private final Coalescer coalescer =
+      new Coalescer(CoalescingWindow.create(100, 250, TimeUnit.MILLISECONDS), scheduler);
+
+  @Test public void shouldRunLatestActionOnceAfterBurst() {
+    // when
+    coalescer.onEvent(action("lost"));
+    scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+    coalescer.onEvent(action("available"));
+    scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+    final List<String> actionsWithinWindow = new ArrayList<>(actions);
+    scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+    // then
+    assertThat(actionsWithinWindow).isEmpty();
+    assertThat(actions).containsExactly("available");
+  }
+
+  @Test public void shouldNotDelayActionLongerThanMaxDelay() {
+    // when
+    for (int i = 0; i < 10; i++) {
+      coalescer.onEvent(action("event " + i));
+      scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+    }
+
+    // then
+    assertThat(actions).containsExactly("event 4", "event 9").inOrder();
+  }
+
+  @Test public void shouldNotRunActionAfterCancel() {
+    // given
+    coalescer.onEvent(action("lost"));
+
+    // when
+    coalescer.cancel();
+    scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+    // then
+    assertThat(actions).isEmpty();
+  }
+
+  @Test public void shouldRunActionImmediatelyWithoutWindow() {
+    // given
+    final Coalescer coalescer = new Coalescer(CoalescingWindow.none(), scheduler);
+
+    // when
+    coalescer.onEvent(action("lost"));
+    coalescer.onEvent(action("available"));
+
+    // then
+    assertThat(actions).containsExactly("lost", "available").inOrder();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowMaxDelayShorterThanWindow() {
+    CoalescingWindow.create(100, 50, TimeUnit.MILLISECONDS);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowEmptyWindow() {
+    CoalescingWindow.create(0, 50, TimeUnit.MILLISECONDS);
+  }
+
+  private Runnable action(final String name) {
+    return () -> actions.add(name);
+  }
+}
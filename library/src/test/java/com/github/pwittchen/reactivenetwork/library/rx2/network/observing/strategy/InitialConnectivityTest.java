@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.app.Application;
+import android.net.NetworkInfo;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class InitialConnectivityTest {
+  private final TestScheduler scheduler = new TestScheduler();
+  private final PublishSubject<Connectivity> events = PublishSubject.create();
+  private Application context;
+
+  @Before public void setUp() {
+    context = RuntimeEnvironment.getApplication();
+    RxJavaPlugins.setIoSchedulerHandler(ioScheduler -> scheduler);
+  }
+
+  @After public void tearDown() {
+    RxJavaPlugins.reset();
+  }
+
+  @Test public void shouldCreateInitialConnectivityOnIoScheduler() {
+    // given
+    final TestObserver<Connectivity> observer =
+        InitialConnectivity.startWith(events, context).test();
+    final int valuesBeforeIoScheduler = observer.valueCount();
+
+    // when
+    scheduler.triggerActions();
+
+    // then
+    assertThat(valuesBeforeIoScheduler).isEqualTo(0);
+    observer.assertValueCount(1);
+    assertThat(observer.values().get(0).state()).isEqualTo(NetworkInfo.State.CONNECTED);
+  }
+
+  @Test public void shouldDropInitialConnectivityWhenEventArrivesFirst() {
+    // given
+    final TestObserver<Connectivity> observer =
+        InitialConnectivity.startWith(events, context).test();
+
+    // when
+    events.onNext(Connectivity.create());
+    scheduler.triggerActions();
+
+    // then
+    observer.assertValues(Connectivity.create());
+  }
+
+  @Test public void shouldPassEventsAfterInitialConnectivity() {
+    // given
+    final TestObserver<Connectivity> observer =
+        InitialConnectivity.startWith(events, context).test();
+    scheduler.triggerActions();
+
+    // when
+    events.onNext(Connectivity.create());
+
+    // then
+    observer.assertValueCount(2);
+    assertThat(observer.values().get(1)).isEqualTo(Connectivity.create());
+  }
+}
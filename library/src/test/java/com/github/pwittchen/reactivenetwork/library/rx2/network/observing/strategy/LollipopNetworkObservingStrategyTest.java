@@ -17,11 +17,21 @@ package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strat
 
 import android.app.Application;
 import android.content.Context;
+import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
+import android.os.Handler;
+import android.os.HandlerThread;
 import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
 import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
 import io.reactivex.Observable;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,10 +40,12 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowNetwork;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
 
 @RunWith(RobolectricTestRunner.class)
 @SuppressWarnings("NullAway") public class LollipopNetworkObservingStrategyTest {
@@ -41,6 +53,15 @@ import static org.mockito.Mockito.verify;
   @Rule public MockitoRule rule = MockitoJUnit.rule();
   @Spy private NetworkObservingStrategy strategy = new LollipopNetworkObservingStrategy();
 
+  @Before public void setUp() {
+    // initial Connectivity is emitted synchronously, so the counts of values are deterministic
+    RxJavaPlugins.setIoSchedulerHandler(scheduler -> Schedulers.trampoline());
+  }
+
+  @After public void tearDown() {
+    RxJavaPlugins.reset();
+  }
+
   @Test public void shouldObserveConnectivity() {
     // given
     final NetworkObservingStrategy strategy = new LollipopNetworkObservingStrategy();
@@ -79,4 +100,60 @@ import static org.mockito.Mockito.verify;
     // then
     verify(strategy, times(1)).onError(message, exception);
   }
+
+  @Test public void shouldDeliverNetworkEventsOnGivenHandler() {
+    // given
+    final HandlerThread thread = new HandlerThread("network events");
+    thread.start();
+    final Application context = RuntimeEnvironment.getApplication();
+    final NetworkObservingStrategy strategy =
+        new LollipopNetworkObservingStrategy(new Handler(thread.getLooper()));
+    final AtomicReference<Thread> eventThread = new AtomicReference<>();
+    final TestObserver<Connectivity> observer = strategy.observeNetworkConnectivity(context)
+        .skip(1)
+        .doOnNext(connectivity -> eventThread.set(Thread.currentThread()))
+        .test();
+    final ConnectivityManager manager =
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    shadowOf(manager).setActiveNetworkInfo(null);
+
+    // when
+    shadowOf(manager).getNetworkCallbacks().iterator().next()
+        .onLost(ShadowNetwork.newInstance(1));
+    observer.awaitCount(1, TestObserver.TestWaitStrategy.SLEEP_1MS, TimeUnit.SECONDS.toMillis(5));
+
+    // then
+    observer.assertValueCount(1);
+    assertThat(eventThread.get()).isSameInstanceAs(thread);
+    observer.dispose();
+    thread.quit();
+  }
+
+  @Test public void shouldCollapseBurstOfNetworkEvents() {
+    // given
+    final TestScheduler scheduler = new TestScheduler();
+    RxJavaPlugins.setIoSchedulerHandler(ignored -> scheduler);
+    final Application context = RuntimeEnvironment.getApplication();
+    final NetworkObservingStrategy strategy = new LollipopNetworkObservingStrategy(null,
+        CoalescingWindow.create(100, 500, TimeUnit.MILLISECONDS));
+    final TestObserver<Connectivity> observer =
+        strategy.observeNetworkConnectivity(context).skip(1).test();
+    scheduler.triggerActions();
+    final ConnectivityManager manager =
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    final ConnectivityManager.NetworkCallback callback =
+        shadowOf(manager).getNetworkCallbacks().iterator().next();
+    shadowOf(manager).setActiveNetworkInfo(null);
+
+    // when
+    callback.onLost(ShadowNetwork.newInstance(1));
+    callback.onAvailable(ShadowNetwork.newInstance(2));
+    callback.onLost(ShadowNetwork.newInstance(2));
+    scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+    // then
+    observer.assertValueCount(1);
+    assertThat(observer.values().get(0).state()).isEqualTo(NetworkInfo.State.DISCONNECTED);
+    observer.dispose();
+  }
 }
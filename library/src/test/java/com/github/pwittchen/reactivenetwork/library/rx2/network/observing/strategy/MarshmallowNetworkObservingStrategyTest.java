@@ -28,7 +28,10 @@ import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
 import io.reactivex.Observable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subscribers.TestSubscriber;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -43,6 +46,7 @@ import org.robolectric.RuntimeEnvironment;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -64,9 +68,15 @@ import static org.mockito.Mockito.when;
   @Spy private Context context;
 
   @Before public void setUp() {
+    // initial Connectivity is emitted synchronously, so the counts of values are deterministic
+    RxJavaPlugins.setIoSchedulerHandler(scheduler -> Schedulers.trampoline());
     context = RuntimeEnvironment.getApplication().getApplicationContext();
   }
 
+  @After public void tearDown() {
+    RxJavaPlugins.reset();
+  }
+
   @Test public void shouldObserveConnectivity() {
     // given
     final Context context = RuntimeEnvironment.getApplication().getApplicationContext();
@@ -112,7 +122,8 @@ import static org.mockito.Mockito.when;
     observer.dispose();
 
     // then
-    verify(strategy).tryToUnregisterCallback(any(ConnectivityManager.class));
+    verify(strategy).tryToUnregisterCallback(any(ConnectivityManager.class),
+        any(ConnectivityManager.NetworkCallback.class));
   }
 
   @Test public void shouldTryToUnregisterReceiverOnDispose() {
@@ -125,7 +136,7 @@ import static org.mockito.Mockito.when;
     observer.dispose();
 
     // then
-    verify(strategy).tryToUnregisterReceiver(context);
+    verify(strategy).tryToUnregisterReceiver(eq(context), any(BroadcastReceiver.class));
   }
 
   @Test
@@ -243,13 +254,14 @@ import static org.mockito.Mockito.when;
   @TargetApi(Build.VERSION_CODES.LOLLIPOP) @Test
   public void shouldHandleErrorWhileTryingToUnregisterCallback() {
     // given
-    strategy.observeNetworkConnectivity(context);
+    final ConnectivityManager.NetworkCallback networkCallback =
+        strategy.createNetworkCallback(context);
     final IllegalArgumentException exception = new IllegalArgumentException();
     doThrow(exception).when(connectivityManager)
         .unregisterNetworkCallback(any(ConnectivityManager.NetworkCallback.class));
 
     // when
-    strategy.tryToUnregisterCallback(connectivityManager);
+    strategy.tryToUnregisterCallback(connectivityManager, networkCallback);
 
     // then
     verify(strategy).onError(MarshmallowNetworkObservingStrategy.ERROR_MSG_NETWORK_CALLBACK,
@@ -258,12 +270,12 @@ import static org.mockito.Mockito.when;
 
   @Test public void shouldHandleErrorWhileTryingToUnregisterReceiver() {
     // given
-    strategy.observeNetworkConnectivity(context);
+    final BroadcastReceiver idleReceiver = strategy.createIdleBroadcastReceiver();
     final RuntimeException exception = new RuntimeException();
     doThrow(exception).when(contextMock).unregisterReceiver(any(BroadcastReceiver.class));
 
     // when
-    strategy.tryToUnregisterReceiver(contextMock);
+    strategy.tryToUnregisterReceiver(contextMock, idleReceiver);
 
     // then
     verify(strategy).onError(MarshmallowNetworkObservingStrategy.ERROR_MSG_RECEIVER, exception);
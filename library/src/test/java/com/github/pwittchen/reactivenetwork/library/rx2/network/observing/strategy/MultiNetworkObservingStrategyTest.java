@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import io.reactivex.observers.TestObserver;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetwork;
+import org.robolectric.shadows.ShadowNetworkCapabilities;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class MultiNetworkObservingStrategyTest {
+  private final Network wifi = ShadowNetwork.newInstance(100);
+  private final Network mobile = ShadowNetwork.newInstance(101);
+
+  private Application context;
+  private ShadowConnectivityManager connectivityManager;
+  private MultiNetworkObservingStrategy strategy;
+
+  @Before public void setUp() {
+    context = RuntimeEnvironment.getApplication();
+    connectivityManager = shadowOf(
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
+    strategy = new MultiNetworkObservingStrategy();
+  }
+
+  @Test public void shouldEmitSnapshotOfAllNetworks() {
+    // given
+    final TestObserver<Map<Network, Connectivity>> observer =
+        strategy.observeAllNetworks(context).test();
+    final ConnectivityManager.NetworkCallback callback = getCallback();
+
+    // when
+    callback.onCapabilitiesChanged(wifi, createCapabilities(NetworkCapabilities.TRANSPORT_WIFI));
+    callback.onCapabilitiesChanged(mobile,
+        createCapabilities(NetworkCapabilities.TRANSPORT_CELLULAR));
+
+    // then
+    final Map<Network, Connectivity> snapshot = last(observer);
+    assertThat(snapshot.get(wifi).type()).isEqualTo(ConnectivityManager.TYPE_WIFI);
+    assertThat(snapshot.get(mobile).type()).isEqualTo(ConnectivityManager.TYPE_MOBILE);
+    observer.dispose();
+  }
+
+  @Test public void shouldRemoveLostNetworkFromSnapshot() {
+    // given
+    final TestObserver<Map<Network, Connectivity>> observer =
+        strategy.observeAllNetworks(context).test();
+    final ConnectivityManager.NetworkCallback callback = getCallback();
+    callback.onCapabilitiesChanged(wifi, createCapabilities(NetworkCapabilities.TRANSPORT_WIFI));
+    callback.onCapabilitiesChanged(mobile,
+        createCapabilities(NetworkCapabilities.TRANSPORT_CELLULAR));
+    final Map<Network, Connectivity> snapshotBeforeLoss = last(observer);
+
+    // when
+    callback.onLost(wifi);
+
+    // then
+    assertThat(last(observer)).doesNotContainKey(wifi);
+    assertThat(last(observer)).containsKey(mobile);
+    assertThat(snapshotBeforeLoss).containsKey(wifi);
+    observer.dispose();
+  }
+
+  @Test public void shouldAddNetworkWhenItBecomesAvailable() {
+    // given
+    final TestObserver<Map<Network, Connectivity>> observer =
+        strategy.observeAllNetworks(context).test();
+    final ConnectivityManager.NetworkCallback callback = getCallback();
+    connectivityManager.setNetworkCapabilities(wifi,
+        createCapabilities(NetworkCapabilities.TRANSPORT_WIFI));
+
+    // when
+    callback.onAvailable(wifi);
+
+    // then
+    assertThat(last(observer).get(wifi).type()).isEqualTo(ConnectivityManager.TYPE_WIFI);
+    observer.dispose();
+  }
+
+  @Test @Config(sdk = 26) public void shouldWaitForCapabilitiesWhenNetworkBecomesAvailable() {
+    // given
+    final TestObserver<Map<Network, Connectivity>> observer =
+        strategy.observeAllNetworks(context).test();
+    final ConnectivityManager.NetworkCallback callback = getCallback();
+    final NetworkCapabilities capabilities =
+        createCapabilities(NetworkCapabilities.TRANSPORT_WIFI);
+    connectivityManager.setNetworkCapabilities(wifi, capabilities);
+
+    // when
+    callback.onAvailable(wifi);
+
+    // then
+    observer.assertNoValues();
+    callback.onCapabilitiesChanged(wifi, capabilities);
+    assertThat(last(observer).get(wifi).type()).isEqualTo(ConnectivityManager.TYPE_WIFI);
+    observer.dispose();
+  }
+
+  @Test @Config(sdk = 28) public void shouldRequestVpnNetworks() {
+    // given
+    final Context context = mock(Context.class);
+    final ConnectivityManager manager = mock(ConnectivityManager.class);
+    when(context.getSystemService(Context.CONNECTIVITY_SERVICE)).thenReturn(manager);
+    final ArgumentCaptor<NetworkRequest> request = ArgumentCaptor.forClass(NetworkRequest.class);
+
+    // when
+    strategy.observeAllNetworks(context).test().dispose();
+
+    // then
+    verify(manager).registerNetworkCallback(request.capture(),
+        any(ConnectivityManager.NetworkCallback.class));
+    assertThat(request.getValue().hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_VPN))
+        .isFalse();
+    // networks available at the time of the subscription are delivered by the callback
+    verify(manager, never()).getAllNetworks();
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void snapshotShouldBeUnmodifiable() {
+    // given
+    final TestObserver<Map<Network, Connectivity>> observer =
+        strategy.observeAllNetworks(context).test();
+    getCallback().onCapabilitiesChanged(wifi,
+        createCapabilities(NetworkCapabilities.TRANSPORT_WIFI));
+
+    // when
+    last(observer).put(mobile, Connectivity.create());
+  }
+
+  @Test public void shouldUnregisterCallbackOnDispose() {
+    // given
+    final TestObserver<Map<Network, Connectivity>> observer =
+        strategy.observeAllNetworks(context).test();
+
+    // when
+    observer.dispose();
+
+    // then
+    assertThat(connectivityManager.getNetworkCallbacks()).isEmpty();
+  }
+
+  private NetworkCapabilities createCapabilities(final int transport) {
+    final NetworkCapabilities capabilities = ShadowNetworkCapabilities.newInstance();
+    shadowOf(capabilities).addTransportType(transport);
+    return capabilities;
+  }
+
+  private ConnectivityManager.NetworkCallback getCallback() {
+    assertThat(connectivityManager.getNetworkCallbacks()).hasSize(1);
+    return connectivityManager.getNetworkCallbacks().iterator().next();
+  }
+
+  private static Map<Network, Connectivity> last(
+      final TestObserver<Map<Network, Connectivity>> observer) {
+    return observer.values().get(observer.valueCount() - 1);
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2020 Piotr Wittchen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pwittchen.reactivenetwork.library.rx2.network.observing.strategy;
+
+import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkInfo;
+import com.github.pwittchen.reactivenetwork.library.rx2.Connectivity;
+import com.github.pwittchen.reactivenetwork.library.rx2.network.observing.NetworkObservingStrategy;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowConnectivityManager;
+import org.robolectric.shadows.ShadowNetwork;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@SuppressWarnings({ "PMD", "NullAway" }) // we want static imports and fields set in setUp
+public class SharedNetworkObservingStrategyTest {
+  private static final int SUBSCRIBERS = 20;
+
+  private Application context;
+  private ShadowConnectivityManager connectivityManager;
+  private NetworkObservingStrategy strategy;
+
+  @Before public void setUp() {
+    // initial Connectivity is emitted synchronously, so the counts of values are deterministic
+    RxJavaPlugins.setIoSchedulerHandler(scheduler -> Schedulers.trampoline());
+    context = RuntimeEnvironment.getApplication();
+    connectivityManager = shadowOf(
+        (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE));
+    strategy = new SharedNetworkObservingStrategy(new LollipopNetworkObservingStrategy());
+  }
+
+  @After public void tearDown() {
+    RxJavaPlugins.reset();
+  }
+
+  @Test public void shouldRegisterOneCallbackForAllSubscribers() {
+    // given
+    final List<TestObserver<Connectivity>> observers = new ArrayList<>();
+
+    // when
+    for (int i = 0; i < SUBSCRIBERS; i++) {
+      observers.add(strategy.observeNetworkConnectivity(context).test());
+    }
+
+    // then
+    assertThat(connectivityManager.getNetworkCallbacks()).hasSize(1);
+    for (TestObserver<Connectivity> observer : observers) {
+      observer.assertValueCount(1);
+      observer.dispose();
+    }
+  }
+
+  @Test public void shouldUnregisterCallbackWhenLastSubscriberIsGone() {
+    // given
+    final TestObserver<Connectivity> first = strategy.observeNetworkConnectivity(context).test();
+    final TestObserver<Connectivity> second = strategy.observeNetworkConnectivity(context).test();
+
+    // when
+    first.dispose();
+    final int callbacksWithOneSubscriber = connectivityManager.getNetworkCallbacks().size();
+    second.dispose();
+
+    // then
+    assertThat(callbacksWithOneSubscriber).isEqualTo(1);
+    assertThat(connectivityManager.getNetworkCallbacks()).isEmpty();
+  }
+
+  @Test public void shouldReplayLatestConnectivityToLateSubscriber() {
+    // given
+    final TestObserver<Connectivity> first = strategy.observeNetworkConnectivity(context).test();
+    connectivityManager.setActiveNetworkInfo(null);
+    final Network network = ShadowNetwork.newInstance(1);
+    connectivityManager.getNetworkCallbacks().iterator().next().onLost(network);
+
+    // when
+    final TestObserver<Connectivity> late = strategy.observeNetworkConnectivity(context).test();
+
+    // then
+    first.assertValueCount(2);
+    late.assertValueCount(1);
+    assertThat(late.values().get(0).state()).isEqualTo(NetworkInfo.State.DISCONNECTED);
+    first.dispose();
+    late.dispose();
+  }
+
+  @Test public void shouldRegisterAgainAfterAllSubscribersLeft() {
+    // given
+    strategy.observeNetworkConnectivity(context).test().dispose();
+
+    // when
+    final TestObserver<Connectivity> observer = strategy.observeNetworkConnectivity(context).test();
+
+    // then
+    assertThat(connectivityManager.getNetworkCallbacks()).hasSize(1);
+    observer.assertValueCount(1);
+    observer.dispose();
+  }
+
+  @Test public void shouldShareObservableForApplicationContext() {
+    // when
+    final Object first = strategy.observeNetworkConnectivity(context);
+    final Object second = strategy.observeNetworkConnectivity(context.getBaseContext());
+
+    // then
+    assertThat(first).isSameInstanceAs(second);
+  }
+
+  @Test public void shouldPassErrorsToGivenStrategy() {
+    // given
+    final NetworkObservingStrategy delegate = mock(NetworkObservingStrategy.class);
+    final NetworkObservingStrategy shared = new SharedNetworkObservingStrategy(delegate);
+    final Exception exception = new Exception();
+
+    // when
+    shared.onError("message", exception);
+
+    // then
+    verify(delegate).onError("message", exception);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldNotAllowNullStrategy() {
+    new SharedNetworkObservingStrategy(null);
+  }
+}